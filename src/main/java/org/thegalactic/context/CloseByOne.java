@@ -0,0 +1,561 @@
+package org.thegalactic.context;
+
+/*
+ * CloseByOne.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import org.thegalactic.lattice.Concept;
+import org.thegalactic.util.ComparableSet;
+
+/**
+ * Enumeration of the closed sets of attributes of a context by the Fast
+ * Close-by-One algorithm (FCbO) of Outrata and Vychodil.
+ *
+ * The context is first copied into words of bits: the extent of each
+ * attribute over the observations, attributes being numbered in their
+ * natural order. Each closed set is then computed once as the closure of a
+ * smaller closed set `B` extended by an attribute `j`, the intersection of
+ * the extent of `B` with the one of `j` giving the extent of the new set. The
+ * new set is kept when it is canonical, i.e. when it contains no attribute
+ * smaller than `j` that is not in `B`, which is tested on words of bits.
+ *
+ * The closures that failed this test are passed down the search tree, so that
+ * an extension whose failed closure still contains a smaller attribute outside
+ * `B` is skipped without computing its closure again.
+ *
+ * Closed sets are produced in a depth first order of the search tree, the
+ * closure of the empty set being the first one. The search tree is walked
+ * recursively, its depth being bounded by the number of attributes.
+ *
+ * The search tree can also be walked in parallel by
+ * {@link #allClosures(ForkJoinPool, int, boolean)}: the subtrees of the closed
+ * sets above a depth cutoff are fork-join tasks stolen by the threads of a
+ * pool, deeper subtrees being walked sequentially by the task of their root.
+ *
+ * Closed sets can also be streamed by {@link #iterator()} in the same order
+ * as {@link #allClosures()}, without being stored: only the frontier of the
+ * search tree, i.e. the pending siblings of the closed sets of the current
+ * branch, is kept in memory.
+ */
+public final class CloseByOne implements Iterable<Concept> {
+
+    /**
+     * Shift converting a bit index into a word index.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Mask giving the index of a bit in its word.
+     */
+    private static final int WORD_MASK = 63;
+
+    /**
+     * Attributes in their natural order.
+     */
+    private final Comparable[] attributes;
+
+    /**
+     * Extents of the attributes, as words over the observations.
+     */
+    private final long[][] columns;
+
+    /**
+     * Number of observations.
+     */
+    private final int rows;
+
+    /**
+     * Number of words over the observations.
+     */
+    private final int rowWords;
+
+    /**
+     * Number of words over the attributes.
+     */
+    private final int attributeWords;
+
+    /**
+     * Factory method to construct an enumeration of the closed sets of a
+     * context.
+     *
+     * The context is copied, so that it can be modified afterwards without
+     * changing this enumeration.
+     *
+     * @param context a context
+     *
+     * @return a new CloseByOne object
+     */
+    public static CloseByOne create(final Context context) {
+        return new CloseByOne(context);
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param context a context
+     */
+    private CloseByOne(final Context context) {
+        this.attributes = context.getAttributes().toArray(new Comparable[0]);
+        this.rows = context.getObservationDictionary().size();
+        this.rowWords = words(this.rows);
+        this.attributeWords = words(this.attributes.length);
+        this.columns = new long[this.attributes.length][];
+        for (int j = 0; j < this.attributes.length; j++) {
+            this.columns[j] = new long[this.rowWords];
+            for (int row : context.getTidSet(this.attributes[j]).toArray()) {
+                this.columns[j][row >>> WORD_SHIFT] |= 1L << row;
+            }
+        }
+    }
+
+    /**
+     * Returns all the closed sets of attributes.
+     *
+     * @return all the closed sets, starting with the closure of the empty set
+     */
+    public Vector<Concept> allClosures() {
+        Vector<Concept> result = new Vector<Concept>();
+        long[] extent = this.observations();
+        this.generate(extent, this.closure(extent, new long[this.attributeWords]), 0, new long[this.attributes.length][], result);
+        return result;
+    }
+
+    /**
+     * Returns an iterator over the closed sets of attributes.
+     *
+     * Closed sets are computed as they are consumed, in the order of
+     * {@link #allClosures()}.
+     *
+     * @return an iterator over the closed sets
+     */
+    @Override
+    public Iterator<Concept> iterator() {
+        return new ClosuresIterator();
+    }
+
+    /**
+     * Returns all the closed sets of attributes, computed in parallel.
+     *
+     * Each subtree of the search tree whose root is at a depth smaller than
+     * the cutoff is a task of the pool, so that idle threads steal the
+     * subtrees of busy ones. A cutoff of 0 walks the whole tree in one task.
+     *
+     * @param pool   a fork-join pool running the tasks
+     * @param cutoff depth of the search tree under which subtrees are walked sequentially
+     * @param lectic true to sort the closed sets in the lectic order, false to keep the order of discovery
+     *
+     * @return all the closed sets
+     *
+     * @throws IllegalArgumentException if the cutoff is negative
+     */
+    public Vector<Concept> allClosures(final ForkJoinPool pool, final int cutoff, final boolean lectic) {
+        if (cutoff < 0) {
+            throw new IllegalArgumentException("Cutoff must not be negative");
+        }
+        ConcurrentLinkedQueue<Concept> sink = new ConcurrentLinkedQueue<Concept>();
+        long[] extent = this.observations();
+        long[] intent = this.closure(extent, new long[this.attributeWords]);
+        pool.invoke(new Subtree(extent, intent, 0, new long[this.attributes.length][], 0, cutoff, sink));
+        if (!lectic) {
+            return new Vector<Concept>(sink);
+        }
+        TreeMap<ComparableSet, Concept> sorted = new TreeMap<ComparableSet, Concept>();
+        for (Concept concept : sink) {
+            sorted.put(new ComparableSet(concept.getSetA()), concept);
+        }
+        return new Vector<Concept>(sorted.values());
+    }
+
+    /**
+     * Generates the closed sets of the subtree of a closed set.
+     *
+     * @param extent   extent of the closed set
+     * @param intent   the closed set, as words over the attributes
+     * @param start    first attribute that can extend the closed set
+     * @param failures closures that failed the canonicity test, indexed by attribute, null if none
+     * @param result   closed sets found so far
+     */
+    private void generate(final long[] extent, final long[] intent, final int start, final long[][] failures, final Collection<Concept> result) {
+        result.add(this.concept(intent));
+        int count = this.attributes.length;
+        if (start >= count || cardinality(intent) == count) {
+            return;
+        }
+        long[][] next = failures.clone();
+        long[][] extents = new long[count][];
+        long[][] intents = new long[count][];
+        this.expand(extent, intent, start, next, extents, intents);
+        for (int j = start; j < count; j++) {
+            if (intents[j] != null) {
+                this.generate(extents[j], intents[j], j + 1, next, result);
+                extents[j] = null;
+                intents[j] = null;
+            }
+        }
+    }
+
+    /**
+     * Computes the canonical children of a closed set in the search tree.
+     *
+     * @param extent  extent of the closed set
+     * @param intent  the closed set, as words over the attributes
+     * @param start   first attribute that can extend the closed set
+     * @param next    closures that failed the canonicity test, indexed by attribute, updated in place
+     * @param extents extents of the children, indexed by their attribute
+     * @param intents children, indexed by their attribute
+     */
+    private void expand(final long[] extent, final long[] intent, final int start, final long[][] next, final long[][] extents,
+            final long[][] intents) {
+        for (int j = start; j < this.attributes.length; j++) {
+            if (!contains(intent, j) && (next[j] == null || includedBelow(next[j], intent, j))) {
+                long[] childExtent = new long[this.rowWords];
+                for (int word = 0; word < this.rowWords; word++) {
+                    childExtent[word] = extent[word] & this.columns[j][word];
+                }
+                long[] childIntent = this.closure(childExtent, intent);
+                if (includedBelow(childIntent, intent, j)) {
+                    extents[j] = childExtent;
+                    intents[j] = childIntent;
+                } else {
+                    next[j] = childIntent;
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the extent of the empty set.
+     *
+     * @return words over the observations with all the observations
+     */
+    private long[] observations() {
+        long[] result = new long[this.rowWords];
+        for (int row = 0; row < this.rows; row++) {
+            result[row >>> WORD_SHIFT] |= 1L << row;
+        }
+        return result;
+    }
+
+    /**
+     * Computes the closed set of an extent.
+     *
+     * @param extent words over the observations
+     * @param known  attributes known to be shared by the observations
+     *
+     * @return words over the attributes shared by all the observations
+     */
+    private long[] closure(final long[] extent, final long[] known) {
+        long[] result = known.clone();
+        for (int j = 0; j < this.attributes.length; j++) {
+            if (!contains(result, j)) {
+                long[] column = this.columns[j];
+                boolean shared = true;
+                for (int word = 0; word < this.rowWords && shared; word++) {
+                    shared = (extent[word] & ~column[word]) == 0;
+                }
+                if (shared) {
+                    result[j >>> WORD_SHIFT] |= 1L << j;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Converts words over the attributes into a concept.
+     *
+     * @param intent words over the attributes
+     *
+     * @return a concept whose set A is the set of attributes
+     */
+    private Concept concept(final long[] intent) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (int j = 0; j < this.attributes.length; j++) {
+            if (contains(intent, j)) {
+                set.add(this.attributes[j]);
+            }
+        }
+        return new Concept(set, false);
+    }
+
+    /**
+     * Checks if the attributes smaller than an attribute of a first set
+     * belong to a second set.
+     *
+     * @param first  words over the attributes
+     * @param second words over the attributes
+     * @param j      an attribute
+     *
+     * @return true if the attributes of the first set smaller than j are in the second one
+     */
+    private static boolean includedBelow(final long[] first, final long[] second, final int j) {
+        int last = j >>> WORD_SHIFT;
+        for (int word = 0; word < last; word++) {
+            if ((first[word] & ~second[word]) != 0) {
+                return false;
+            }
+        }
+        long mask = (1L << (j & WORD_MASK)) - 1;
+        return (first[last] & ~second[last] & mask) == 0;
+    }
+
+    /**
+     * Checks if a set contains an attribute.
+     *
+     * @param words words over the attributes
+     * @param j     an attribute
+     *
+     * @return true if the attribute belongs to the set
+     */
+    private static boolean contains(final long[] words, final int j) {
+        return (words[j >>> WORD_SHIFT] & (1L << j)) != 0;
+    }
+
+    /**
+     * Get the number of elements of a set.
+     *
+     * @param words words of bits
+     *
+     * @return the number of set bits
+     */
+    private static int cardinality(final long[] words) {
+        int result = 0;
+        for (long word : words) {
+            result += Long.bitCount(word);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of words needed for a number of bits.
+     *
+     * @param bits number of bits
+     *
+     * @return the number of words
+     */
+    private static int words(final int bits) {
+        return (bits + WORD_MASK) >>> WORD_SHIFT;
+    }
+
+    /**
+     * Fork-join task walking the subtree of a closed set.
+     */
+    private final class Subtree extends RecursiveAction {
+
+        /**
+         * Serial version.
+         */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Extent of the closed set.
+         */
+        private final long[] extent;
+
+        /**
+         * The closed set, as words over the attributes.
+         */
+        private final long[] intent;
+
+        /**
+         * First attribute that can extend the closed set.
+         */
+        private final int start;
+
+        /**
+         * Closures that failed the canonicity test, indexed by attribute.
+         */
+        private final long[][] failures;
+
+        /**
+         * Depth of the closed set in the search tree.
+         */
+        private final int depth;
+
+        /**
+         * Depth under which subtrees are walked sequentially.
+         */
+        private final int cutoff;
+
+        /**
+         * Closed sets found so far.
+         */
+        private final Collection<Concept> sink;
+
+        /**
+         * Constructs a task.
+         *
+         * @param extent   extent of the closed set
+         * @param intent   the closed set, as words over the attributes
+         * @param start    first attribute that can extend the closed set
+         * @param failures closures that failed the canonicity test, indexed by attribute
+         * @param depth    depth of the closed set in the search tree
+         * @param cutoff   depth under which subtrees are walked sequentially
+         * @param sink     closed sets found so far
+         */
+        Subtree(final long[] extent, final long[] intent, final int start, final long[][] failures, final int depth, final int cutoff,
+                final Collection<Concept> sink) {
+            this.extent = extent;
+            this.intent = intent;
+            this.start = start;
+            this.failures = failures;
+            this.depth = depth;
+            this.cutoff = cutoff;
+            this.sink = sink;
+        }
+
+        /**
+         * Walks the subtree, forking the subtrees of the children above the cutoff.
+         */
+        @Override
+        protected void compute() {
+            if (this.depth >= this.cutoff) {
+                CloseByOne.this.generate(this.extent, this.intent, this.start, this.failures, this.sink);
+                return;
+            }
+            this.sink.add(CloseByOne.this.concept(this.intent));
+            int count = CloseByOne.this.attributes.length;
+            if (this.start >= count || cardinality(this.intent) == count) {
+                return;
+            }
+            long[][] next = this.failures.clone();
+            long[][] extents = new long[count][];
+            long[][] intents = new long[count][];
+            CloseByOne.this.expand(this.extent, this.intent, this.start, next, extents, intents);
+            List<Subtree> tasks = new ArrayList<Subtree>();
+            for (int j = this.start; j < count; j++) {
+                if (intents[j] != null) {
+                    tasks.add(new Subtree(extents[j], intents[j], j + 1, next, this.depth + 1, this.cutoff, this.sink));
+                }
+            }
+            invokeAll(tasks);
+        }
+    }
+
+    /**
+     * Closed set of the search tree waiting to be produced.
+     */
+    private static final class Frame {
+
+        /**
+         * Extent of the closed set.
+         */
+        private final long[] extent;
+
+        /**
+         * The closed set, as words over the attributes.
+         */
+        private final long[] intent;
+
+        /**
+         * First attribute that can extend the closed set.
+         */
+        private final int start;
+
+        /**
+         * Closures that failed the canonicity test, indexed by attribute.
+         */
+        private final long[][] failures;
+
+        /**
+         * Constructs a frame.
+         *
+         * @param extent   extent of the closed set
+         * @param intent   the closed set, as words over the attributes
+         * @param start    first attribute that can extend the closed set
+         * @param failures closures that failed the canonicity test, indexed by attribute
+         */
+        Frame(final long[] extent, final long[] intent, final int start, final long[][] failures) {
+            this.extent = extent;
+            this.intent = intent;
+            this.start = start;
+            this.failures = failures;
+        }
+    }
+
+    /**
+     * Iterator walking the search tree depth first with an explicit stack.
+     */
+    private final class ClosuresIterator implements Iterator<Concept> {
+
+        /**
+         * Closed sets waiting to be produced, the next one on top.
+         */
+        private final ArrayDeque<Frame> stack;
+
+        /**
+         * Constructs the iterator from the closure of the empty set.
+         */
+        ClosuresIterator() {
+            this.stack = new ArrayDeque<Frame>();
+            long[] extent = CloseByOne.this.observations();
+            long[] intent = CloseByOne.this.closure(extent, new long[CloseByOne.this.attributeWords]);
+            this.stack.push(new Frame(extent, intent, 0, new long[CloseByOne.this.attributes.length][]));
+        }
+
+        /**
+         * The hasNext method return true if the iterator has a next closed set.
+         *
+         * @return true if the iterator has a next closed set
+         */
+        @Override
+        public boolean hasNext() {
+            return !this.stack.isEmpty();
+        }
+
+        /**
+         * The next method returns the next closed set and pushes its children.
+         *
+         * @return the next closed set
+         */
+        @Override
+        public Concept next() {
+            if (this.stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Frame frame = this.stack.pop();
+            int count = CloseByOne.this.attributes.length;
+            if (frame.start < count && cardinality(frame.intent) < count) {
+                long[][] next = frame.failures.clone();
+                long[][] extents = new long[count][];
+                long[][] intents = new long[count][];
+                CloseByOne.this.expand(frame.extent, frame.intent, frame.start, next, extents, intents);
+                for (int j = count - 1; j >= frame.start; j--) {
+                    if (intents[j] != null) {
+                        this.stack.push(new Frame(extents[j], intents[j], j + 1, next));
+                    }
+                }
+            }
+            return CloseByOne.this.concept(frame.intent);
+        }
+
+        /**
+         * The remove operation is not supported.
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,446 @@
+package org.thegalactic.context;
+
+/*
+ * ClosedItemsets.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.Vector;
+
+import org.thegalactic.lattice.Concept;
+import org.thegalactic.lattice.ConceptLattice;
+
+/**
+ * Enumeration of the frequent closed sets of attributes of a context by the
+ * LCM algorithm of Uno, Kiyomi and Arimura.
+ *
+ * The context is copied into transactions: the sorted indices of the frequent
+ * attributes of each observation, attributes being numbered in their natural
+ * order. Each closed set `P` is kept with its occurrences, the observations
+ * containing it, and with its core, the attribute it has been generated from.
+ *
+ * The occurrences of the sets `P+e` for all the attributes `e` greater than
+ * the core are delivered at once by a single scan of the transactions of the
+ * occurrences of `P`. The closure of a frequent set `P+e` is the set of
+ * attributes shared by all its occurrences, and it is kept when it is a prefix
+ * preserving closure extension of `P`, i.e. when it contains no attribute
+ * smaller than `e` that is not in `P`, so that each closed set is generated
+ * once.
+ *
+ * Closed sets are streamed by {@link #iterator()} with their support, in a
+ * depth first order of the search tree, the closure of the empty set being the
+ * first one. Only the frontier of the search tree is kept in memory. The Hasse
+ * diagram of the frequent closed sets is built on demand by {@link #lattice()}.
+ *
+ * The counters and buckets of the occurrence deliver are allocated once by
+ * each iterator, and only their entries touched by a closed set are reset, so
+ * that the cost of a closed set depends on the transactions of its occurrences
+ * and not on the number of attributes.
+ */
+public final class ClosedItemsets implements Iterable<ClosedItemsets.Itemset> {
+
+    /**
+     * Frequent attributes in their natural order.
+     */
+    private final Comparable[] attributes;
+
+    /**
+     * Indices of the frequent attributes of each observation, in increasing order.
+     */
+    private final int[][] transactions;
+
+    /**
+     * Minimal number of observations of a frequent set.
+     */
+    private final int threshold;
+
+    /**
+     * Factory method to construct an enumeration of the frequent closed sets
+     * of a context.
+     *
+     * The context is copied, so that it can be modified afterwards without
+     * changing this enumeration. Closed sets are frequent when they belong to
+     * at least threshold observations, and to at least one observation.
+     *
+     * @param context   a context
+     * @param threshold a support threshold, as a number of observations
+     *
+     * @return a new ClosedItemsets object
+     */
+    public static ClosedItemsets create(final Context context, final int threshold) {
+        return new ClosedItemsets(context, threshold);
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param context   a context
+     * @param threshold a support threshold, as a number of observations
+     */
+    private ClosedItemsets(final Context context, final int threshold) {
+        this.threshold = Math.max(threshold, 1);
+        int rows = context.getObservationDictionary().size();
+        int[][] tids = new int[context.getAttributes().size()][];
+        int[] lengths = new int[rows];
+        int count = 0;
+        Comparable[] frequent = new Comparable[tids.length];
+        for (Comparable attribute : context.getAttributes()) {
+            int[] column = context.getTidSet(attribute).toArray();
+            if (column.length >= this.threshold) {
+                frequent[count] = attribute;
+                tids[count] = column;
+                for (int row : column) {
+                    lengths[row]++;
+                }
+                count++;
+            }
+        }
+        this.attributes = Arrays.copyOf(frequent, count);
+        this.transactions = new int[rows][];
+        for (int row = 0; row < rows; row++) {
+            this.transactions[row] = new int[lengths[row]];
+            lengths[row] = 0;
+        }
+        for (int j = 0; j < count; j++) {
+            for (int row : tids[j]) {
+                this.transactions[row][lengths[row]] = j;
+                lengths[row]++;
+            }
+        }
+    }
+
+    /**
+     * Returns an iterator over the frequent closed sets and their supports.
+     *
+     * @return an iterator over the frequent closed sets
+     */
+    @Override
+    public Iterator<Itemset> iterator() {
+        return new ItemsetsIterator();
+    }
+
+    /**
+     * Returns the Hasse diagram of the frequent closed sets.
+     *
+     * Frequent closed sets are closed under intersection, so that their cover
+     * relation is computed by {@link ConceptLattice#coverLattice(Vector)}.
+     *
+     * @return a concept lattice whose concepts have the frequent closed sets as set A
+     */
+    public ConceptLattice lattice() {
+        Vector<Concept> closures = new Vector<Concept>();
+        for (Itemset itemset : this) {
+            closures.add(new Concept(itemset.getIntent(), false));
+        }
+        return ConceptLattice.coverLattice(closures);
+    }
+
+    /**
+     * Frequent closed set with its support.
+     */
+    public static final class Itemset {
+
+        /**
+         * The closed set.
+         */
+        private final TreeSet<Comparable> intent;
+
+        /**
+         * Number of observations containing the closed set.
+         */
+        private final int support;
+
+        /**
+         * This class is not designed to be publicly instantiated.
+         *
+         * @param intent  the closed set
+         * @param support number of observations containing the closed set
+         */
+        private Itemset(final TreeSet<Comparable> intent, final int support) {
+            this.intent = intent;
+            this.support = support;
+        }
+
+        /**
+         * Get the closed set.
+         *
+         * @return the set of attributes
+         */
+        public TreeSet<Comparable> getIntent() {
+            return this.intent;
+        }
+
+        /**
+         * Get the support of the closed set.
+         *
+         * @return the number of observations containing the closed set
+         */
+        public int getSupport() {
+            return this.support;
+        }
+
+        /**
+         * Returns a string representation of this itemset.
+         *
+         * @return a string representation of this itemset
+         */
+        @Override
+        public String toString() {
+            return this.intent + ":" + this.support;
+        }
+    }
+
+    /**
+     * Closed set of the search tree waiting to be produced.
+     */
+    private static final class Frame {
+
+        /**
+         * Indices of the attributes of the closed set, in increasing order.
+         */
+        private final int[] intent;
+
+        /**
+         * Indices of the observations containing the closed set.
+         */
+        private final int[] occurrences;
+
+        /**
+         * Attribute the closed set has been generated from, -1 for the root.
+         */
+        private final int core;
+
+        /**
+         * Constructs a frame.
+         *
+         * @param intent      indices of the attributes of the closed set
+         * @param occurrences indices of the observations containing the closed set
+         * @param core        attribute the closed set has been generated from
+         */
+        Frame(final int[] intent, final int[] occurrences, final int core) {
+            this.intent = intent;
+            this.occurrences = occurrences;
+            this.core = core;
+        }
+    }
+
+    /**
+     * Iterator walking the search tree depth first with an explicit stack.
+     */
+    private final class ItemsetsIterator implements Iterator<Itemset> {
+
+        /**
+         * Closed sets waiting to be produced, the next one on top.
+         */
+        private final ArrayDeque<Frame> stack;
+
+        /**
+         * Attributes of the closed set being expanded.
+         */
+        private final boolean[] member;
+
+        /**
+         * Number of occurrences of each candidate extension.
+         */
+        private final int[] supports;
+
+        /**
+         * Occurrences of each frequent candidate extension.
+         */
+        private final int[][] buckets;
+
+        /**
+         * Candidate extensions found in the occurrences of the closed set being expanded.
+         */
+        private final int[] candidates;
+
+        /**
+         * Attributes shared by the observations intersected by a closure.
+         */
+        private final int[] shared;
+
+        /**
+         * Constructs the iterator from the closure of the empty set.
+         */
+        ItemsetsIterator() {
+            int count = ClosedItemsets.this.attributes.length;
+            this.stack = new ArrayDeque<Frame>();
+            this.member = new boolean[count];
+            this.supports = new int[count];
+            this.buckets = new int[count][];
+            this.candidates = new int[count];
+            this.shared = new int[count];
+            int rows = ClosedItemsets.this.transactions.length;
+            if (rows >= ClosedItemsets.this.threshold) {
+                int[] occurrences = new int[rows];
+                for (int row = 0; row < rows; row++) {
+                    occurrences[row] = row;
+                }
+                this.stack.push(new Frame(this.closure(occurrences), occurrences, -1));
+            }
+        }
+
+        /**
+         * The hasNext method return true if the iterator has a next closed set.
+         *
+         * @return true if the iterator has a next closed set
+         */
+        @Override
+        public boolean hasNext() {
+            return !this.stack.isEmpty();
+        }
+
+        /**
+         * The next method returns the next closed set and pushes its extensions.
+         *
+         * @return the next closed set
+         */
+        @Override
+        public Itemset next() {
+            if (this.stack.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            Frame frame = this.stack.pop();
+            this.expand(frame);
+            TreeSet<Comparable> intent = new TreeSet<Comparable>();
+            for (int j : frame.intent) {
+                intent.add(ClosedItemsets.this.attributes[j]);
+            }
+            return new Itemset(intent, frame.occurrences.length);
+        }
+
+        /**
+         * The remove operation is not supported.
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        /**
+         * Computes the frequent prefix preserving closure extensions of a
+         * closed set and pushes them on the stack, the smallest extension on
+         * top.
+         *
+         * @param frame the closed set
+         */
+        private void expand(final Frame frame) {
+            for (int j : frame.intent) {
+                this.member[j] = true;
+            }
+            // occurrence deliver: the occurrences of P+e for each e greater than the core
+            int size = 0;
+            for (int row : frame.occurrences) {
+                int[] transaction = ClosedItemsets.this.transactions[row];
+                for (int i = this.start(transaction, frame.core); i < transaction.length; i++) {
+                    int e = transaction[i];
+                    if (!this.member[e]) {
+                        if (this.supports[e] == 0) {
+                            this.candidates[size] = e;
+                            size++;
+                        }
+                        this.supports[e]++;
+                    }
+                }
+            }
+            for (int i = 0; i < size; i++) {
+                int e = this.candidates[i];
+                if (this.supports[e] >= ClosedItemsets.this.threshold) {
+                    this.buckets[e] = new int[this.supports[e]];
+                }
+                this.supports[e] = 0;
+            }
+            for (int row : frame.occurrences) {
+                int[] transaction = ClosedItemsets.this.transactions[row];
+                for (int i = this.start(transaction, frame.core); i < transaction.length; i++) {
+                    int e = transaction[i];
+                    if (this.buckets[e] != null) {
+                        this.buckets[e][this.supports[e]] = row;
+                        this.supports[e]++;
+                    }
+                }
+            }
+            // prefix preserving closure extensions
+            Arrays.sort(this.candidates, 0, size);
+            for (int i = size - 1; i >= 0; i--) {
+                int e = this.candidates[i];
+                int[] occurrences = this.buckets[e];
+                this.buckets[e] = null;
+                this.supports[e] = 0;
+                if (occurrences != null) {
+                    int[] closure = this.closure(occurrences);
+                    boolean prefix = true;
+                    for (int k = 0; k < closure.length && closure[k] < e && prefix; k++) {
+                        prefix = this.member[closure[k]];
+                    }
+                    if (prefix) {
+                        this.stack.push(new Frame(closure, occurrences, e));
+                    }
+                }
+            }
+            for (int j : frame.intent) {
+                this.member[j] = false;
+            }
+        }
+
+        /**
+         * Returns the position of the first attribute of a transaction greater
+         * than a core.
+         *
+         * @param transaction indices of attributes, in increasing order
+         * @param core        an attribute, -1 for the root
+         *
+         * @return the position of the first attribute greater than the core
+         */
+        private int start(final int[] transaction, final int core) {
+            int position = Arrays.binarySearch(transaction, core + 1);
+            if (position < 0) {
+                position = -position - 1;
+            }
+            return position;
+        }
+
+        /**
+         * Computes the set of attributes shared by observations, by
+         * intersecting their transactions.
+         *
+         * @param occurrences indices of observations, at least one
+         *
+         * @return indices of the attributes shared by the observations, in increasing order
+         */
+        private int[] closure(final int[] occurrences) {
+            int[] first = ClosedItemsets.this.transactions[occurrences[0]];
+            int size = first.length;
+            System.arraycopy(first, 0, this.shared, 0, size);
+            for (int i = 1; i < occurrences.length && size > 0; i++) {
+                int[] transaction = ClosedItemsets.this.transactions[occurrences[i]];
+                int kept = 0;
+                int k = 0;
+                for (int s = 0; s < size; s++) {
+                    int j = this.shared[s];
+                    while (k < transaction.length && transaction[k] < j) {
+                        k++;
+                    }
+                    if (k < transaction.length && transaction[k] == j) {
+                        this.shared[kept] = j;
+                        kept++;
+                    }
+                }
+                size = kept;
+            }
+            return Arrays.copyOf(this.shared, size);
+        }
+    }
+}
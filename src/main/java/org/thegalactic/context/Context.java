@@ -16,13 +16,19 @@ import java.util.ArrayList;
 import java.util.BitSet;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
 
 import org.thegalactic.context.io.ContextIOFactory;
+import org.thegalactic.context.storage.BitMatrix;
+import org.thegalactic.context.storage.CompressedBitMatrix;
+import org.thegalactic.context.storage.Dictionary;
+import org.thegalactic.context.storage.TidSet;
 import org.thegalactic.dgraph.Node;
 import org.thegalactic.io.Filer;
 import org.thegalactic.lattice.ArrowRelation;
@@ -51,6 +57,11 @@ import org.thegalactic.util.Couple;
  * This class provides methods implementing classical operation on a context:
  * closure, reduction, reverse, ...
  *
+ * The relation can alternatively be stored in a {@link BitMatrix} where
+ * observations and attributes are encoded to dense integers, see
+ * {@link #setBitMatrix}. Closures, intents and extents are then computed with
+ * word-wise AND over rows and columns instead of TreeSet intersections.
+ *
  * A context owns properties of a closure system, and thus extends the abstract
  * class
  * {@link ClosureSystem} and implements methods {@link #getSet} and
@@ -144,13 +155,22 @@ public class Context extends ClosureSystem {
                 attr = r.nextInt(nbAttrPerGrp) + 1;
             }
         }
-        ctx.setBitSets();
         return ctx;
     }
 
     /*
      * ------------- FIELD ------------------
      */
+    /**
+     * Minimal number of cells of a context loaded in a compressed bit matrix.
+     */
+    private static final long SPARSE_CELLS = 1L << 16;
+
+    /**
+     * Inverse of the maximal density of a context loaded in a compressed bit matrix.
+     */
+    private static final long SPARSE_RATIO = 100;
+
     /**
      * A set of observations.
      */
@@ -185,14 +205,22 @@ public class Context extends ClosureSystem {
     private TreeMap<Comparable, BitSet> bitsetExtent;
 
     /**
-     * An array for observations.
+     * A dictionary encoding observations to indices of bit sets and rows of the bit matrix.
      */
-    private ArrayList<Comparable> arrayObservations;
+    private Dictionary observationDictionary;
 
     /**
-     * An array for attributes.
+     * A dictionary encoding attributes to indices of bit sets and columns of the bit matrix.
      */
-    private ArrayList<Comparable> arrayAttributes;
+    private Dictionary attributeDictionary;
+
+    /*
+     * ------------- BIT MATRIX STORAGE ------------------
+     */
+    /**
+     * A bit matrix storing the relation, null when the relation is stored in intent and extent maps.
+     */
+    private BitMatrix matrix;
 
     /*
      * ------------- CONSTRUCTORS ------------------
@@ -207,19 +235,29 @@ public class Context extends ClosureSystem {
     /**
      * Constructs a new context as a copy of the specified context.
      *
+     * When the relation of the specified context is stored in a bit matrix,
+     * the matrix is copied in the same kind of storage with its dictionaries,
+     * without building intent and extent maps.
+     *
      * @param context context to be copied
      */
     public Context(Context context) {
         this();
-        this.attributes.addAll(context.getAttributes());
-        this.observations.addAll(context.getObservations());
-        for (Comparable o : context.getObservations()) {
-            this.intent.put(o, new TreeSet(context.getIntent(o)));
-        }
-        for (Comparable a : context.getAttributes()) {
-            this.extent.put(a, new TreeSet(context.getExtent(a)));
+        if (context.hasBitMatrix()) {
+            this.setBitMatrix(context.getBitMatrix().copy(),
+                    Dictionary.create(context.getObservationDictionary().getElements()),
+                    Dictionary.create(context.getAttributeDictionary().getElements()));
+        } else {
+            this.attributes.addAll(context.getAttributes());
+            this.observations.addAll(context.getObservations());
+            for (Comparable o : context.getObservations()) {
+                this.intent.put(o, new TreeSet(context.getIntent(o)));
+            }
+            for (Comparable a : context.getAttributes()) {
+                this.extent.put(a, new TreeSet(context.getExtent(a)));
+            }
+            this.setBitSets();
         }
-        this.setBitSets();
     }
 
     /**
@@ -260,17 +298,136 @@ public class Context extends ClosureSystem {
      * @return this for chaining
      */
     public Context init() {
+        this.invalidateClosureCache();
         this.observations = new TreeSet();
         this.attributes = new TreeSet();
         this.intent = new TreeMap();
         this.extent = new TreeMap();
         this.bitsetIntent = new TreeMap();
         this.bitsetExtent = new TreeMap();
-        this.arrayObservations = new ArrayList();
-        this.arrayAttributes = new ArrayList();
+        this.observationDictionary = Dictionary.create();
+        this.attributeDictionary = Dictionary.create();
+        this.matrix = null;
         return this;
     }
 
+    /**
+     * Stores the relation of this component in the specified bit matrix.
+     *
+     * Observations and attributes are encoded to rows and columns in their
+     * natural order. A null matrix restores the storage in intent and extent
+     * maps.
+     *
+     * @param matrix an empty bit matrix or null
+     *
+     * @return this for chaining
+     */
+    public Context setBitMatrix(BitMatrix matrix) {
+        this.invalidateClosureCache();
+        if (matrix != null && (matrix.rows() != 0 || matrix.columns() != 0)) {
+            throw new IllegalArgumentException("Bit matrix must be empty");
+        }
+        TreeMap<Comparable, TreeSet<Comparable>> intents = new TreeMap<Comparable, TreeSet<Comparable>>();
+        for (Comparable obs : this.observations) {
+            intents.put(obs, new TreeSet<Comparable>(this.getIntent(obs)));
+        }
+        this.intent = new TreeMap();
+        this.extent = new TreeMap();
+        this.bitsetIntent = new TreeMap();
+        this.bitsetExtent = new TreeMap();
+        this.observationDictionary = Dictionary.create(this.observations);
+        this.attributeDictionary = Dictionary.create(this.attributes);
+        this.matrix = matrix;
+        if (matrix == null) {
+            for (Comparable obs : this.observations) {
+                this.intent.put(obs, new TreeSet<Comparable>());
+                this.bitsetIntent.put(obs, new BitSet());
+            }
+            for (Comparable att : this.attributes) {
+                this.extent.put(att, new TreeSet<Comparable>());
+                this.bitsetExtent.put(att, new BitSet());
+            }
+        } else {
+            for (int i = 0; i < this.observations.size(); i++) {
+                matrix.addRow();
+            }
+            for (int i = 0; i < this.attributes.size(); i++) {
+                matrix.addColumn();
+            }
+        }
+        for (Comparable obs : intents.keySet()) {
+            for (Comparable att : intents.get(obs)) {
+                this.addExtentIntent(obs, att);
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Replaces the content of this component by a relation stored in a bit
+     * matrix.
+     *
+     * Rows and columns of the matrix are decoded by the specified
+     * dictionaries, the matrix and the dictionaries are used without copy.
+     *
+     * @param matrix     a bit matrix
+     * @param obsCodes   a dictionary of observations indexed by rows
+     * @param attrCodes  a dictionary of attributes indexed by columns
+     *
+     * @return this for chaining
+     */
+    public Context setBitMatrix(BitMatrix matrix, Dictionary obsCodes, Dictionary attrCodes) {
+        this.invalidateClosureCache();
+        if (matrix.rows() != obsCodes.size() || matrix.columns() != attrCodes.size()) {
+            throw new IllegalArgumentException("Dictionaries do not match the bit matrix");
+        }
+        this.init();
+        this.observations.addAll(obsCodes.getElements());
+        this.attributes.addAll(attrCodes.getElements());
+        this.observationDictionary = obsCodes;
+        this.attributeDictionary = attrCodes;
+        this.matrix = matrix;
+        return this;
+    }
+
+    /**
+     * Returns the bit matrix storing the relation of this component.
+     *
+     * @return the bit matrix or null if the relation is stored in maps
+     */
+    public BitMatrix getBitMatrix() {
+        return this.matrix;
+    }
+
+    /**
+     * Checks if the relation of this component is stored in a bit matrix.
+     *
+     * @return true if the relation is stored in a bit matrix
+     */
+    public boolean hasBitMatrix() {
+        return this.matrix != null;
+    }
+
+    /**
+     * Returns the dictionary encoding observations to indices of bit sets and
+     * rows of the bit matrix.
+     *
+     * @return the dictionary
+     */
+    public Dictionary getObservationDictionary() {
+        return this.observationDictionary;
+    }
+
+    /**
+     * Returns the dictionary encoding attributes to indices of bit sets and
+     * columns of the bit matrix.
+     *
+     * @return the dictionary
+     */
+    public Dictionary getAttributeDictionary() {
+        return this.attributeDictionary;
+    }
+
     /**
      * Returns subcontext with selected obs and attr.
      *
@@ -285,12 +442,11 @@ public class Context extends ClosureSystem {
         ctx.addAllToObservations(obs);
         for (Comparable o : obs) {
             for (Comparable a : attr) {
-                if (this.getIntent(o).contains(a)) {
+                if (this.containAsIntent(o, a)) {
                     ctx.addExtentIntent(o, a);
                 }
             }
         }
-        ctx.setBitSets();
         return ctx;
     }
 
@@ -434,12 +590,17 @@ public class Context extends ClosureSystem {
      * @return true if the attribute was successfully added
      */
     public boolean addToAttributes(Comparable att) {
+        this.invalidateClosureCache();
         if (!this.containsAttribute(att)) {
-            this.extent.put(att, new TreeSet<Comparable>());
+            this.attributeDictionary.add(att);
+            if (this.matrix == null) {
+                this.extent.put(att, new TreeSet<Comparable>());
+                this.bitsetExtent.put(att, new BitSet());
+            } else {
+                this.matrix.addColumn();
+            }
         }
-        boolean ok = this.attributes.add(att);
-        this.setBitSets();
-        return ok;
+        return this.attributes.add(att);
     }
 
     /**
@@ -457,7 +618,6 @@ public class Context extends ClosureSystem {
                 all = false;
             }
         }
-        this.setBitSets();
         return all;
     }
 
@@ -471,13 +631,21 @@ public class Context extends ClosureSystem {
      * @return true if the attribute was successfully removed
      */
     public boolean removeFromAttributes(Comparable att) {
-        this.extent.remove(att);
-        for (Comparable o : this.getObservations()) {
-            this.intent.get(o).remove(att);
+        this.invalidateClosureCache();
+        if (this.containsAttribute(att)) {
+            int index = this.attributeDictionary.remove(att);
+            if (this.matrix == null) {
+                this.extent.remove(att);
+                this.bitsetExtent.remove(att);
+                for (Comparable o : this.getObservations()) {
+                    this.intent.get(o).remove(att);
+                    moveBit(this.bitsetIntent.get(o), this.attributeDictionary.size(), index);
+                }
+            } else {
+                this.matrix.removeColumn(index);
+            }
         }
-        boolean ok = this.attributes.remove(att);
-        this.setBitSets();
-        return ok;
+        return this.attributes.remove(att);
     }
 
     /**
@@ -519,12 +687,17 @@ public class Context extends ClosureSystem {
      * @return true if the observation was successfully added
      */
     public boolean addToObservations(Comparable obs) {
+        this.invalidateClosureCache();
         if (!this.containsObservation(obs)) {
-            this.intent.put(obs, new TreeSet<Comparable>());
+            this.observationDictionary.add(obs);
+            if (this.matrix == null) {
+                this.intent.put(obs, new TreeSet<Comparable>());
+                this.bitsetIntent.put(obs, new BitSet());
+            } else {
+                this.matrix.addRow();
+            }
         }
-        boolean ok = this.observations.add(obs);
-        this.setBitSets();
-        return ok;
+        return this.observations.add(obs);
     }
 
     /**
@@ -542,7 +715,6 @@ public class Context extends ClosureSystem {
                 all = false;
             }
         }
-        this.setBitSets();
         return all;
     }
 
@@ -556,38 +728,57 @@ public class Context extends ClosureSystem {
      * @return true if the observation was removed
      */
     public boolean removeFromObservations(Comparable obs) {
-        this.intent.remove(obs);
-        for (Comparable att : this.getAttributes()) {
-            this.extent.get(att).remove(obs);
+        this.invalidateClosureCache();
+        if (this.containsObservation(obs)) {
+            int index = this.observationDictionary.remove(obs);
+            if (this.matrix == null) {
+                this.intent.remove(obs);
+                this.bitsetIntent.remove(obs);
+                for (Comparable att : this.getAttributes()) {
+                    this.extent.get(att).remove(obs);
+                    moveBit(this.bitsetExtent.get(att), this.observationDictionary.size(), index);
+                }
+            } else {
+                this.matrix.removeRow(index);
+            }
         }
-        boolean ok = this.observations.remove(obs);
-        this.setBitSets();
-        return ok;
+        return this.observations.remove(obs);
+    }
+
+    /**
+     * Moves a bit of a bit set, following the move of the last element of a
+     * dictionary into the index of a removed element.
+     *
+     * @param bits bit set to be modified
+     * @param from former index of the bit
+     * @param to   new index of the bit
+     */
+    private static void moveBit(BitSet bits, int from, int to) {
+        bits.set(to, bits.get(from));
+        bits.clear(from);
     }
 
     /**
-     * Set the needed structures for the bitset optimization.
-     * WARNING: this must be called each time your dataset change
+     * Rebuild the needed structures for the bitset optimization.
+     *
+     * These structures are maintained incrementally by the methods of this
+     * class, this is only needed after modifying a set returned by
+     * `getIntent` or `getExtent`. Nothing is done when the relation is stored
+     * in a bit matrix.
      */
     public void setBitSets() {
-        this.setMaps();
-        this.setBitSetsIntentExtent();
+        if (this.matrix == null) {
+            this.setMaps();
+            this.setBitSetsIntentExtent();
+        }
     }
 
     /**
      * Set the mapping structure for the bitset optimization.
      */
     private void setMaps() {
-        this.arrayAttributes = new ArrayList();
-        this.arrayObservations = new ArrayList();
-        Iterator<Comparable> i = this.attributes.iterator();
-        while (i.hasNext()) {
-            this.arrayAttributes.add(i.next());
-        }
-        i = this.observations.iterator();
-        while (i.hasNext()) {
-            this.arrayObservations.add(i.next());
-        }
+        this.attributeDictionary = Dictionary.create(this.attributes);
+        this.observationDictionary = Dictionary.create(this.observations);
     }
 
     /**
@@ -601,7 +792,7 @@ public class Context extends ClosureSystem {
         while (i.hasNext()) {
             Comparable att = i.next();
             for (Comparable c : this.extent.get(att)) {
-                b.set(this.arrayObservations.indexOf(c));
+                b.set(this.observationDictionary.indexOf(c));
             }
             this.bitsetExtent.put(att, (BitSet) b.clone());
             b.clear();
@@ -611,7 +802,7 @@ public class Context extends ClosureSystem {
         while (i.hasNext()) {
             Comparable obs = i.next();
             for (Comparable c : this.intent.get(obs)) {
-                b.set(this.arrayAttributes.indexOf(c));
+                b.set(this.attributeDictionary.indexOf(c));
             }
             this.bitsetIntent.put(obs, (BitSet) b.clone());
             b.clear();
@@ -625,12 +816,17 @@ public class Context extends ClosureSystem {
      * Returns the set of attributes that are intent of the specified
      * observation.
      *
+     * When the relation is stored in a bit matrix, the returned set is a copy.
+     *
      * @param obs an observation
      *
      * @return the set of attributes
      */
     public TreeSet<Comparable> getIntent(Comparable obs) {
         if (this.containsObservation(obs)) {
+            if (this.matrix != null) {
+                return this.attributeDictionary.decode(this.matrix.row(this.observationDictionary.indexOf(obs)));
+            }
             return this.intent.get(obs);
         } else {
             return new TreeSet();
@@ -646,6 +842,13 @@ public class Context extends ClosureSystem {
      * @return the set of observations
      */
     public TreeSet<Comparable> getIntent(TreeSet<Comparable> set) {
+        if (this.matrix != null) {
+            int[] rows = this.observationDictionary.encode(set);
+            if (rows == null) {
+                return new TreeSet();
+            }
+            return this.attributeDictionary.decode(this.matrix.intent(rows));
+        }
         TreeSet<Comparable> resIntent = new TreeSet(this.getAttributes());
         for (Comparable obs : set) {
             resIntent.retainAll(this.getIntent(obs));
@@ -653,6 +856,32 @@ public class Context extends ClosureSystem {
         return resIntent;
     }
 
+    /**
+     * Returns the set of attributes that are all intent of the observations
+     * of the specified tid set.
+     *
+     * When the tid set is the one of a set of attributes, this is the closure
+     * of the set, computed from the rows of its extent instead of
+     * intersecting again the extents of its attributes.
+     *
+     * @param tids a tid set over the observation dictionary
+     *
+     * @return the set of attributes
+     */
+    public TreeSet<Comparable> getIntent(TidSet tids) {
+        int[] rows = tids.toArray();
+        if (this.matrix != null) {
+            return this.attributeDictionary.decode(this.matrix.intent(rows));
+        }
+        int size = this.getAttributes().size();
+        BitSet obsIntent = new BitSet(size);
+        obsIntent.set(0, size);
+        for (int row : rows) {
+            obsIntent.and(this.bitsetIntent.get(this.observationDictionary.get(row)));
+        }
+        return this.attributeDictionary.decode(obsIntent.toLongArray());
+    }
+
     /**
      * Return the number of attributes that are all intent of observations of
      * the specified set.
@@ -662,6 +891,13 @@ public class Context extends ClosureSystem {
      * @return the number of attributes
      */
     public int getIntentNb(TreeSet<Comparable> set) {
+        if (this.matrix != null) {
+            int[] rows = this.observationDictionary.encode(set);
+            if (rows == null) {
+                return 0;
+            }
+            return this.matrix.intentCardinality(rows);
+        }
         int size = this.getAttributes().size();
         BitSet obsIntent = new BitSet(size);
         obsIntent.set(0, size);
@@ -686,6 +922,9 @@ public class Context extends ClosureSystem {
      */
     public boolean containAsIntent(Comparable obs, Comparable att) {
         if (this.containsObservation(obs) && this.containsAttribute(att)) {
+            if (this.matrix != null) {
+                return this.matrix.get(this.observationDictionary.indexOf(obs), this.attributeDictionary.indexOf(att));
+            }
             return this.intent.get(obs).contains(att);
         } else {
             return false;
@@ -696,12 +935,17 @@ public class Context extends ClosureSystem {
      * Returns the set of observations that are intent of the specified
      * attribute.
      *
+     * When the relation is stored in a bit matrix, the returned set is a copy.
+     *
      * @param att an attribute
      *
      * @return the set of observations
      */
     public TreeSet<Comparable> getExtent(Comparable att) {
         if (this.containsAttribute(att)) {
+            if (this.matrix != null) {
+                return this.observationDictionary.decode(this.matrix.column(this.attributeDictionary.indexOf(att)));
+            }
             return this.extent.get(att);
         } else {
             return new TreeSet();
@@ -717,6 +961,13 @@ public class Context extends ClosureSystem {
      * @return the set of observations
      */
     public TreeSet<Comparable> getExtent(TreeSet<Comparable> set) {
+        if (this.matrix != null) {
+            int[] columns = this.attributeDictionary.encode(set);
+            if (columns == null) {
+                return new TreeSet();
+            }
+            return this.observationDictionary.decode(this.matrix.extent(columns));
+        }
         TreeSet<Comparable> attExtent = new TreeSet(this.getObservations());
         for (Comparable att : set) {
             attExtent.retainAll(this.getExtent(att));
@@ -733,6 +984,13 @@ public class Context extends ClosureSystem {
      * @return the number of observations
      */
     public int getExtentNb(TreeSet<Comparable> set) {
+        if (this.matrix != null) {
+            int[] columns = this.attributeDictionary.encode(set);
+            if (columns == null) {
+                return 0;
+            }
+            return this.matrix.extentCardinality(columns);
+        }
         int size = this.getObservations().size();
         BitSet attExtent = new BitSet(size);
         attExtent.set(0, size);
@@ -746,6 +1004,114 @@ public class Context extends ClosureSystem {
         return attExtent.cardinality();
     }
 
+    /**
+     * Checks if at least a number of observations are intent of all the
+     * attributes of the specified set.
+     *
+     * The count stops as soon as the threshold is reached or cannot be
+     * reached anymore, which is cheaper than comparing
+     * {@link #getExtentNb(TreeSet)} to the threshold for low supports.
+     *
+     * This is meant for isolated support checks. Iceberg generation walks a
+     * search tree, where the supports are obtained incrementally from the tid
+     * sets given by {@link #getTidSet(Comparable)}, so it does not use this
+     * method.
+     *
+     * @param set       set of attributes
+     * @param threshold minimal number of observations
+     *
+     * @return true if the extent of the set has at least threshold observations
+     */
+    public boolean hasExtentNb(TreeSet<Comparable> set, int threshold) {
+        if (threshold <= 0) {
+            return true;
+        }
+        if (this.matrix != null) {
+            int[] columns = this.attributeDictionary.encode(set);
+            return columns != null && this.matrix.hasExtentCardinality(columns, threshold);
+        }
+        int size = this.getObservations().size();
+        if (size < threshold) {
+            return false;
+        }
+        BitSet attExtent = new BitSet(size);
+        attExtent.set(0, size);
+        for (Comparable att : set) {
+            BitSet bits = this.bitsetExtent.get(att);
+            if (bits == null) {
+                return false;
+            }
+            attExtent.and(bits);
+            if (attExtent.cardinality() < threshold) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if at least a number of observations of the specified extent are
+     * intent of the specified attribute.
+     *
+     * When the extent is the extent of a set of attributes `F`, this checks
+     * the support of `F+att` without intersecting again the attributes of
+     * `F`. The count stops as soon as the threshold is reached or cannot be
+     * reached anymore.
+     *
+     * As for {@link #hasExtentNb(TreeSet, int)}, iceberg generation uses tid
+     * sets instead, since it needs the extent of `F+att` and not only its
+     * support.
+     *
+     * @param extent    set of observations
+     * @param att       an attribute
+     * @param threshold minimal number of observations
+     *
+     * @return true if at least threshold observations of the extent have the attribute
+     */
+    public boolean hasExtentNb(TreeSet<Comparable> extent, Comparable att, int threshold) {
+        if (threshold <= 0) {
+            return true;
+        }
+        int count = 0;
+        int remaining = extent.size();
+        for (Comparable obs : extent) {
+            if (count + remaining < threshold) {
+                return false;
+            }
+            remaining--;
+            if (this.containAsIntent(obs, att)) {
+                count++;
+                if (count >= threshold) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the tid-list of the specified attribute, for vertical mining.
+     *
+     * The tid-list contains the indices of the observations that are intent
+     * of the attribute in the observation dictionary. The tid sets of larger
+     * sets of attributes are obtained incrementally by
+     * {@link TidSet#extend(TidSet)} instead of intersecting again all the
+     * extents of their attributes.
+     *
+     * @param att an attribute
+     *
+     * @return the tid-list of the attribute, empty if it is not an attribute
+     */
+    public TidSet getTidSet(Comparable att) {
+        if (!this.containsAttribute(att)) {
+            return TidSet.create(new int[0]);
+        }
+        if (this.matrix != null) {
+            return TidSet.create(this.matrix.column(this.attributeDictionary.indexOf(att)));
+        }
+        return TidSet.create(this.bitsetExtent.get(att).toLongArray());
+    }
+
     /**
      * Checks if the second specified element is an extent of the first
      * specified element.
@@ -757,6 +1123,9 @@ public class Context extends ClosureSystem {
      */
     public boolean containAsExtent(Comparable att, Comparable obs) {
         if (this.containsObservation(obs) && this.containsAttribute(att)) {
+            if (this.matrix != null) {
+                return this.matrix.get(this.observationDictionary.indexOf(obs), this.attributeDictionary.indexOf(att));
+            }
             return this.extent.get(att).contains(obs);
         } else {
             return false;
@@ -775,9 +1144,14 @@ public class Context extends ClosureSystem {
      * @return true if both were added
      */
     public boolean addExtentIntent(Comparable obs, Comparable att) {
+        this.invalidateClosureCache();
         if (this.containsObservation(obs) && this.containsAttribute(att)) {
+            if (this.matrix != null) {
+                return this.setCell(obs, att, true);
+            }
             boolean ok = this.intent.get(obs).add(att) && this.extent.get(att).add(obs);
-            this.setBitSets();
+            this.bitsetIntent.get(obs).set(this.attributeDictionary.indexOf(att));
+            this.bitsetExtent.get(att).set(this.observationDictionary.indexOf(obs));
             return ok;
         } else {
             return false;
@@ -796,15 +1170,102 @@ public class Context extends ClosureSystem {
      * @return true if both were removed
      */
     public boolean removeExtentIntent(Comparable obs, Comparable att) {
+        this.invalidateClosureCache();
         if (this.containsObservation(obs) && this.containsAttribute(att)) {
+            if (this.matrix != null) {
+                return this.setCell(obs, att, false);
+            }
             boolean ok = this.intent.get(obs).remove(att) && this.extent.get(att).remove(obs);
-            this.setBitSets();
+            this.bitsetIntent.get(obs).clear(this.attributeDictionary.indexOf(att));
+            this.bitsetExtent.get(att).clear(this.observationDictionary.indexOf(obs));
             return ok;
         } else {
             return false;
         }
     }
 
+    /**
+     * Adds observations, attributes and incidences given by codes in one pass.
+     *
+     * This method is designed for {@link ContextBuilder}. When this component
+     * is empty, stored in maps, and the incidences fill less than one cell out
+     * of a hundred of a large enough context, the relation is stored in a
+     * {@link CompressedBitMatrix} so that closures intersect compressed
+     * extents.
+     *
+     * @param obs     observations indexed by their code
+     * @param attr    attributes indexed by their code
+     * @param rows    observation codes of the incidences
+     * @param columns attribute codes of the incidences
+     * @param size    number of incidences
+     */
+    void load(List<Comparable> obs, List<Comparable> attr, int[] rows, int[] columns, int size) {
+        this.invalidateClosureCache();
+        long cells = (long) obs.size() * attr.size();
+        CompressedBitMatrix compressed = null;
+        if (this.matrix == null && this.observations.isEmpty() && this.attributes.isEmpty()
+                && cells >= SPARSE_CELLS && size * SPARSE_RATIO < cells) {
+            compressed = CompressedBitMatrix.create();
+            this.setBitMatrix(compressed);
+        }
+        int[] obsCodes = new int[obs.size()];
+        TreeSet<Comparable>[] intents = new TreeSet[obs.size()];
+        BitSet[] obsBits = new BitSet[obs.size()];
+        for (int i = 0; i < obsCodes.length; i++) {
+            this.addToObservations(obs.get(i));
+            obsCodes[i] = this.observationDictionary.indexOf(obs.get(i));
+            if (this.matrix == null) {
+                intents[i] = this.intent.get(obs.get(i));
+                obsBits[i] = this.bitsetIntent.get(obs.get(i));
+            }
+        }
+        int[] attCodes = new int[attr.size()];
+        TreeSet<Comparable>[] extents = new TreeSet[attr.size()];
+        BitSet[] attBits = new BitSet[attr.size()];
+        for (int j = 0; j < attCodes.length; j++) {
+            this.addToAttributes(attr.get(j));
+            attCodes[j] = this.attributeDictionary.indexOf(attr.get(j));
+            if (this.matrix == null) {
+                extents[j] = this.extent.get(attr.get(j));
+                attBits[j] = this.bitsetExtent.get(attr.get(j));
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            int i = rows[k];
+            int j = columns[k];
+            if (this.matrix == null) {
+                intents[i].add(attr.get(j));
+                extents[j].add(obs.get(i));
+                obsBits[i].set(attCodes[j]);
+                attBits[j].set(obsCodes[i]);
+            } else {
+                this.matrix.set(obsCodes[i], attCodes[j], true);
+            }
+        }
+        if (compressed != null) {
+            compressed.optimize();
+        }
+    }
+
+    /**
+     * Sets a cell of the bit matrix.
+     *
+     * @param obs   an observation
+     * @param att   an attribute
+     * @param truth the new truth value
+     *
+     * @return true if the cell has changed
+     */
+    private boolean setCell(Comparable obs, Comparable att, boolean truth) {
+        int row = this.observationDictionary.indexOf(obs);
+        int column = this.attributeDictionary.indexOf(att);
+        if (this.matrix.get(row, column) == truth) {
+            return false;
+        }
+        this.matrix.set(row, column, truth);
+        return true;
+    }
+
     /*
      * --------------- CONTEXT HANDLING METHODS ------------
      */
@@ -974,12 +1435,22 @@ public class Context extends ClosureSystem {
      * attributes. Intent and extent are exchanged in the same way.
      */
     public void reverse() {
+        this.invalidateClosureCache();
         TreeSet<Comparable> tmp = this.attributes;
         this.attributes = this.observations;
         this.observations = tmp;
         TreeMap<Comparable, TreeSet<Comparable>> sauv = this.intent;
         this.intent = this.extent;
         this.extent = sauv;
+        TreeMap<Comparable, BitSet> bitsets = this.bitsetIntent;
+        this.bitsetIntent = this.bitsetExtent;
+        this.bitsetExtent = bitsets;
+        Dictionary dictionary = this.attributeDictionary;
+        this.attributeDictionary = this.observationDictionary;
+        this.observationDictionary = dictionary;
+        if (this.matrix != null) {
+            this.matrix.transpose();
+        }
     }
 
     /**
@@ -990,7 +1461,6 @@ public class Context extends ClosureSystem {
     public Context getReverseContext() {
         Context context = new Context(this);
         context.reverse();
-        context.setBitSets();
         return context;
     }
 
@@ -1151,7 +1621,8 @@ public class Context extends ClosureSystem {
      * The closure corresponds to the maximal set of attributes having the
      * same intent as the specified one.
      *
-     * This treatment is performed in O(|A||O|)
+     * This treatment is performed in O(|A||O|), and in O(|A||O|/64) word
+     * operations when the relation is stored in a bit matrix.
      *
      * @param set a TreeSet of indexed elements
      *
@@ -1159,9 +1630,63 @@ public class Context extends ClosureSystem {
      */
     @Override
     public TreeSet<Comparable> closure(TreeSet<Comparable> set) {
+        if (this.matrix != null) {
+            int[] columns = this.attributeDictionary.encode(set);
+            if (columns == null) {
+                return new TreeSet<Comparable>(this.attributes);
+            }
+            return this.attributeDictionary.decode(this.matrix.closure(columns));
+        }
         return this.getIntent(this.getExtent(set));
     }
 
+    /**
+     * Returns all the closed sets of attributes of this component.
+     *
+     * Closed sets are generated by the FCbO algorithm implemented by
+     * {@link CloseByOne}, with canonicity tests on words of bits, instead of
+     * the Next Closure algorithm.
+     *
+     * @return all the closed sets, starting with the closure of the empty set
+     */
+    @Override
+    public Vector<Concept> fastClosures() {
+        return CloseByOne.create(this).allClosures();
+    }
+
+    /**
+     * Returns an iterator over the closed sets of attributes of this
+     * component.
+     *
+     * Closed sets are computed by the FCbO algorithm as they are consumed,
+     * only the frontier of the search tree being kept in memory, see
+     * {@link CloseByOne#iterator()}. The context is copied first.
+     *
+     * @return an iterator over the closed sets, starting with the closure of the empty set
+     */
+    @Override
+    public Iterator<Concept> closuresIterator() {
+        return CloseByOne.create(this).iterator();
+    }
+
+    /**
+     * Returns all the closed sets of attributes of this component, computed
+     * in parallel.
+     *
+     * Subtrees of the search tree of the FCbO algorithm above the cutoff are
+     * fork-join tasks, see {@link CloseByOne#allClosures(ForkJoinPool, int, boolean)}.
+     *
+     * @param pool   a fork-join pool running the enumeration
+     * @param cutoff depth of the search tree under which subtrees are enumerated sequentially
+     * @param lectic true to return the closed sets in the lectic order, false for any order
+     *
+     * @return all the closed sets
+     */
+    @Override
+    public Vector<Concept> parallelClosures(ForkJoinPool pool, int cutoff, boolean lectic) {
+        return CloseByOne.create(this).allClosures(pool, cutoff, lectic);
+    }
+
     /**
      * Returns the set of union of observations that are intent with one of
      * attributes of the specified set.
@@ -1390,6 +1915,23 @@ public class Context extends ClosureSystem {
         return ConceptLattice.diagramIceberg(this, support);
     }
 
+    /**
+     * Returns the frequent closed sets of attributes of this component with
+     * their supports, without generating their lattice.
+     *
+     * Closed sets are enumerated by {@link ClosedItemsets} as they are
+     * consumed. Their Hasse diagram can be built afterwards by
+     * {@link ClosedItemsets#lattice()}.
+     *
+     * @param support a threshold, between 0 and 1, for a closed set to be
+     *                frequent.
+     *
+     * @return The frequent closed sets
+     */
+    public ClosedItemsets closedItemsets(double support) {
+        return ClosedItemsets.create(this, (int) (support * this.getObservations().size()));
+    }
+
     /**
      * Returns the lattice of this component.
      *
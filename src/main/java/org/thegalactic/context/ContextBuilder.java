@@ -0,0 +1,214 @@
+package org.thegalactic.context;
+
+/*
+ * ContextBuilder.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Arrays;
+
+import org.thegalactic.context.storage.Dictionary;
+
+/**
+ * Builder collecting observations, attributes and incidences before freezing
+ * them into a context.
+ *
+ * Observations and attributes are encoded to successive integers when they are
+ * added, and incidences are stored as pairs of codes in primitive buffers. The
+ * context is then filled in one pass by {@link #build(Context)}, without the
+ * membership checks done by {@link Context#addExtentIntent} for each cell.
+ *
+ * ~~~
+ * ContextBuilder builder = ContextBuilder.create();
+ * int obs = builder.addObservation("1");
+ * int att = builder.addAttribute("a");
+ * builder.addIncidence(obs, att);
+ * Context context = builder.build();
+ * ~~~
+ */
+public final class ContextBuilder {
+
+    /**
+     * Default capacity of the incidence buffers.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Observations encoded in insertion order.
+     */
+    private final Dictionary observations;
+
+    /**
+     * Attributes encoded in insertion order.
+     */
+    private final Dictionary attributes;
+
+    /**
+     * Observation codes of the incidences.
+     */
+    private int[] rows;
+
+    /**
+     * Attribute codes of the incidences.
+     */
+    private int[] columns;
+
+    /**
+     * Number of incidences.
+     */
+    private int size;
+
+    /**
+     * Factory method to construct an empty builder.
+     *
+     * @return a new ContextBuilder object
+     */
+    public static ContextBuilder create() {
+        return new ContextBuilder();
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private ContextBuilder() {
+        this.observations = Dictionary.create();
+        this.attributes = Dictionary.create();
+        this.rows = new int[DEFAULT_CAPACITY];
+        this.columns = new int[DEFAULT_CAPACITY];
+        this.size = 0;
+    }
+
+    /**
+     * Adds an observation.
+     *
+     * @param observation an observation
+     *
+     * @return the code of the observation, existing or new
+     */
+    public int addObservation(final Comparable observation) {
+        return this.observations.add(observation);
+    }
+
+    /**
+     * Adds an attribute.
+     *
+     * @param attribute an attribute
+     *
+     * @return the code of the attribute, existing or new
+     */
+    public int addAttribute(final Comparable attribute) {
+        return this.attributes.add(attribute);
+    }
+
+    /**
+     * Returns the code of an observation.
+     *
+     * @param observation an observation
+     *
+     * @return the code of the observation or -1 if it has not been added
+     */
+    public int indexOfObservation(final Comparable observation) {
+        return this.observations.indexOf(observation);
+    }
+
+    /**
+     * Returns the code of an attribute.
+     *
+     * @param attribute an attribute
+     *
+     * @return the code of the attribute or -1 if it has not been added
+     */
+    public int indexOfAttribute(final Comparable attribute) {
+        return this.attributes.indexOf(attribute);
+    }
+
+    /**
+     * Returns the number of observations.
+     *
+     * @return the number of observations
+     */
+    public int getObservationsSize() {
+        return this.observations.size();
+    }
+
+    /**
+     * Returns the number of attributes.
+     *
+     * @return the number of attributes
+     */
+    public int getAttributesSize() {
+        return this.attributes.size();
+    }
+
+    /**
+     * Returns the number of incidences.
+     *
+     * @return the number of incidences
+     */
+    public int getIncidencesSize() {
+        return this.size;
+    }
+
+    /**
+     * Adds an incidence between an observation and an attribute given by their codes.
+     *
+     * @param observation code of an observation
+     * @param attribute   code of an attribute
+     *
+     * @return this for chaining.
+     */
+    public ContextBuilder addIncidence(final int observation, final int attribute) {
+        if (observation < 0 || observation >= this.observations.size()) {
+            throw new IllegalArgumentException("Unknown observation code " + observation);
+        }
+        if (attribute < 0 || attribute >= this.attributes.size()) {
+            throw new IllegalArgumentException("Unknown attribute code " + attribute);
+        }
+        if (this.size == this.rows.length) {
+            this.rows = Arrays.copyOf(this.rows, 2 * this.size);
+            this.columns = Arrays.copyOf(this.columns, 2 * this.size);
+        }
+        this.rows[this.size] = observation;
+        this.columns[this.size] = attribute;
+        this.size++;
+        return this;
+    }
+
+    /**
+     * Adds an incidence between an observation and an attribute, adding them if needed.
+     *
+     * @param observation an observation
+     * @param attribute   an attribute
+     *
+     * @return this for chaining.
+     */
+    public ContextBuilder addIncidence(final Comparable observation, final Comparable attribute) {
+        return this.addIncidence(this.addObservation(observation), this.addAttribute(attribute));
+    }
+
+    /**
+     * Builds a new context.
+     *
+     * @return a new context
+     */
+    public Context build() {
+        return this.build(new Context());
+    }
+
+    /**
+     * Adds the observations, attributes and incidences of this builder to a context.
+     *
+     * @param context a context
+     *
+     * @return the context for chaining
+     */
+    public Context build(final Context context) {
+        context.load(this.observations.getElements(), this.attributes.getElements(), this.rows, this.columns, this.size);
+        return context;
+    }
+}
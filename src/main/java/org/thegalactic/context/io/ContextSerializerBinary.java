@@ -0,0 +1,431 @@
+package org.thegalactic.context.io;
+
+/*
+ * ContextSerializerBinary.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.thegalactic.context.Context;
+import org.thegalactic.context.storage.BitMatrix;
+import org.thegalactic.context.storage.BufferBitMatrix;
+import org.thegalactic.context.storage.Dictionary;
+import org.thegalactic.io.ChannelReader;
+import org.thegalactic.io.ChannelWriter;
+
+/**
+ * This class defines the way for reading and writing a context in a binary
+ * columnar file.
+ *
+ * The file is made of, in little-endian order:
+ *
+ * - the magic bytes `BCTX` and the version of the format as an int;
+ * - the number of observations and the number of attributes as ints;
+ * - the names of observations then of attributes, each one given by a tag
+ * byte: 1 followed by an int for an integer name, 0 followed by the length
+ * of its UTF-8 encoding and the encoding for any other name;
+ * - zero bytes up to a multiple of 8 bytes;
+ * - the rows of the relation, each one as `words(attributes)` long words;
+ * - the columns of the relation, each one as `words(observations)` long words.
+ *
+ * Names that are neither strings nor integers are written as strings. Reading
+ * maps the file in memory and wraps the words in a {@link BufferBitMatrix}
+ * without copying them, so the context is stored in a bit matrix.
+ */
+public final class ContextSerializerBinary implements ChannelReader<Context>, ChannelWriter<Context> {
+
+    /**
+     * String extension.
+     */
+    private static final String EXTENSION = "bctx";
+
+    /**
+     * Magic bytes.
+     */
+    private static final byte[] MAGIC = {'B', 'C', 'T', 'X'};
+
+    /**
+     * Version of the format.
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Tag of a string name.
+     */
+    private static final byte STRING = 0;
+
+    /**
+     * Tag of an integer name.
+     */
+    private static final byte INTEGER = 1;
+
+    /**
+     * Size of the header in bytes.
+     */
+    private static final int HEADER = 16;
+
+    /**
+     * Size of a long word in bytes.
+     */
+    private static final int WORD = 8;
+
+    /**
+     * Size of the output buffer in bytes.
+     */
+    private static final int BUFFER = 1 << 16;
+
+    /**
+     * Charset of string names.
+     */
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Error message for character streams.
+     */
+    private static final String STREAM = "The bctx format needs a file channel";
+
+    /**
+     * Error message for misformed files.
+     */
+    private static final String MISFORMED = "Misformed bctx file";
+
+    /**
+     * The singleton instance.
+     */
+    private static final ContextSerializerBinary INSTANCE = new ContextSerializerBinary();
+
+    /**
+     * Return the singleton instance of this class.
+     *
+     * @return the singleton instance
+     */
+    public static ContextSerializerBinary getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Register this class for reading and writing .bctx files.
+     */
+    public static void register() {
+        ContextIOFactory.getInstance().registerReader(ContextSerializerBinary.getInstance(), EXTENSION);
+        ContextIOFactory.getInstance().registerWriter(ContextSerializerBinary.getInstance(), EXTENSION);
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private ContextSerializerBinary() {
+    }
+
+    /**
+     * Read a context from a character stream, which is not supported.
+     *
+     * @param context a context to read
+     * @param file    a file
+     *
+     * @throws IOException always
+     */
+    public void read(final Context context, final BufferedReader file) throws IOException {
+        throw new IOException(STREAM);
+    }
+
+    /**
+     * Read a context from a file channel.
+     *
+     * @param context a context to read
+     * @param channel a file channel
+     *
+     * @throws IOException When an IOException occurs
+     */
+    public void read(final Context context, final FileChannel channel) throws IOException {
+        final long size = channel.size();
+        if (size < HEADER) {
+            throw new IOException(MISFORMED);
+        }
+        final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(size, Integer.MAX_VALUE));
+        header.order(ByteOrder.LITTLE_ENDIAN);
+        final byte[] magic = new byte[MAGIC.length];
+        header.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || header.getInt() != VERSION) {
+            throw new IOException(MISFORMED);
+        }
+        final int rows = header.getInt();
+        final int columns = header.getInt();
+        if (rows < 0 || columns < 0) {
+            throw new IOException(MISFORMED);
+        }
+        try {
+            final Dictionary observations = this.readNames(header, rows);
+            final Dictionary attributes = this.readNames(header, columns);
+            final long start = (header.position() + WORD - 1) & ~(WORD - 1);
+            final long rowBytes = (long) WORD * rows * BitMatrix.words(columns);
+            final long columnBytes = (long) WORD * columns * BitMatrix.words(rows);
+            if (start + rowBytes + columnBytes != size) {
+                throw new IOException(MISFORMED);
+            }
+            if (rowBytes > Integer.MAX_VALUE || columnBytes > Integer.MAX_VALUE) {
+                throw new IOException("Bit matrix is too large to be mapped");
+            }
+            final LongBuffer rowWords = channel.map(FileChannel.MapMode.READ_ONLY, start, rowBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            final LongBuffer columnWords = channel.map(FileChannel.MapMode.READ_ONLY, start + rowBytes, columnBytes)
+                    .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer();
+            context.setBitMatrix(BufferBitMatrix.wrap(rowWords, columnWords, rows, columns), observations, attributes);
+        } catch (BufferUnderflowException ex) {
+            throw new IOException(MISFORMED);
+        }
+    }
+
+    /**
+     * Read names.
+     *
+     * @param buffer a buffer
+     * @param count  number of names
+     *
+     * @return a dictionary of the names
+     *
+     * @throws IOException When an IOException occurs
+     */
+    private Dictionary readNames(final ByteBuffer buffer, final int count) throws IOException {
+        final Dictionary dictionary = Dictionary.create();
+        for (int i = 0; i < count; i++) {
+            final byte tag = buffer.get();
+            Comparable name;
+            if (tag == INTEGER) {
+                name = buffer.getInt();
+            } else if (tag == STRING) {
+                final int length = buffer.getInt();
+                if (length < 0 || length > buffer.remaining()) {
+                    throw new IOException(MISFORMED);
+                }
+                final byte[] bytes = new byte[length];
+                buffer.get(bytes);
+                name = new String(bytes, UTF8);
+            } else {
+                throw new IOException(MISFORMED);
+            }
+            if (dictionary.add(name) != i) {
+                throw new IOException("Duplicated name " + name);
+            }
+        }
+        return dictionary;
+    }
+
+    /**
+     * Write a context to a character stream, which is not supported.
+     *
+     * @param context a context to write
+     * @param file    a file
+     *
+     * @throws IOException always
+     */
+    public void write(final Context context, final BufferedWriter file) throws IOException {
+        throw new IOException(STREAM);
+    }
+
+    /**
+     * Write a context to a file channel.
+     *
+     * @param context a context to write
+     * @param channel a file channel
+     *
+     * @throws IOException When an IOException occurs
+     */
+    public void write(final Context context, final FileChannel channel) throws IOException {
+        final Dictionary observations = context.getObservationDictionary();
+        final Dictionary attributes = context.getAttributeDictionary();
+        final Output output = new Output(channel);
+        output.put(MAGIC);
+        output.putInt(VERSION);
+        output.putInt(observations.size());
+        output.putInt(attributes.size());
+        this.writeNames(output, observations);
+        this.writeNames(output, attributes);
+        output.align();
+        for (int row = 0; row < observations.size(); row++) {
+            if (context.hasBitMatrix()) {
+                output.putLongs(context.getBitMatrix().row(row));
+            } else {
+                output.putLongs(this.encode(context.getIntent(observations.get(row)), attributes));
+            }
+        }
+        for (int column = 0; column < attributes.size(); column++) {
+            if (context.hasBitMatrix()) {
+                output.putLongs(context.getBitMatrix().column(column));
+            } else {
+                output.putLongs(this.encode(context.getExtent(attributes.get(column)), observations));
+            }
+        }
+        output.flush();
+    }
+
+    /**
+     * Write names.
+     *
+     * @param output     an output
+     * @param dictionary a dictionary of the names
+     *
+     * @throws IOException When an IOException occurs
+     */
+    private void writeNames(final Output output, final Dictionary dictionary) throws IOException {
+        for (final Comparable name : dictionary.getElements()) {
+            if (name instanceof Integer) {
+                output.put(new byte[]{INTEGER});
+                output.putInt((Integer) name);
+            } else {
+                final byte[] bytes = name.toString().getBytes(UTF8);
+                output.put(new byte[]{STRING});
+                output.putInt(bytes.length);
+                output.put(bytes);
+            }
+        }
+    }
+
+    /**
+     * Encode a set as words of bits.
+     *
+     * @param set        a set
+     * @param dictionary a dictionary of the elements
+     *
+     * @return the words
+     */
+    private long[] encode(final TreeSet<Comparable> set, final Dictionary dictionary) {
+        final long[] words = new long[BitMatrix.words(dictionary.size())];
+        for (final Comparable element : set) {
+            final int index = dictionary.indexOf(element);
+            words[index >>> 6] |= 1L << index;
+        }
+        return words;
+    }
+
+    /**
+     * Buffered output to a file channel.
+     */
+    private static final class Output {
+
+        /**
+         * File channel.
+         */
+        private final FileChannel channel;
+
+        /**
+         * Buffer.
+         */
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+
+        /**
+         * Number of bytes written.
+         */
+        private long position;
+
+        /**
+         * Constructs an output to a file channel.
+         *
+         * @param channel a file channel
+         */
+        Output(final FileChannel channel) {
+            this.channel = channel;
+        }
+
+        /**
+         * Write bytes.
+         *
+         * @param bytes bytes
+         *
+         * @throws IOException When an IOException occurs
+         */
+        void put(final byte[] bytes) throws IOException {
+            if (bytes.length > this.buffer.remaining()) {
+                this.flush();
+            }
+            if (bytes.length > this.buffer.remaining()) {
+                this.write(ByteBuffer.wrap(bytes));
+            } else {
+                this.buffer.put(bytes);
+            }
+            this.position += bytes.length;
+        }
+
+        /**
+         * Write an int.
+         *
+         * @param value an int
+         *
+         * @throws IOException When an IOException occurs
+         */
+        void putInt(final int value) throws IOException {
+            if (this.buffer.remaining() < WORD) {
+                this.flush();
+            }
+            this.buffer.putInt(value);
+            this.position += WORD / 2;
+        }
+
+        /**
+         * Write long words.
+         *
+         * @param words long words
+         *
+         * @throws IOException When an IOException occurs
+         */
+        void putLongs(final long[] words) throws IOException {
+            for (final long word : words) {
+                if (this.buffer.remaining() < WORD) {
+                    this.flush();
+                }
+                this.buffer.putLong(word);
+            }
+            this.position += (long) WORD * words.length;
+        }
+
+        /**
+         * Write zero bytes up to a multiple of the word size.
+         *
+         * @throws IOException When an IOException occurs
+         */
+        void align() throws IOException {
+            final int padding = (int) ((WORD - this.position % WORD) % WORD);
+            this.put(new byte[padding]);
+        }
+
+        /**
+         * Flush the buffer.
+         *
+         * @throws IOException When an IOException occurs
+         */
+        void flush() throws IOException {
+            this.buffer.flip();
+            this.write(this.buffer);
+            this.buffer.clear();
+        }
+
+        /**
+         * Write a byte buffer entirely.
+         *
+         * @param bytes a byte buffer
+         *
+         * @throws IOException When an IOException occurs
+         */
+        private void write(final ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                this.channel.write(bytes);
+            }
+        }
+    }
+}
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.util.TreeSet;
 
 import org.thegalactic.context.Context;
+import org.thegalactic.context.ContextBuilder;
 import org.thegalactic.io.Reader;
 import org.thegalactic.io.Writer;
 
@@ -130,20 +131,20 @@ public final class ContextSerializerBurmeister implements Reader<Context>, Write
             // number of attributes. Fourth line.
             final int nbAtt = Integer.parseInt(file.readLine());
 
+            final ContextBuilder builder = ContextBuilder.create();
+
             // Now reading observations
-            // Observations names must be recorded for the reading context phase
-            String[] obsNames = new String[nbObs];
+            // Observations codes must be recorded for the reading context phase
+            int[] obsCodes = new int[nbObs];
             for (int i = 0; i < nbObs; i++) {
-                obsNames[i] = this.readNextLine(file);
-                context.addToObservations(obsNames[i]);
+                obsCodes[i] = builder.addObservation(this.readNextLine(file));
             }
 
             // Now reading attributes
-            // Attributes names must be recorded for the reading context phase
-            String[] attNames = new String[nbAtt];
+            // Attributes codes must be recorded for the reading context phase
+            int[] attCodes = new int[nbAtt];
             for (int i = 0; i < nbAtt; i++) {
-                attNames[i] = this.readNextLine(file);
-                context.addToAttributes(attNames[i]);
+                attCodes[i] = builder.addAttribute(this.readNextLine(file));
             }
 
             // Now reading context
@@ -151,11 +152,11 @@ public final class ContextSerializerBurmeister implements Reader<Context>, Write
                 str = this.readNextLine(file);
                 for (int j = 0; j < nbAtt; j++) {
                     if (str.charAt(j) == 'X') {
-                        context.addExtentIntent(obsNames[i], attNames[j]);
+                        builder.addIncidence(obsCodes[i], attCodes[j]);
                     }
                 }
             }
-            context.setBitSets();
+            builder.build(context);
         } catch (NumberFormatException ex) {
             throw new IOException(ex.getMessage());
         } catch (IndexOutOfBoundsException ex) {
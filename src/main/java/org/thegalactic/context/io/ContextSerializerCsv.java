@@ -14,7 +14,7 @@ package org.thegalactic.context.io;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.List;
+import java.util.Iterator;
 import java.util.TreeSet;
 
 import org.apache.commons.csv.CSVFormat;
@@ -23,6 +23,7 @@ import org.apache.commons.csv.CSVPrinter;
 import org.apache.commons.csv.CSVRecord;
 
 import org.thegalactic.context.Context;
+import org.thegalactic.context.ContextBuilder;
 import org.thegalactic.io.Reader;
 import org.thegalactic.io.Writer;
 
@@ -46,7 +47,27 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
     /**
      * The singleton instance.
      */
-    private static final ContextSerializerCsv INSTANCE = new ContextSerializerCsv();
+    private static final ContextSerializerCsv INSTANCE = new ContextSerializerCsv(false, false);
+
+    /**
+     * The instance reading truthy cells as incidences.
+     */
+    private static final ContextSerializerCsv TRUTHY = new ContextSerializerCsv(true, false);
+
+    /**
+     * The instance reading and writing (observation, attribute) pairs.
+     */
+    private static final ContextSerializerCsv SPARSE = new ContextSerializerCsv(false, true);
+
+    /**
+     * Whether any truthy cell is an incidence, instead of only "1".
+     */
+    private final boolean truthy;
+
+    /**
+     * Whether the sparse format of (observation, attribute) pairs is used.
+     */
+    private final boolean sparse;
 
     /**
      * Return the singleton instance of this class.
@@ -57,6 +78,38 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
         return INSTANCE;
     }
 
+    /**
+     * Return the instance of this class reading a cell as an incidence when
+     * it is a non-zero number, "x" or "true", ignoring case and surrounding
+     * spaces.
+     *
+     * @return the truthy instance
+     */
+    public static ContextSerializerCsv getTruthyInstance() {
+        return TRUTHY;
+    }
+
+    /**
+     * Return the instance of this class using the sparse format.
+     *
+     * Each line contains an observation and one of its attributes. An empty
+     * attribute declares an observation without attributes, and an empty
+     * observation declares an attribute without observations.
+     *
+     * ~~~
+     * 1,a
+     * 1,c
+     * 2,a
+     * 3,
+     * ,e
+     * ~~~
+     *
+     * @return the sparse instance
+     */
+    public static ContextSerializerCsv getSparseInstance() {
+        return SPARSE;
+    }
+
     /**
      * Register this class for reading .csv files.
      */
@@ -67,8 +120,13 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
 
     /**
      * This class is not designed to be publicly instantiated.
+     *
+     * @param truthy whether any truthy cell is an incidence
+     * @param sparse whether the sparse format is used
      */
-    private ContextSerializerCsv() {
+    private ContextSerializerCsv(final boolean truthy, final boolean sparse) {
+        this.truthy = truthy;
+        this.sparse = sparse;
     }
 
     /**
@@ -99,6 +157,9 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
      * 0,0,1,0,1
      * ~~~
      *
+     * Records are read one by one, the file is never entirely loaded in
+     * memory.
+     *
      * @param context a context to read
      * @param file    a file
      *
@@ -107,18 +168,36 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
     public void read(Context context, BufferedReader file) throws IOException {
         // Parse the file
         CSVParser parser = CSVFormat.RFC4180.parse(file);
+        ContextBuilder builder = ContextBuilder.create();
+        if (this.sparse) {
+            this.readPairs(builder, parser);
+        } else {
+            this.readMatrix(builder, parser);
+        }
 
-        // Get the records and record size
-        List<CSVRecord> records = parser.getRecords();
-        int length = records.size();
+        // Close the parser
+        parser.close();
+        builder.build(context);
+    }
+
+    /**
+     * Read records of a csv file containing boolean values.
+     *
+     * @param builder a context builder
+     * @param parser  a csv parser
+     *
+     * @throws IOException When an IOException occurs
+     */
+    private void readMatrix(ContextBuilder builder, CSVParser parser) throws IOException {
+        Iterator<CSVRecord> records = parser.iterator();
 
         // Verify length
-        if (length == 0) {
+        if (!records.hasNext()) {
             throw new IOException("CSV cannot be empty");
         }
 
         // Get the attributes and the attribute size
-        CSVRecord attributes = records.get(0);
+        CSVRecord attributes = records.next();
         int size = attributes.size();
 
         // Detect invalid attribute size
@@ -137,9 +216,10 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
             String attribute = attributes.get(i);
 
             // Detect duplicated attribute
-            if (!context.addToAttributes(attribute)) {
+            if (builder.indexOfAttribute(attribute) != -1) {
                 throw new IOException("Duplicated attribute");
             }
+            builder.addAttribute(attribute);
 
             // Detect empty attribute
             if ("".equals(attribute)) {
@@ -148,9 +228,10 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
         }
 
         // Get the data
-        for (int j = 1; j < length; j++) {
+        int line = 1;
+        while (records.hasNext()) {
             // Get the current record
-            CSVRecord record = records.get(j);
+            CSVRecord record = records.next();
 
             // Detect incorrect size
             if (record.size() != size) {
@@ -162,25 +243,78 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
             if (first == 1) {
                 identifier = record.get(0);
             } else {
-                identifier = String.valueOf(j);
+                identifier = String.valueOf(line);
             }
+            line++;
 
             // Detect duplicated identifier
-            if (!context.addToObservations(identifier)) {
+            if (builder.indexOfObservation(identifier) != -1) {
                 throw new IOException("Duplicated identifier");
             }
+            int observation = builder.addObservation(identifier);
 
             // Add the extent/intent for the current identifier and current attribute
             for (int i = first; i < size; i++) {
-                if (record.get(i).equals("1")) {
-                    context.addExtentIntent(identifier, attributes.get(i));
+                if (this.isIncidence(record.get(i))) {
+                    builder.addIncidence(observation, i - first);
                 }
             }
         }
+    }
 
-        // Close the parser
-        parser.close();
-        context.setBitSets();
+    /**
+     * Read records of a csv file containing (observation, attribute) pairs.
+     *
+     * @param builder a context builder
+     * @param parser  a csv parser
+     *
+     * @throws IOException When an IOException occurs
+     */
+    private void readPairs(ContextBuilder builder, CSVParser parser) throws IOException {
+        for (CSVRecord record : parser) {
+            // Detect incorrect size
+            if (record.size() != 2) {
+                throw new IOException("Line does not contain an observation and an attribute");
+            }
+            String observation = record.get(0);
+            String attribute = record.get(1);
+            if ("".equals(attribute)) {
+                builder.addObservation(observation);
+            } else if ("".equals(observation)) {
+                builder.addAttribute(attribute);
+            } else {
+                builder.addIncidence(observation, attribute);
+            }
+        }
+    }
+
+    /**
+     * Test if a cell is an incidence.
+     *
+     * @param cell a cell
+     *
+     * @return true if the cell is an incidence
+     */
+    private boolean isIncidence(String cell) {
+        if (!this.truthy) {
+            return cell.equals("1");
+        }
+        String value = cell.trim();
+        if (value.isEmpty()) {
+            return false;
+        }
+        if ("x".equalsIgnoreCase(value) || "true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        char start = value.charAt(0);
+        if (Character.isDigit(start) || start == '-' || start == '+' || start == '.') {
+            try {
+                return Double.parseDouble(value) != 0;
+            } catch (NumberFormatException ex) {
+                return false;
+            }
+        }
+        return false;
     }
 
     /**
@@ -199,6 +333,8 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
      * 4,0,0,1,0,1
      * ~~~
      *
+     * The sparse instance writes (observation, attribute) pairs instead.
+     *
      * @param context a context to write
      * @param file    a file
      *
@@ -206,7 +342,23 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
      */
     public void write(Context context, BufferedWriter file) throws IOException {
         CSVPrinter printer = new CSVPrinter(file, CSVFormat.RFC4180);
+        if (this.sparse) {
+            this.writePairs(context, printer);
+        } else {
+            this.writeMatrix(context, printer);
+        }
+        printer.close();
+    }
 
+    /**
+     * Write a context as boolean values.
+     *
+     * @param context a context to write
+     * @param printer a csv printer
+     *
+     * @throws IOException When an IOException occurs
+     */
+    private void writeMatrix(Context context, CSVPrinter printer) throws IOException {
         // Get the observations and the attributes
         TreeSet<Comparable> observations = context.getObservations();
         TreeSet<Comparable> attributes = context.getAttributes();
@@ -227,7 +379,7 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
 
             // Write the extent/intents
             for (Comparable attribute : attributes) {
-                if (context.getIntent(observation).contains(attribute)) {
+                if (context.containAsIntent(observation, attribute)) {
                     printer.print(1);
                 } else {
                     printer.print(0);
@@ -236,7 +388,30 @@ public final class ContextSerializerCsv implements Reader<Context>, Writer<Conte
 
             printer.println();
         }
+    }
 
-        printer.close();
+    /**
+     * Write a context as (observation, attribute) pairs.
+     *
+     * @param context a context to write
+     * @param printer a csv printer
+     *
+     * @throws IOException When an IOException occurs
+     */
+    private void writePairs(Context context, CSVPrinter printer) throws IOException {
+        for (Comparable observation : context.getObservations()) {
+            TreeSet<Comparable> intent = context.getIntent(observation);
+            if (intent.isEmpty()) {
+                printer.printRecord(observation, "");
+            }
+            for (Comparable attribute : intent) {
+                printer.printRecord(observation, attribute);
+            }
+        }
+        for (Comparable attribute : context.getAttributes()) {
+            if (context.getExtent(attribute).isEmpty()) {
+                printer.printRecord("", attribute);
+            }
+        }
     }
 }
@@ -14,10 +14,14 @@ package org.thegalactic.context.io;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
 import java.util.HashMap;
 
 import org.thegalactic.context.Context;
-import org.thegalactic.io.Reader;
+import org.thegalactic.context.ContextBuilder;
+import org.thegalactic.io.ChannelReader;
 import org.thegalactic.io.Writer;
 
 /**
@@ -35,7 +39,7 @@ import org.thegalactic.io.Writer;
  * class ContextSerializerFIMI #LightCyan
  * title ContextSerializerFIMI UML graph
  */
-public final class ContextSerializerFIMI implements Reader<Context>, Writer<Context> {
+public final class ContextSerializerFIMI implements ChannelReader<Context>, Writer<Context> {
 
     /**
      * String extension.
@@ -47,6 +51,16 @@ public final class ContextSerializerFIMI implements Reader<Context>, Writer<Cont
      */
     private static final ContextSerializerFIMI INSTANCE = new ContextSerializerFIMI();
 
+    /**
+     * Size of the regions of a file mapped in memory at once.
+     */
+    private static final int REGION = 1 << 26;
+
+    /**
+     * Size of the buffer used when reading characters.
+     */
+    private static final int BUFFER = 1 << 16;
+
     /**
      * Return the singleton instance of this class.
      *
@@ -89,8 +103,11 @@ public final class ContextSerializerFIMI implements Reader<Context>, Writer<Cont
      *
      * For reading convinience, observations are labelled with 'O' + LineNumber.
      *
-     * Be careful when using a downloaded file: an empty line at the end of the
-     * file gives an observation with no attributes
+     * Be careful when using a downloaded file: an empty line gives an
+     * observation with no attributes
+     *
+     * Integers are parsed directly from the characters of the file, without
+     * splitting lines into strings.
      *
      * @param context a context to read
      * @param file    a file
@@ -98,33 +115,40 @@ public final class ContextSerializerFIMI implements Reader<Context>, Writer<Cont
      * @throws IOException When an IOException occurs
      */
     public void read(final Context context, final BufferedReader file) throws IOException {
-        // Initialize the line number
-        int lineNumber = 0;
-
-        // Loop on the file
-        while (file.ready()) {
-            // Increment the line number
-            lineNumber++;
-
-            // Get the next identifier
-            final String identifier = "O" + lineNumber;
-            context.addToObservations(identifier);
-
-            // Get the current line
-            final String str = file.readLine();
-
-            // Tokenize the line
-            for (final String token : str.split(" +")) {
-                final Integer attribute = Integer.parseInt(token);
-                if (!context.containsAttribute(attribute)) {
-                    context.addToAttributes(attribute);
-                }
+        final Parser parser = new Parser();
+        final char[] buffer = new char[BUFFER];
+        int length = file.read(buffer);
+        while (length != -1) {
+            for (int i = 0; i < length; i++) {
+                parser.accept(buffer[i]);
+            }
+            length = file.read(buffer);
+        }
+        parser.finish().build(context);
+    }
 
-                // Add the extent/intent for the current identifier and current attribute
-                context.addExtentIntent(identifier, attribute);
+    /**
+     * Read a context from a file channel.
+     *
+     * The file is memory-mapped by regions and integers are parsed directly
+     * from its bytes, using the format described in
+     * {@link #read(Context, BufferedReader)}.
+     *
+     * @param context a context to read
+     * @param channel a file channel
+     *
+     * @throws IOException When an IOException occurs
+     */
+    public void read(final Context context, final FileChannel channel) throws IOException {
+        final Parser parser = new Parser();
+        final long size = channel.size();
+        for (long position = 0; position < size; position += REGION) {
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(REGION, size - position));
+            while (buffer.hasRemaining()) {
+                parser.accept(buffer.get());
             }
         }
-        context.setBitSets();
+        parser.finish().build(context);
     }
 
     /**
@@ -164,4 +188,108 @@ public final class ContextSerializerFIMI implements Reader<Context>, Writer<Cont
             file.newLine();
         }
     }
+
+    /**
+     * State machine parsing a FIMI file character by character into a context builder.
+     */
+    private static final class Parser {
+
+        /**
+         * Largest attribute value whose code is cached in an array.
+         */
+        private static final int CACHE = 1 << 20;
+
+        /**
+         * Context builder.
+         */
+        private final ContextBuilder builder = ContextBuilder.create();
+
+        /**
+         * Codes plus one of attributes indexed by their value, 0 for unknown ones.
+         */
+        private int[] codes = new int[0];
+
+        /**
+         * Number of the current line.
+         */
+        private int lineNumber;
+
+        /**
+         * Code of the observation of the current line, -1 at the beginning of a line.
+         */
+        private int observation = -1;
+
+        /**
+         * Value of the current integer.
+         */
+        private int value;
+
+        /**
+         * Whether the current integer has digits.
+         */
+        private boolean digits;
+
+        /**
+         * Accept a character.
+         *
+         * @param character the character
+         *
+         * @throws IOException When the character is not allowed
+         */
+        void accept(final int character) throws IOException {
+            if (this.observation == -1) {
+                this.lineNumber++;
+                this.observation = this.builder.addObservation("O" + this.lineNumber);
+            }
+            if (character >= '0' && character <= '9') {
+                int digit = character - '0';
+                if (this.value > (Integer.MAX_VALUE - digit) / 10) {
+                    throw new IOException("Attribute too large at line " + this.lineNumber);
+                }
+                this.value = this.value * 10 + digit;
+                this.digits = true;
+            } else if (character == ' ' || character == '\t' || character == '\r' || character == '\n') {
+                this.flush();
+                if (character == '\n') {
+                    this.observation = -1;
+                }
+            } else {
+                throw new IOException("Invalid character at line " + this.lineNumber);
+            }
+        }
+
+        /**
+         * Finish the parsing.
+         *
+         * @return the context builder
+         */
+        ContextBuilder finish() {
+            this.flush();
+            return this.builder;
+        }
+
+        /**
+         * Add the current integer as an attribute of the current observation.
+         */
+        private void flush() {
+            if (this.digits) {
+                int code;
+                if (this.value < CACHE) {
+                    if (this.value >= this.codes.length) {
+                        this.codes = Arrays.copyOf(this.codes, Math.min(CACHE, Math.max(2 * this.codes.length, this.value + 1)));
+                    }
+                    code = this.codes[this.value] - 1;
+                    if (code == -1) {
+                        code = this.builder.addAttribute(this.value);
+                        this.codes[this.value] = code + 1;
+                    }
+                } else {
+                    code = this.builder.addAttribute(this.value);
+                }
+                this.builder.addIncidence(this.observation, code);
+                this.value = 0;
+                this.digits = false;
+            }
+        }
+    }
 }
@@ -14,14 +14,11 @@ package org.thegalactic.context.io;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.SortedSet;
 import java.util.StringTokenizer;
-import java.util.TreeMap;
-import java.util.TreeSet;
 
 import org.thegalactic.context.Context;
+import org.thegalactic.context.ContextBuilder;
 import org.thegalactic.io.Reader;
 import org.thegalactic.io.Writer;
 
@@ -133,27 +130,31 @@ public final class ContextSerializerSLF implements Reader<Context>, Writer<Conte
             throw new IOException(MISFORMED);
         }
 
-        final List<Comparable> observations = new ArrayList(countObservations);
-        final List<Comparable> attributes = new ArrayList(countAttributes);
-        final TreeMap<Comparable, TreeSet<Comparable>> intent = new TreeMap();
-        final TreeMap<Comparable, TreeSet<Comparable>> extent = new TreeMap();
+        final ContextBuilder builder = ContextBuilder.create();
+        final int[] observations = new int[countObservations];
+        final int[] attributes = new int[countAttributes];
 
         String line = file.readLine();
+        int index = 0;
         while (!ATTRIBUTES.equals(line)) {
-            observations.add(line);
-            intent.put(line, new TreeSet());
+            if (index == countObservations) {
+                throw new IOException(MISFORMED);
+            }
+            observations[index] = builder.addObservation(line);
+            index++;
             line = file.readLine();
         }
         line = file.readLine();
+        index = 0;
         while (!RELATION.equals(line)) {
-            attributes.add(line);
-            extent.put(line, new TreeSet());
+            if (index == countAttributes) {
+                throw new IOException(MISFORMED);
+            }
+            attributes[index] = builder.addAttribute(line);
+            index++;
             line = file.readLine();
         }
 
-        context.addAllToAttributes(new TreeSet(attributes));
-        context.addAllToObservations(new TreeSet(observations));
-
         for (int i = 0; i < countObservations; i++) {
             line = file.readLine();
             final StringTokenizer tokenizer = new StringTokenizer(line);
@@ -161,7 +162,10 @@ public final class ContextSerializerSLF implements Reader<Context>, Writer<Conte
             while (tokenizer.hasMoreTokens()) {
                 final String next = tokenizer.nextToken();
                 if ("1".equals(next)) {
-                    context.addExtentIntent(observations.get(i), attributes.get(count));
+                    if (count == countAttributes) {
+                        throw new IOException(MISFORMED);
+                    }
+                    builder.addIncidence(observations[i], attributes[count]);
                 }
                 count++;
             }
@@ -169,7 +173,7 @@ public final class ContextSerializerSLF implements Reader<Context>, Writer<Conte
                 throw new IOException(MISFORMED);
             }
         }
-        context.setBitSets();
+        builder.build(context);
     }
 
     /**
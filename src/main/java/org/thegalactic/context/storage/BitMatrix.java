@@ -0,0 +1,436 @@
+package org.thegalactic.context.storage;
+
+/*
+ * BitMatrix.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+
+/**
+ * Binary relation between dense integer rows and columns.
+ *
+ * Rows encode observations and columns encode attributes. Each row is stored as
+ * words of bits over the columns and each column as words of bits over the
+ * rows so that extents and intents are computed with word-wise AND.
+ *
+ * Sets of rows or of columns are given as `long[]` words where bit `i` is the
+ * bit `i % 64` of the word `i / 64`.
+ */
+public abstract class BitMatrix {
+
+    /**
+     * Number of bits in a word.
+     */
+    public static final int WORD_SIZE = 64;
+
+    /**
+     * Shift converting a bit index into a word index.
+     */
+    protected static final int WORD_SHIFT = 6;
+
+    /**
+     * Get the number of words needed to store bits.
+     *
+     * @param bits number of bits
+     *
+     * @return the number of words
+     */
+    public static int words(final int bits) {
+        return (bits + WORD_SIZE - 1) >>> WORD_SHIFT;
+    }
+
+    /**
+     * Get words having the first bits set.
+     *
+     * @param bits number of bits to set
+     *
+     * @return the words
+     */
+    public static long[] ones(final int bits) {
+        long[] result = new long[words(bits)];
+        for (int word = 0; word < bits >>> WORD_SHIFT; word++) {
+            result[word] = -1L;
+        }
+        if ((bits & (WORD_SIZE - 1)) != 0) {
+            result[result.length - 1] = (1L << bits) - 1L;
+        }
+        return result;
+    }
+
+    /**
+     * Get the index of the first set bit starting from an index.
+     *
+     * @param words words of bits
+     * @param from  first index to be considered
+     *
+     * @return the index of the next set bit or -1 if there is none
+     */
+    public static int nextSetBit(final long[] words, final int from) {
+        int word = from >>> WORD_SHIFT;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (bits == 0) {
+            word++;
+            if (word == words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+        return (word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits);
+    }
+
+    /**
+     * Get the number of set bits.
+     *
+     * @param words words of bits
+     *
+     * @return the number of set bits
+     */
+    public static int cardinality(final long[] words) {
+        int result = 0;
+        for (long bits : words) {
+            result += Long.bitCount(bits);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    public abstract int rows();
+
+    /**
+     * Get the number of columns.
+     *
+     * @return the number of columns
+     */
+    public abstract int columns();
+
+    /**
+     * Get a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     *
+     * @return the truth value of the cell
+     */
+    public abstract boolean get(int row, int column);
+
+    /**
+     * Set a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     * @param truth  new truth value
+     *
+     * @return this for chaining.
+     */
+    public abstract BitMatrix set(int row, int column, boolean truth);
+
+    /**
+     * Add an empty row.
+     *
+     * @return the index of the new row
+     */
+    public abstract int addRow();
+
+    /**
+     * Add an empty column.
+     *
+     * @return the index of the new column
+     */
+    public abstract int addColumn();
+
+    /**
+     * Remove a row.
+     *
+     * The last row is moved to the index of the removed row as done by
+     * `Dictionary.remove`.
+     *
+     * @param row row to be removed
+     *
+     * @return this for chaining.
+     */
+    public abstract BitMatrix removeRow(int row);
+
+    /**
+     * Remove a column.
+     *
+     * The last column is moved to the index of the removed column as done by
+     * `Dictionary.remove`.
+     *
+     * @param column column to be removed
+     *
+     * @return this for chaining.
+     */
+    public abstract BitMatrix removeColumn(int column);
+
+    /**
+     * Exchange rows and columns.
+     *
+     * @return this for chaining.
+     */
+    public abstract BitMatrix transpose();
+
+    /**
+     * Get a copy of this matrix in the same kind of storage.
+     *
+     * @return a new bit matrix with the same cells
+     */
+    public abstract BitMatrix copy();
+
+    /**
+     * Get a word of a row.
+     *
+     * @param row  row of the word
+     * @param word index of the word, lower than `words(columns())`
+     *
+     * @return the bits of the columns `64 * word` to `64 * word + 63`
+     */
+    public abstract long rowWord(int row, int word);
+
+    /**
+     * Get a word of a column.
+     *
+     * @param column column of the word
+     * @param word   index of the word, lower than `words(rows())`
+     *
+     * @return the bits of the rows `64 * word` to `64 * word + 63`
+     */
+    public abstract long columnWord(int column, int word);
+
+    /**
+     * Intersect words over the columns with a row.
+     *
+     * @param row   row to be intersected
+     * @param words words of `words(columns())` length, modified in place
+     */
+    public abstract void andRow(int row, long[] words);
+
+    /**
+     * Intersect words over the rows with a column.
+     *
+     * @param column column to be intersected
+     * @param words  words of `words(rows())` length, modified in place
+     */
+    public abstract void andColumn(int column, long[] words);
+
+    /**
+     * Get a row as words over the columns.
+     *
+     * @param row row to be returned
+     *
+     * @return a copy of the row
+     */
+    public long[] row(final int row) {
+        long[] result = ones(this.columns());
+        this.andRow(row, result);
+        return result;
+    }
+
+    /**
+     * Get a column as words over the rows.
+     *
+     * @param column column to be returned
+     *
+     * @return a copy of the column
+     */
+    public long[] column(final int column) {
+        long[] result = ones(this.rows());
+        this.andColumn(column, result);
+        return result;
+    }
+
+    /**
+     * Get the rows sharing all the given columns.
+     *
+     * @param columns indices of columns
+     *
+     * @return words over the rows
+     */
+    public long[] extent(final int[] columns) {
+        long[] result = ones(this.rows());
+        for (int column : columns) {
+            this.andColumn(column, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the columns shared by all the given rows.
+     *
+     * @param rows words over the rows
+     *
+     * @return words over the columns
+     */
+    public long[] intent(final long[] rows) {
+        long[] result = ones(this.columns());
+        for (int row = nextSetBit(rows, 0); row >= 0; row = nextSetBit(rows, row + 1)) {
+            this.andRow(row, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the columns shared by all the given rows.
+     *
+     * @param rows indices of rows
+     *
+     * @return words over the columns
+     */
+    public long[] intent(final int[] rows) {
+        long[] result = ones(this.columns());
+        for (int row : rows) {
+            this.andRow(row, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the rows sharing all the given columns.
+     *
+     * @param columns words over the columns
+     *
+     * @return words over the rows
+     */
+    public long[] extent(final long[] columns) {
+        long[] result = ones(this.rows());
+        for (int column = nextSetBit(columns, 0); column >= 0; column = nextSetBit(columns, column + 1)) {
+            this.andColumn(column, result);
+        }
+        return result;
+    }
+
+    /**
+     * Get the number of rows sharing all the given columns.
+     *
+     * The extent is computed one word at a time so that no words over the
+     * rows are allocated.
+     *
+     * @param columns indices of columns
+     *
+     * @return the number of rows
+     */
+    public int extentCardinality(final int[] columns) {
+        int result = 0;
+        int words = words(this.rows());
+        for (int word = 0; word < words; word++) {
+            result += Long.bitCount(this.extentWord(columns, word));
+        }
+        return result;
+    }
+
+    /**
+     * Check if at least a number of rows share all the given columns.
+     *
+     * The extent is computed one word at a time and the count stops as soon
+     * as the threshold is reached or cannot be reached with the remaining
+     * words.
+     *
+     * @param columns   indices of columns
+     * @param threshold minimal number of rows
+     *
+     * @return true if the extent has at least threshold rows
+     */
+    public boolean hasExtentCardinality(final int[] columns, final int threshold) {
+        int count = 0;
+        int words = words(this.rows());
+        for (int word = 0; word < words; word++) {
+            if (count >= threshold) {
+                return true;
+            }
+            if (count + this.rows() - (word << WORD_SHIFT) < threshold) {
+                return false;
+            }
+            count += Long.bitCount(this.extentWord(columns, word));
+        }
+        return count >= threshold;
+    }
+
+    /**
+     * Get the number of columns shared by all the given rows.
+     *
+     * The intent is computed one word at a time so that no words over the
+     * columns are allocated.
+     *
+     * @param rows indices of rows
+     *
+     * @return the number of columns
+     */
+    public int intentCardinality(final int[] rows) {
+        int result = 0;
+        int words = words(this.columns());
+        for (int word = 0; word < words; word++) {
+            long bits = mask(this.columns(), word);
+            for (int i = 0; i < rows.length && bits != 0; i++) {
+                bits &= this.rowWord(rows[i], word);
+            }
+            result += Long.bitCount(bits);
+        }
+        return result;
+    }
+
+    /**
+     * Get the closure of a set of columns.
+     *
+     * The extent is computed one word at a time and each of its rows is
+     * intersected with the result, so only words over the columns are
+     * allocated.
+     *
+     * @param columns indices of columns
+     *
+     * @return words over the columns
+     */
+    public long[] closure(final int[] columns) {
+        long[] result = ones(this.columns());
+        int words = words(this.rows());
+        for (int word = 0; word < words; word++) {
+            long bits = this.extentWord(columns, word);
+            while (bits != 0) {
+                this.andRow((word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits), result);
+                bits &= bits - 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get a word of the rows sharing all the given columns.
+     *
+     * @param columns indices of columns
+     * @param word    index of the word
+     *
+     * @return the bits of the rows `64 * word` to `64 * word + 63`
+     */
+    private long extentWord(final int[] columns, final int word) {
+        long bits = mask(this.rows(), word);
+        for (int i = 0; i < columns.length && bits != 0; i++) {
+            bits &= this.columnWord(columns[i], word);
+        }
+        return bits;
+    }
+
+    /**
+     * Get a word of the first bits set.
+     *
+     * @param bits number of bits set
+     * @param word index of the word
+     *
+     * @return the word of index `word` in `ones(bits)`
+     */
+    private static long mask(final int bits, final int word) {
+        if (word < bits >>> WORD_SHIFT) {
+            return -1L;
+        }
+        return (1L << bits) - 1L;
+    }
+}
@@ -0,0 +1,465 @@
+package org.thegalactic.context.storage;
+
+/*
+ * BufferBitMatrix.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Bit matrix stored in two `LongBuffer`.
+ *
+ * The buffers can wrap existing words, for example a memory-mapped file,
+ * without copying them. Read-only buffers are copied on the first
+ * modification of the matrix. Capacities are doubled when exhausted.
+ *
+ * A matrix created by {@link #createDirect()}, or wrapping direct buffers,
+ * keeps its words outside of the heap, also when it is copied or grown, so
+ * that large relations do not weigh on the garbage collector. Each buffer is
+ * then limited to `Integer.MAX_VALUE` bytes.
+ */
+public final class BufferBitMatrix extends BitMatrix {
+
+    /**
+     * Number of rows.
+     */
+    private int rows;
+
+    /**
+     * Number of columns.
+     */
+    private int columns;
+
+    /**
+     * Row capacity.
+     */
+    private int rowCapacity;
+
+    /**
+     * Column capacity.
+     */
+    private int columnCapacity;
+
+    /**
+     * Number of words of a row, covering at least the column capacity.
+     */
+    private int rowStride;
+
+    /**
+     * Number of words of a column, covering at least the row capacity.
+     */
+    private int columnStride;
+
+    /**
+     * Are the words stored outside of the heap?
+     */
+    private final boolean direct;
+
+    /**
+     * Rows as words over the columns.
+     */
+    private LongBuffer rowWords;
+
+    /**
+     * Columns as words over the rows.
+     */
+    private LongBuffer columnWords;
+
+    /**
+     * Factory method to construct an empty bit matrix.
+     *
+     * @return a new BufferBitMatrix object
+     */
+    public static BufferBitMatrix create() {
+        return new BufferBitMatrix(LongBuffer.allocate(0), LongBuffer.allocate(0), 0, 0);
+    }
+
+    /**
+     * Factory method to construct an empty bit matrix stored outside of the heap.
+     *
+     * @return a new BufferBitMatrix object
+     */
+    public static BufferBitMatrix createDirect() {
+        return new BufferBitMatrix(allocate(0, true), allocate(0, true), 0, 0);
+    }
+
+    /**
+     * Factory method to construct a bit matrix wrapping existing words.
+     *
+     * Row `r` is made of the words `r * words(columns)` to
+     * `(r + 1) * words(columns) - 1` of the row buffer, and column `c` of the
+     * words `c * words(rows)` to `(c + 1) * words(rows) - 1` of the column
+     * buffer. Both buffers must describe the same relation. The matrix is
+     * stored outside of the heap if the row buffer is direct.
+     *
+     * @param rowWords    rows as words over the columns
+     * @param columnWords columns as words over the rows
+     * @param rows        number of rows
+     * @param columns     number of columns
+     *
+     * @return a new BufferBitMatrix object
+     */
+    public static BufferBitMatrix wrap(final LongBuffer rowWords, final LongBuffer columnWords, final int rows, final int columns) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Matrix size cannot be negative");
+        }
+        if (rowWords.capacity() < (long) rows * words(columns) || columnWords.capacity() < (long) columns * words(rows)) {
+            throw new IllegalArgumentException("Buffers are too small for the matrix size");
+        }
+        return new BufferBitMatrix(rowWords, columnWords, rows, columns);
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param rowWords    rows as words over the columns
+     * @param columnWords columns as words over the rows
+     * @param rows        number of rows
+     * @param columns     number of columns
+     */
+    private BufferBitMatrix(final LongBuffer rowWords, final LongBuffer columnWords, final int rows, final int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowCapacity = rows;
+        this.columnCapacity = columns;
+        this.rowStride = words(columns);
+        this.columnStride = words(rows);
+        this.direct = rowWords.isDirect();
+        this.rowWords = rowWords;
+        this.columnWords = columnWords;
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int rows() {
+        return this.rows;
+    }
+
+    /**
+     * Get the number of columns.
+     *
+     * @return the number of columns
+     */
+    @Override
+    public int columns() {
+        return this.columns;
+    }
+
+    /**
+     * Get a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     *
+     * @return the truth value of the cell
+     */
+    @Override
+    public boolean get(final int row, final int column) {
+        this.check(row, column);
+        return (this.rowWords.get(row * this.rowStride + (column >>> WORD_SHIFT)) & (1L << column)) != 0;
+    }
+
+    /**
+     * Set a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     * @param truth  new truth value
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public BufferBitMatrix set(final int row, final int column, final boolean truth) {
+        this.check(row, column);
+        this.ensureWritable();
+        setBit(this.rowWords, row * this.rowStride + (column >>> WORD_SHIFT), column, truth);
+        setBit(this.columnWords, column * this.columnStride + (row >>> WORD_SHIFT), row, truth);
+        return this;
+    }
+
+    /**
+     * Add an empty row.
+     *
+     * @return the index of the new row
+     */
+    @Override
+    public int addRow() {
+        this.ensureWritable();
+        if (this.rows == this.rowCapacity) {
+            int capacity = Math.max(WORD_SIZE, 2 * words(this.rowCapacity) * WORD_SIZE);
+            int stride = words(capacity);
+            this.rowWords = this.copy(this.rowWords, this.rows, this.rowStride, capacity, this.rowStride);
+            this.columnWords = this.copy(this.columnWords, this.columns, this.columnStride, this.columnCapacity, stride);
+            this.rowCapacity = capacity;
+            this.columnStride = stride;
+        }
+        this.rows++;
+        return this.rows - 1;
+    }
+
+    /**
+     * Add an empty column.
+     *
+     * @return the index of the new column
+     */
+    @Override
+    public int addColumn() {
+        this.transpose();
+        int column = this.addRow();
+        this.transpose();
+        return column;
+    }
+
+    /**
+     * Remove a row.
+     *
+     * @param row row to be removed
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public BufferBitMatrix removeRow(final int row) {
+        if (row < 0 || row >= this.rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the matrix");
+        }
+        this.ensureWritable();
+        int last = this.rows - 1;
+        if (row != last) {
+            for (int word = 0; word < this.rowStride; word++) {
+                this.rowWords.put(row * this.rowStride + word, this.rowWords.get(last * this.rowStride + word));
+            }
+            for (int column = 0; column < this.columns; column++) {
+                boolean truth = (this.columnWords.get(column * this.columnStride + (last >>> WORD_SHIFT)) & (1L << last)) != 0;
+                setBit(this.columnWords, column * this.columnStride + (row >>> WORD_SHIFT), row, truth);
+            }
+        }
+        for (int word = 0; word < this.rowStride; word++) {
+            this.rowWords.put(last * this.rowStride + word, 0L);
+        }
+        for (int column = 0; column < this.columns; column++) {
+            setBit(this.columnWords, column * this.columnStride + (last >>> WORD_SHIFT), last, false);
+        }
+        this.rows--;
+        return this;
+    }
+
+    /**
+     * Remove a column.
+     *
+     * @param column column to be removed
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public BufferBitMatrix removeColumn(final int column) {
+        if (column < 0 || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Column " + column + " is outside the matrix");
+        }
+        this.transpose();
+        this.removeRow(column);
+        this.transpose();
+        return this;
+    }
+
+    /**
+     * Exchange rows and columns.
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public BufferBitMatrix transpose() {
+        int size = this.rows;
+        this.rows = this.columns;
+        this.columns = size;
+        int capacity = this.rowCapacity;
+        this.rowCapacity = this.columnCapacity;
+        this.columnCapacity = capacity;
+        int stride = this.rowStride;
+        this.rowStride = this.columnStride;
+        this.columnStride = stride;
+        LongBuffer words = this.rowWords;
+        this.rowWords = this.columnWords;
+        this.columnWords = words;
+        return this;
+    }
+
+    /**
+     * Get a copy of this matrix.
+     *
+     * Read-only buffers, such as a memory-mapped file, are shared by the copy
+     * and copied on its first modification. Other buffers are copied into
+     * buffers of the same kind, direct or not.
+     *
+     * @return a new BufferBitMatrix object
+     */
+    @Override
+    public BufferBitMatrix copy() {
+        LongBuffer rowCopy;
+        LongBuffer columnCopy;
+        if (this.rowWords.isReadOnly() && this.columnWords.isReadOnly()) {
+            rowCopy = this.rowWords.duplicate();
+            columnCopy = this.columnWords.duplicate();
+        } else {
+            rowCopy = this.copy(this.rowWords, this.rows, this.rowStride, this.rowCapacity, this.rowStride);
+            columnCopy = this.copy(this.columnWords, this.columns, this.columnStride, this.columnCapacity, this.columnStride);
+        }
+        BufferBitMatrix result = new BufferBitMatrix(rowCopy, columnCopy, this.rows, this.columns);
+        result.rowCapacity = this.rowCapacity;
+        result.columnCapacity = this.columnCapacity;
+        result.rowStride = this.rowStride;
+        result.columnStride = this.columnStride;
+        return result;
+    }
+
+    /**
+     * Check if the words are stored outside of the heap.
+     *
+     * @return true if the words are stored in direct buffers
+     */
+    public boolean isDirect() {
+        return this.direct;
+    }
+
+    /**
+     * Get a word of a row.
+     *
+     * @param row  row of the word
+     * @param word index of the word
+     *
+     * @return the bits of the columns `64 * word` to `64 * word + 63`
+     */
+    @Override
+    public long rowWord(final int row, final int word) {
+        return this.rowWords.get(row * this.rowStride + word);
+    }
+
+    /**
+     * Get a word of a column.
+     *
+     * @param column column of the word
+     * @param word   index of the word
+     *
+     * @return the bits of the rows `64 * word` to `64 * word + 63`
+     */
+    @Override
+    public long columnWord(final int column, final int word) {
+        return this.columnWords.get(column * this.columnStride + word);
+    }
+
+    /**
+     * Intersect words over the columns with a row.
+     *
+     * @param row   row to be intersected
+     * @param words words over the columns, modified in place
+     */
+    @Override
+    public void andRow(final int row, final long[] words) {
+        int offset = row * this.rowStride;
+        for (int word = 0; word < words.length; word++) {
+            words[word] &= this.rowWords.get(offset + word);
+        }
+    }
+
+    /**
+     * Intersect words over the rows with a column.
+     *
+     * @param column column to be intersected
+     * @param words  words over the rows, modified in place
+     */
+    @Override
+    public void andColumn(final int column, final long[] words) {
+        int offset = column * this.columnStride;
+        for (int word = 0; word < words.length; word++) {
+            words[word] &= this.columnWords.get(offset + word);
+        }
+    }
+
+    /**
+     * Copy read-only buffers before their first modification.
+     */
+    private void ensureWritable() {
+        if (this.rowWords.isReadOnly() || this.columnWords.isReadOnly()) {
+            this.rowWords = this.copy(this.rowWords, this.rows, this.rowStride, this.rowCapacity, this.rowStride);
+            this.columnWords = this.copy(this.columnWords, this.columns, this.columnStride, this.columnCapacity, this.columnStride);
+        }
+    }
+
+    /**
+     * Copy vectors into a new buffer.
+     *
+     * @param words     vectors to be copied
+     * @param count     number of vectors
+     * @param stride    current stride
+     * @param capacity  number of vectors of the new buffer
+     * @param newStride new stride
+     *
+     * @return the new buffer
+     */
+    private LongBuffer copy(final LongBuffer words, final int count, final int stride, final int capacity, final int newStride) {
+        LongBuffer result = allocate((long) capacity * newStride, this.direct);
+        for (int vector = 0; vector < count; vector++) {
+            for (int word = 0; word < stride; word++) {
+                result.put(vector * newStride + word, words.get(vector * stride + word));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Allocate a buffer of zero words.
+     *
+     * @param size   number of words
+     * @param direct should the buffer be allocated outside of the heap?
+     *
+     * @return the new buffer
+     */
+    private static LongBuffer allocate(final long size, final boolean direct) {
+        if (size > Integer.MAX_VALUE / (WORD_SIZE / Byte.SIZE)) {
+            throw new IllegalStateException("Bit matrix exceeds the capacity of a buffer");
+        }
+        if (direct) {
+            return ByteBuffer.allocateDirect((int) size * (WORD_SIZE / Byte.SIZE)).order(ByteOrder.nativeOrder()).asLongBuffer();
+        }
+        return LongBuffer.allocate((int) size);
+    }
+
+    /**
+     * Set a bit of a buffer.
+     *
+     * @param words buffer
+     * @param index index of the word
+     * @param bit   index of the bit, modulo the word size
+     * @param truth new truth value
+     */
+    private static void setBit(final LongBuffer words, final int index, final int bit, final boolean truth) {
+        if (truth) {
+            words.put(index, words.get(index) | (1L << bit));
+        } else {
+            words.put(index, words.get(index) & ~(1L << bit));
+        }
+    }
+
+    /**
+     * Check that a cell is inside the matrix.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     */
+    private void check(final int row, final int column) {
+        if (row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") is outside the matrix");
+        }
+    }
+}
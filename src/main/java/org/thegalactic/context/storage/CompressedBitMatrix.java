@@ -0,0 +1,509 @@
+package org.thegalactic.context.storage;
+
+/*
+ * CompressedBitMatrix.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bit matrix storing each row and each column in a {@link CompressedBitmap}.
+ *
+ * The memory used is proportional to the number of set cells, which suits
+ * sparse relations. Extents, intents, closures and their cardinalities are
+ * computed by intersecting the compressed vectors, starting from the smallest
+ * one, instead of words over all the rows or columns.
+ */
+public final class CompressedBitMatrix extends BitMatrix {
+
+    /**
+     * Rows as bitmaps of columns.
+     */
+    private List<CompressedBitmap> rowBitmaps;
+
+    /**
+     * Columns as bitmaps of rows.
+     */
+    private List<CompressedBitmap> columnBitmaps;
+
+    /**
+     * Factory method to construct an empty bit matrix.
+     *
+     * @return a new CompressedBitMatrix object
+     */
+    public static CompressedBitMatrix create() {
+        return new CompressedBitMatrix();
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private CompressedBitMatrix() {
+        this.rowBitmaps = new ArrayList<CompressedBitmap>();
+        this.columnBitmaps = new ArrayList<CompressedBitmap>();
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int rows() {
+        return this.rowBitmaps.size();
+    }
+
+    /**
+     * Get the number of columns.
+     *
+     * @return the number of columns
+     */
+    @Override
+    public int columns() {
+        return this.columnBitmaps.size();
+    }
+
+    /**
+     * Get a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     *
+     * @return the truth value of the cell
+     */
+    @Override
+    public boolean get(final int row, final int column) {
+        this.check(row, column);
+        return this.rowBitmaps.get(row).contains(column);
+    }
+
+    /**
+     * Set a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     * @param truth  new truth value
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public CompressedBitMatrix set(final int row, final int column, final boolean truth) {
+        this.check(row, column);
+        if (truth) {
+            this.rowBitmaps.get(row).add(column);
+            this.columnBitmaps.get(column).add(row);
+        } else {
+            this.rowBitmaps.get(row).remove(column);
+            this.columnBitmaps.get(column).remove(row);
+        }
+        return this;
+    }
+
+    /**
+     * Add an empty row.
+     *
+     * @return the index of the new row
+     */
+    @Override
+    public int addRow() {
+        this.rowBitmaps.add(CompressedBitmap.create());
+        return this.rowBitmaps.size() - 1;
+    }
+
+    /**
+     * Add an empty column.
+     *
+     * @return the index of the new column
+     */
+    @Override
+    public int addColumn() {
+        this.columnBitmaps.add(CompressedBitmap.create());
+        return this.columnBitmaps.size() - 1;
+    }
+
+    /**
+     * Remove a row.
+     *
+     * @param row row to be removed
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public CompressedBitMatrix removeRow(final int row) {
+        if (row < 0 || row >= this.rows()) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the matrix");
+        }
+        int last = this.rows() - 1;
+        for (int column : this.rowBitmaps.get(row).toArray()) {
+            this.columnBitmaps.get(column).remove(row);
+        }
+        if (row != last) {
+            for (int column : this.rowBitmaps.get(last).toArray()) {
+                this.columnBitmaps.get(column).remove(last).add(row);
+            }
+            this.rowBitmaps.set(row, this.rowBitmaps.get(last));
+        }
+        this.rowBitmaps.remove(last);
+        return this;
+    }
+
+    /**
+     * Remove a column.
+     *
+     * @param column column to be removed
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public CompressedBitMatrix removeColumn(final int column) {
+        if (column < 0 || column >= this.columns()) {
+            throw new IndexOutOfBoundsException("Column " + column + " is outside the matrix");
+        }
+        this.transpose();
+        this.removeRow(column);
+        this.transpose();
+        return this;
+    }
+
+    /**
+     * Exchange rows and columns.
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public CompressedBitMatrix transpose() {
+        List<CompressedBitmap> bitmaps = this.rowBitmaps;
+        this.rowBitmaps = this.columnBitmaps;
+        this.columnBitmaps = bitmaps;
+        return this;
+    }
+
+    /**
+     * Get a copy of this matrix.
+     *
+     * @return a new CompressedBitMatrix object
+     */
+    @Override
+    public CompressedBitMatrix copy() {
+        CompressedBitMatrix result = new CompressedBitMatrix();
+        for (CompressedBitmap bitmap : this.rowBitmaps) {
+            result.rowBitmaps.add(bitmap.copy());
+        }
+        for (CompressedBitmap bitmap : this.columnBitmaps) {
+            result.columnBitmaps.add(bitmap.copy());
+        }
+        return result;
+    }
+
+    /**
+     * Get a word of a row.
+     *
+     * @param row  row of the word
+     * @param word index of the word
+     *
+     * @return the bits of the columns `64 * word` to `64 * word + 63`
+     */
+    @Override
+    public long rowWord(final int row, final int word) {
+        return this.rowBitmaps.get(row).word(word);
+    }
+
+    /**
+     * Get a word of a column.
+     *
+     * @param column column of the word
+     * @param word   index of the word
+     *
+     * @return the bits of the rows `64 * word` to `64 * word + 63`
+     */
+    @Override
+    public long columnWord(final int column, final int word) {
+        return this.columnBitmaps.get(column).word(word);
+    }
+
+    /**
+     * Intersect words over the columns with a row.
+     *
+     * @param row   row to be intersected
+     * @param words words over the columns, modified in place
+     */
+    @Override
+    public void andRow(final int row, final long[] words) {
+        and(this.rowBitmaps.get(row), words);
+    }
+
+    /**
+     * Intersect words over the rows with a column.
+     *
+     * @param column column to be intersected
+     * @param words  words over the rows, modified in place
+     */
+    @Override
+    public void andColumn(final int column, final long[] words) {
+        and(this.columnBitmaps.get(column), words);
+    }
+
+    /**
+     * Get the rows sharing all the given columns.
+     *
+     * @param columns indices of columns
+     *
+     * @return words over the rows
+     */
+    @Override
+    public long[] extent(final int[] columns) {
+        if (columns.length == 0) {
+            return ones(this.rows());
+        }
+        return meet(this.columnBitmaps, columns).toWords(this.rows());
+    }
+
+    /**
+     * Get the columns shared by all the given rows.
+     *
+     * @param rows indices of rows
+     *
+     * @return words over the columns
+     */
+    @Override
+    public long[] intent(final int[] rows) {
+        if (rows.length == 0) {
+            return ones(this.columns());
+        }
+        return meet(this.rowBitmaps, rows).toWords(this.columns());
+    }
+
+    /**
+     * Get the columns shared by all the given rows.
+     *
+     * @param rows words over the rows
+     *
+     * @return words over the columns
+     */
+    @Override
+    public long[] intent(final long[] rows) {
+        return this.intent(indices(rows));
+    }
+
+    /**
+     * Get the rows sharing all the given columns.
+     *
+     * @param columns words over the columns
+     *
+     * @return words over the rows
+     */
+    @Override
+    public long[] extent(final long[] columns) {
+        return this.extent(indices(columns));
+    }
+
+    /**
+     * Get the number of rows sharing all the given columns.
+     *
+     * @param columns indices of columns
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int extentCardinality(final int[] columns) {
+        return meetCardinality(this.columnBitmaps, columns, this.rows());
+    }
+
+    /**
+     * Check if at least a number of rows share all the given columns.
+     *
+     * The columns are intersected from the smallest one and the intersection
+     * stops as soon as it has less than threshold rows.
+     *
+     * @param columns   indices of columns
+     * @param threshold minimal number of rows
+     *
+     * @return true if the extent has at least threshold rows
+     */
+    @Override
+    public boolean hasExtentCardinality(final int[] columns, final int threshold) {
+        if (columns.length == 0) {
+            return this.rows() >= threshold;
+        }
+        int smallest = smallest(this.columnBitmaps, columns);
+        CompressedBitmap result = this.columnBitmaps.get(columns[smallest]);
+        for (int i = 0; i < columns.length; i++) {
+            if (result.cardinality() < threshold) {
+                return false;
+            }
+            if (i != smallest) {
+                result = result.and(this.columnBitmaps.get(columns[i]));
+            }
+        }
+        return result.cardinality() >= threshold;
+    }
+
+    /**
+     * Get the number of columns shared by all the given rows.
+     *
+     * @param rows indices of rows
+     *
+     * @return the number of columns
+     */
+    @Override
+    public int intentCardinality(final int[] rows) {
+        return meetCardinality(this.rowBitmaps, rows, this.columns());
+    }
+
+    /**
+     * Get the closure of a set of columns.
+     *
+     * @param columns indices of columns
+     *
+     * @return words over the columns
+     */
+    @Override
+    public long[] closure(final int[] columns) {
+        int[] rows;
+        if (columns.length == 0) {
+            rows = new int[this.rows()];
+            for (int row = 0; row < rows.length; row++) {
+                rows[row] = row;
+            }
+        } else {
+            rows = meet(this.columnBitmaps, columns).toArray();
+        }
+        return this.intent(rows);
+    }
+
+    /**
+     * Convert the bitmaps to run containers where they are smaller.
+     *
+     * @return this for chaining.
+     */
+    public CompressedBitMatrix optimize() {
+        for (CompressedBitmap bitmap : this.rowBitmaps) {
+            bitmap.optimize();
+        }
+        for (CompressedBitmap bitmap : this.columnBitmaps) {
+            bitmap.optimize();
+        }
+        return this;
+    }
+
+    /**
+     * Intersect vectors, starting from the smallest one.
+     *
+     * @param vectors vectors
+     * @param indices indices of at least one vector
+     *
+     * @return the intersection
+     */
+    private static CompressedBitmap meet(final List<CompressedBitmap> vectors, final int[] indices) {
+        int smallest = smallest(vectors, indices);
+        CompressedBitmap result = vectors.get(indices[smallest]);
+        for (int i = 0; i < indices.length && !result.isEmpty(); i++) {
+            if (i != smallest) {
+                result = result.and(vectors.get(indices[i]));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the cardinality of the intersection of vectors.
+     *
+     * The last intersection is counted without being built.
+     *
+     * @param vectors vectors
+     * @param indices indices of vectors
+     * @param all     cardinality of the intersection of no vector
+     *
+     * @return the cardinality of the intersection
+     */
+    private static int meetCardinality(final List<CompressedBitmap> vectors, final int[] indices, final int all) {
+        if (indices.length == 0) {
+            return all;
+        }
+        int smallest = smallest(vectors, indices);
+        CompressedBitmap result = vectors.get(indices[smallest]);
+        int last = -1;
+        for (int i = 0; i < indices.length && !result.isEmpty(); i++) {
+            if (i != smallest) {
+                if (last >= 0) {
+                    result = result.and(vectors.get(indices[last]));
+                }
+                last = i;
+            }
+        }
+        if (last < 0 || result.isEmpty()) {
+            return result.cardinality();
+        }
+        return result.andCardinality(vectors.get(indices[last]));
+    }
+
+    /**
+     * Find the smallest vector.
+     *
+     * @param vectors vectors
+     * @param indices indices of at least one vector
+     *
+     * @return the position in `indices` of the smallest vector
+     */
+    private static int smallest(final List<CompressedBitmap> vectors, final int[] indices) {
+        int result = 0;
+        int cardinality = vectors.get(indices[0]).cardinality();
+        for (int i = 1; i < indices.length && cardinality > 0; i++) {
+            int current = vectors.get(indices[i]).cardinality();
+            if (current < cardinality) {
+                result = i;
+                cardinality = current;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the indices of the set bits.
+     *
+     * @param words words of bits
+     *
+     * @return the indices in increasing order
+     */
+    private static int[] indices(final long[] words) {
+        int[] result = new int[cardinality(words)];
+        int index = 0;
+        for (int bit = nextSetBit(words, 0); bit >= 0; bit = nextSetBit(words, bit + 1)) {
+            result[index] = bit;
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Intersect words with a bitmap.
+     *
+     * @param bitmap a bitmap
+     * @param words  words, modified in place
+     */
+    private static void and(final CompressedBitmap bitmap, final long[] words) {
+        long[] bits = bitmap.toWords(words.length * WORD_SIZE);
+        for (int word = 0; word < words.length; word++) {
+            words[word] &= bits[word];
+        }
+    }
+
+    /**
+     * Check that a cell is inside the matrix.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     */
+    private void check(final int row, final int column) {
+        if (row < 0 || row >= this.rows() || column < 0 || column >= this.columns()) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") is outside the matrix");
+        }
+    }
+}
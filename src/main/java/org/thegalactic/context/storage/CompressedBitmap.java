@@ -0,0 +1,1053 @@
+package org.thegalactic.context.storage;
+
+/*
+ * CompressedBitmap.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Arrays;
+
+/**
+ * Compressed set of non negative integers in the manner of Roaring bitmaps.
+ *
+ * Integers are split by their 16 high bits into chunks of 65536 values, each
+ * chunk being stored in the smallest of three containers:
+ *
+ * - an array of sorted 16 bits values for at most 4096 values;
+ * - a bitmap of 1024 words for more values;
+ * - an array of runs of consecutive values, chosen by {@link #optimize()}.
+ *
+ * Empty chunks are not stored, so the memory used is proportional to the
+ * cardinality for sparse sets instead of the highest value as for `BitSet`.
+ * {@link #and(CompressedBitmap)} and {@link #andCardinality(CompressedBitmap)}
+ * work chunk by chunk, the latter without building the intersection.
+ */
+public final class CompressedBitmap {
+
+    /**
+     * Maximal cardinality of an array container.
+     */
+    private static final int ARRAY_MAX = 4096;
+
+    /**
+     * Number of words of a bitmap container.
+     */
+    private static final int BITMAP_WORDS = 1024;
+
+    /**
+     * Shift converting an integer into the key of its container.
+     */
+    private static final int KEY_SHIFT = 16;
+
+    /**
+     * Shift converting a word index into the key of its container.
+     */
+    private static final int WORD_KEY_SHIFT = 10;
+
+    /**
+     * Shift converting a bit index into a word index.
+     */
+    private static final int WORD_SHIFT = 6;
+
+    /**
+     * Number of bits in a word.
+     */
+    private static final int WORD_SIZE = 64;
+
+    /**
+     * Sorted keys of the containers.
+     */
+    private char[] keys;
+
+    /**
+     * Containers.
+     */
+    private Container[] containers;
+
+    /**
+     * Number of containers.
+     */
+    private int size;
+
+    /**
+     * Factory method to construct an empty bitmap.
+     *
+     * @return a new CompressedBitmap object
+     */
+    public static CompressedBitmap create() {
+        return new CompressedBitmap(new char[4], new Container[4], 0);
+    }
+
+    /**
+     * Factory method to construct a bitmap from words of bits.
+     *
+     * @param words words of bits as in `BitMatrix`
+     *
+     * @return a new CompressedBitmap object
+     */
+    public static CompressedBitmap create(final long[] words) {
+        CompressedBitmap result = create();
+        for (int index = BitMatrix.nextSetBit(words, 0); index >= 0; index = BitMatrix.nextSetBit(words, index + 1)) {
+            result.add(index);
+        }
+        return result;
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param keys       keys of the containers
+     * @param containers containers
+     * @param size       number of containers
+     */
+    private CompressedBitmap(final char[] keys, final Container[] containers, final int size) {
+        this.keys = keys;
+        this.containers = containers;
+        this.size = size;
+    }
+
+    /**
+     * Get a copy of this bitmap.
+     *
+     * @return a new CompressedBitmap object
+     */
+    public CompressedBitmap copy() {
+        Container[] copies = new Container[this.containers.length];
+        for (int i = 0; i < this.size; i++) {
+            copies[i] = this.containers[i].copy();
+        }
+        return new CompressedBitmap(this.keys.clone(), copies, this.size);
+    }
+
+    /**
+     * Get the number of integers.
+     *
+     * @return the number of integers
+     */
+    public int cardinality() {
+        int result = 0;
+        for (int i = 0; i < this.size; i++) {
+            result += this.containers[i].cardinality();
+        }
+        return result;
+    }
+
+    /**
+     * Check if this bitmap is empty.
+     *
+     * @return true if this bitmap contains no integer
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Check if an integer belongs to this bitmap.
+     *
+     * @param value a non negative integer
+     *
+     * @return true if the integer belongs to this bitmap
+     */
+    public boolean contains(final int value) {
+        int index = this.indexOf((char) (value >>> KEY_SHIFT));
+        return index >= 0 && this.containers[index].contains((char) value);
+    }
+
+    /**
+     * Add an integer.
+     *
+     * @param value a non negative integer
+     *
+     * @return this for chaining.
+     */
+    public CompressedBitmap add(final int value) {
+        char key = (char) (value >>> KEY_SHIFT);
+        int index = this.indexOf(key);
+        if (index >= 0) {
+            this.containers[index] = this.containers[index].add((char) value);
+        } else {
+            index = -index - 1;
+            if (this.size == this.keys.length) {
+                this.keys = Arrays.copyOf(this.keys, 2 * this.size);
+                this.containers = Arrays.copyOf(this.containers, 2 * this.size);
+            }
+            System.arraycopy(this.keys, index, this.keys, index + 1, this.size - index);
+            System.arraycopy(this.containers, index, this.containers, index + 1, this.size - index);
+            this.keys[index] = key;
+            this.containers[index] = new ArrayContainer().add((char) value);
+            this.size++;
+        }
+        return this;
+    }
+
+    /**
+     * Remove an integer.
+     *
+     * @param value a non negative integer
+     *
+     * @return this for chaining.
+     */
+    public CompressedBitmap remove(final int value) {
+        int index = this.indexOf((char) (value >>> KEY_SHIFT));
+        if (index >= 0) {
+            this.containers[index] = this.containers[index].remove((char) value);
+            if (this.containers[index].cardinality() == 0) {
+                System.arraycopy(this.keys, index + 1, this.keys, index, this.size - index - 1);
+                System.arraycopy(this.containers, index + 1, this.containers, index, this.size - index - 1);
+                this.size--;
+                this.containers[this.size] = null;
+            }
+        }
+        return this;
+    }
+
+    /**
+     * Get the intersection of this bitmap with another one.
+     *
+     * @param other a bitmap
+     *
+     * @return a new CompressedBitmap object
+     */
+    public CompressedBitmap and(final CompressedBitmap other) {
+        int length = Math.max(1, Math.min(this.size, other.size));
+        CompressedBitmap result = new CompressedBitmap(new char[length], new Container[length], 0);
+        int i = 0;
+        int j = 0;
+        while (i < this.size && j < other.size) {
+            if (this.keys[i] < other.keys[j]) {
+                i++;
+            } else if (this.keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                Container container = this.containers[i].and(other.containers[j]);
+                if (container.cardinality() != 0) {
+                    result.keys[result.size] = this.keys[i];
+                    result.containers[result.size] = container;
+                    result.size++;
+                }
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the cardinality of the intersection of this bitmap with another one.
+     *
+     * The intersection is not built.
+     *
+     * @param other a bitmap
+     *
+     * @return the number of integers belonging to both bitmaps
+     */
+    public int andCardinality(final CompressedBitmap other) {
+        int result = 0;
+        int i = 0;
+        int j = 0;
+        while (i < this.size && j < other.size) {
+            if (this.keys[i] < other.keys[j]) {
+                i++;
+            } else if (this.keys[i] > other.keys[j]) {
+                j++;
+            } else {
+                result += this.containers[i].andCardinality(other.containers[j]);
+                i++;
+                j++;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Convert the containers to run containers when they are smaller.
+     *
+     * @return this for chaining.
+     */
+    public CompressedBitmap optimize() {
+        for (int i = 0; i < this.size; i++) {
+            this.containers[i] = this.containers[i].optimize();
+        }
+        return this;
+    }
+
+    /**
+     * Get a word of bits.
+     *
+     * @param word index of the word
+     *
+     * @return the bits of the integers `64 * word` to `64 * word + 63`
+     */
+    public long word(final int word) {
+        int index = this.indexOf((char) (word >>> WORD_KEY_SHIFT));
+        if (index < 0) {
+            return 0L;
+        }
+        return this.containers[index].word(word & (BITMAP_WORDS - 1));
+    }
+
+    /**
+     * Get the integers in increasing order.
+     *
+     * @return an array of integers
+     */
+    public int[] toArray() {
+        int[] result = new int[this.cardinality()];
+        int offset = 0;
+        for (int i = 0; i < this.size; i++) {
+            offset = this.containers[i].fill(result, offset, this.keys[i] << KEY_SHIFT);
+        }
+        return result;
+    }
+
+    /**
+     * Get the integers lower than a bound as words of bits.
+     *
+     * @param bits bound of the integers
+     *
+     * @return words of bits as in `BitMatrix`
+     */
+    public long[] toWords(final int bits) {
+        long[] result = new long[BitMatrix.words(bits)];
+        for (int i = 0; i < this.size; i++) {
+            this.containers[i].or(result, this.keys[i] << WORD_KEY_SHIFT);
+        }
+        if ((bits & (WORD_SIZE - 1)) != 0) {
+            result[result.length - 1] &= (1L << bits) - 1L;
+        }
+        return result;
+    }
+
+    /**
+     * Get a string representation of this bitmap.
+     *
+     * @return the integers of this bitmap
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+
+    /**
+     * Find the index of a container.
+     *
+     * @param key key of the container
+     *
+     * @return the index of the container or `-(insertion point) - 1`
+     */
+    private int indexOf(final char key) {
+        return Arrays.binarySearch(this.keys, 0, this.size, key);
+    }
+
+    /**
+     * Set of 16 bits values.
+     */
+    private abstract static class Container {
+
+        /**
+         * Get the number of values.
+         *
+         * @return the number of values
+         */
+        abstract int cardinality();
+
+        /**
+         * Check if a value belongs to this container.
+         *
+         * @param value a value
+         *
+         * @return true if the value belongs to this container
+         */
+        abstract boolean contains(char value);
+
+        /**
+         * Add a value.
+         *
+         * @param value a value
+         *
+         * @return this container or a new one containing the value
+         */
+        abstract Container add(char value);
+
+        /**
+         * Remove a value.
+         *
+         * @param value a value
+         *
+         * @return this container or a new one not containing the value
+         */
+        abstract Container remove(char value);
+
+        /**
+         * Get the intersection with another container.
+         *
+         * @param other a container
+         *
+         * @return a new container
+         */
+        abstract Container and(Container other);
+
+        /**
+         * Get the cardinality of the intersection with another container.
+         *
+         * @param other a container
+         *
+         * @return the number of values belonging to both containers
+         */
+        abstract int andCardinality(Container other);
+
+        /**
+         * Get a word of bits.
+         *
+         * @param word index of the word, lower than 1024
+         *
+         * @return the bits of the values `64 * word` to `64 * word + 63`
+         */
+        abstract long word(int word);
+
+        /**
+         * Copy the values to an array.
+         *
+         * @param values an array
+         * @param offset first index to be written
+         * @param high   high bits of the values
+         *
+         * @return the index following the last written one
+         */
+        abstract int fill(int[] values, int offset, int high);
+
+        /**
+         * Set the bits of the values in words.
+         *
+         * Bits beyond the words are ignored.
+         *
+         * @param words  words of bits
+         * @param offset index of the word of the value 0
+         */
+        abstract void or(long[] words, int offset);
+
+        /**
+         * Get the number of runs of consecutive values.
+         *
+         * @return the number of runs
+         */
+        abstract int runs();
+
+        /**
+         * Get a copy of this container.
+         *
+         * @return a new container
+         */
+        abstract Container copy();
+
+        /**
+         * Get the smallest container having the same values.
+         *
+         * @return this container or a new one
+         */
+        Container optimize() {
+            int cardinality = this.cardinality();
+            int runs = this.runs();
+            int runSize = 2 * runs;
+            int arraySize = cardinality;
+            int bitmapSize = BITMAP_WORDS * (WORD_SIZE / Character.SIZE);
+            if (runSize < Math.min(arraySize, bitmapSize)) {
+                return RunContainer.create(this, runs);
+            }
+            if (cardinality <= ARRAY_MAX) {
+                return ArrayContainer.create(this);
+            }
+            return BitmapContainer.create(this);
+        }
+
+        /**
+         * Get the values of this container.
+         *
+         * @return an array of values
+         */
+        int[] values() {
+            int[] result = new int[this.cardinality()];
+            this.fill(result, 0, 0);
+            return result;
+        }
+    }
+
+    /**
+     * Container storing sorted values.
+     */
+    private static final class ArrayContainer extends Container {
+
+        /**
+         * Sorted values.
+         */
+        private char[] values;
+
+        /**
+         * Number of values.
+         */
+        private int size;
+
+        /**
+         * Constructs an empty container.
+         */
+        ArrayContainer() {
+            this.values = new char[4];
+        }
+
+        /**
+         * Constructs a container from values.
+         *
+         * @param values sorted values
+         * @param size   number of values
+         */
+        ArrayContainer(final char[] values, final int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        /**
+         * Constructs a container having the values of another one.
+         *
+         * @param container a container
+         *
+         * @return a new container
+         */
+        static ArrayContainer create(final Container container) {
+            if (container instanceof ArrayContainer) {
+                return (ArrayContainer) container;
+            }
+            int[] values = container.values();
+            char[] result = new char[Math.max(1, values.length)];
+            for (int i = 0; i < values.length; i++) {
+                result[i] = (char) values[i];
+            }
+            return new ArrayContainer(result, values.length);
+        }
+
+        @Override
+        int cardinality() {
+            return this.size;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return Arrays.binarySearch(this.values, 0, this.size, value) >= 0;
+        }
+
+        @Override
+        Container add(final char value) {
+            if (this.size > 0 && this.values[this.size - 1] < value) {
+                return this.insert(this.size, value);
+            }
+            int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                return this;
+            }
+            return this.insert(-index - 1, value);
+        }
+
+        /**
+         * Insert a value.
+         *
+         * @param index insertion point
+         * @param value a value
+         *
+         * @return this container or a bitmap container containing the value
+         */
+        private Container insert(final int index, final char value) {
+            if (this.size == ARRAY_MAX) {
+                return BitmapContainer.create(this).add(value);
+            }
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.min(ARRAY_MAX, 2 * this.size));
+            }
+            System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+            this.values[index] = value;
+            this.size++;
+            return this;
+        }
+
+        @Override
+        Container remove(final char value) {
+            int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                System.arraycopy(this.values, index + 1, this.values, index, this.size - index - 1);
+                this.size--;
+            }
+            return this;
+        }
+
+        @Override
+        Container and(final Container other) {
+            char[] result = new char[Math.max(1, this.size)];
+            int count = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (other.contains(this.values[i])) {
+                    result[count] = this.values[i];
+                    count++;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            int result = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (other.contains(this.values[i])) {
+                    result++;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        long word(final int word) {
+            int index = Arrays.binarySearch(this.values, 0, this.size, (char) (word << WORD_SHIFT));
+            if (index < 0) {
+                index = -index - 1;
+            }
+            long result = 0L;
+            while (index < this.size && this.values[index] >>> WORD_SHIFT == word) {
+                result |= 1L << this.values[index];
+                index++;
+            }
+            return result;
+        }
+
+        @Override
+        int fill(final int[] values, final int offset, final int high) {
+            for (int i = 0; i < this.size; i++) {
+                values[offset + i] = high | this.values[i];
+            }
+            return offset + this.size;
+        }
+
+        @Override
+        void or(final long[] words, final int offset) {
+            for (int i = 0; i < this.size; i++) {
+                int index = offset + (this.values[i] >>> WORD_SHIFT);
+                if (index >= words.length) {
+                    break;
+                }
+                words[index] |= 1L << this.values[i];
+            }
+        }
+
+        @Override
+        int runs() {
+            int result = 0;
+            for (int i = 0; i < this.size; i++) {
+                if (i == 0 || this.values[i] != this.values[i - 1] + 1) {
+                    result++;
+                }
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(this.values.clone(), this.size);
+        }
+    }
+
+    /**
+     * Container storing a bitmap of 1024 words.
+     */
+    private static final class BitmapContainer extends Container {
+
+        /**
+         * Words of bits.
+         */
+        private final long[] words;
+
+        /**
+         * Number of values.
+         */
+        private int size;
+
+        /**
+         * Constructs a container from words.
+         *
+         * @param words words of bits
+         * @param size  number of values
+         */
+        BitmapContainer(final long[] words, final int size) {
+            this.words = words;
+            this.size = size;
+        }
+
+        /**
+         * Constructs a container having the values of another one.
+         *
+         * @param container a container
+         *
+         * @return a new container
+         */
+        static BitmapContainer create(final Container container) {
+            if (container instanceof BitmapContainer) {
+                return (BitmapContainer) container;
+            }
+            long[] words = new long[BITMAP_WORDS];
+            container.or(words, 0);
+            return new BitmapContainer(words, container.cardinality());
+        }
+
+        @Override
+        int cardinality() {
+            return this.size;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            return (this.words[value >>> WORD_SHIFT] & (1L << value)) != 0;
+        }
+
+        @Override
+        Container add(final char value) {
+            if (!this.contains(value)) {
+                this.words[value >>> WORD_SHIFT] |= 1L << value;
+                this.size++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(final char value) {
+            if (this.contains(value)) {
+                this.words[value >>> WORD_SHIFT] &= ~(1L << value);
+                this.size--;
+                if (this.size <= ARRAY_MAX) {
+                    return ArrayContainer.create(this);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        Container and(final Container other) {
+            if (!(other instanceof BitmapContainer)) {
+                return other.and(this);
+            }
+            long[] bits = ((BitmapContainer) other).words;
+            int count = this.andCardinality(other);
+            if (count > ARRAY_MAX) {
+                long[] result = new long[BITMAP_WORDS];
+                for (int word = 0; word < BITMAP_WORDS; word++) {
+                    result[word] = this.words[word] & bits[word];
+                }
+                return new BitmapContainer(result, count);
+            }
+            char[] result = new char[Math.max(1, count)];
+            int index = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long and = this.words[word] & bits[word];
+                while (and != 0) {
+                    result[index] = (char) ((word << WORD_SHIFT) + Long.numberOfTrailingZeros(and));
+                    index++;
+                    and &= and - 1;
+                }
+            }
+            return new ArrayContainer(result, count);
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            if (!(other instanceof BitmapContainer)) {
+                return other.andCardinality(this);
+            }
+            long[] bits = ((BitmapContainer) other).words;
+            int result = 0;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                result += Long.bitCount(this.words[word] & bits[word]);
+            }
+            return result;
+        }
+
+        @Override
+        long word(final int word) {
+            return this.words[word];
+        }
+
+        @Override
+        int fill(final int[] values, final int offset, final int high) {
+            int index = offset;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long bits = this.words[word];
+                while (bits != 0) {
+                    values[index] = high | ((word << WORD_SHIFT) + Long.numberOfTrailingZeros(bits));
+                    index++;
+                    bits &= bits - 1;
+                }
+            }
+            return index;
+        }
+
+        @Override
+        void or(final long[] words, final int offset) {
+            int length = Math.min(BITMAP_WORDS, words.length - offset);
+            for (int word = 0; word < length; word++) {
+                words[offset + word] |= this.words[word];
+            }
+        }
+
+        @Override
+        int runs() {
+            int result = 0;
+            long previous = 0L;
+            for (int word = 0; word < BITMAP_WORDS; word++) {
+                long bits = this.words[word];
+                result += Long.bitCount(bits & ~((bits << 1) | (previous >>> (WORD_SIZE - 1))));
+                previous = bits;
+            }
+            return result;
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(this.words.clone(), this.size);
+        }
+    }
+
+    /**
+     * Container storing runs of consecutive values.
+     */
+    private static final class RunContainer extends Container {
+
+        /**
+         * First values of the runs.
+         */
+        private final char[] starts;
+
+        /**
+         * Last values of the runs.
+         */
+        private final char[] ends;
+
+        /**
+         * Number of runs.
+         */
+        private final int size;
+
+        /**
+         * Constructs a container from runs.
+         *
+         * @param starts first values of the runs
+         * @param ends   last values of the runs
+         * @param size   number of runs
+         */
+        RunContainer(final char[] starts, final char[] ends, final int size) {
+            this.starts = starts;
+            this.ends = ends;
+            this.size = size;
+        }
+
+        /**
+         * Constructs a container having the values of another one.
+         *
+         * @param container a container
+         * @param runs      number of runs of the container
+         *
+         * @return a new container
+         */
+        static RunContainer create(final Container container, final int runs) {
+            if (container instanceof RunContainer) {
+                return (RunContainer) container;
+            }
+            int[] values = container.values();
+            char[] starts = new char[Math.max(1, runs)];
+            char[] ends = new char[Math.max(1, runs)];
+            int size = 0;
+            for (int i = 0; i < values.length; i++) {
+                if (i == 0 || values[i] != values[i - 1] + 1) {
+                    starts[size] = (char) values[i];
+                    size++;
+                }
+                ends[size - 1] = (char) values[i];
+            }
+            return new RunContainer(starts, ends, size);
+        }
+
+        @Override
+        int cardinality() {
+            int result = 0;
+            for (int i = 0; i < this.size; i++) {
+                result += this.ends[i] - this.starts[i] + 1;
+            }
+            return result;
+        }
+
+        @Override
+        boolean contains(final char value) {
+            int index = Arrays.binarySearch(this.starts, 0, this.size, value);
+            if (index >= 0) {
+                return true;
+            }
+            index = -index - 2;
+            return index >= 0 && value <= this.ends[index];
+        }
+
+        /**
+         * Get a container that can be modified.
+         *
+         * @return a new array or bitmap container
+         */
+        private Container mutable() {
+            if (this.cardinality() <= ARRAY_MAX) {
+                return ArrayContainer.create(this);
+            }
+            return BitmapContainer.create(this);
+        }
+
+        @Override
+        Container add(final char value) {
+            if (this.contains(value)) {
+                return this;
+            }
+            return this.mutable().add(value);
+        }
+
+        @Override
+        Container remove(final char value) {
+            if (!this.contains(value)) {
+                return this;
+            }
+            return this.mutable().remove(value);
+        }
+
+        @Override
+        Container and(final Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.and(this);
+            }
+            if (other instanceof BitmapContainer) {
+                return BitmapContainer.create(this).and(other);
+            }
+            RunContainer runs = (RunContainer) other;
+            int length = Math.max(1, this.size + runs.size);
+            char[] starts = new char[length];
+            char[] ends = new char[length];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < this.size && j < runs.size) {
+                char start = (char) Math.max(this.starts[i], runs.starts[j]);
+                char end = (char) Math.min(this.ends[i], runs.ends[j]);
+                if (start <= end) {
+                    starts[count] = start;
+                    ends[count] = end;
+                    count++;
+                }
+                if (this.ends[i] < runs.ends[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return new RunContainer(starts, ends, count);
+        }
+
+        @Override
+        int andCardinality(final Container other) {
+            if (other instanceof ArrayContainer) {
+                return other.andCardinality(this);
+            }
+            int result = 0;
+            if (other instanceof BitmapContainer) {
+                for (int i = 0; i < this.size; i++) {
+                    for (int word = this.starts[i] >>> WORD_SHIFT; word <= this.ends[i] >>> WORD_SHIFT; word++) {
+                        result += Long.bitCount(other.word(word) & this.word(word, i));
+                    }
+                }
+                return result;
+            }
+            RunContainer runs = (RunContainer) other;
+            int i = 0;
+            int j = 0;
+            while (i < this.size && j < runs.size) {
+                int start = Math.max(this.starts[i], runs.starts[j]);
+                int end = Math.min(this.ends[i], runs.ends[j]);
+                if (start <= end) {
+                    result += end - start + 1;
+                }
+                if (this.ends[i] < runs.ends[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Get the bits of a run in a word.
+         *
+         * @param word index of the word
+         * @param run  index of the run
+         *
+         * @return the bits of the values of the run in the word
+         */
+        private long word(final int word, final int run) {
+            int first = word << WORD_SHIFT;
+            int start = Math.max(first, this.starts[run]);
+            int end = Math.min(first + WORD_SIZE - 1, this.ends[run]);
+            if (start > end) {
+                return 0L;
+            }
+            return (-1L >>> (WORD_SIZE - 1 - (end - start))) << start;
+        }
+
+        @Override
+        long word(final int word) {
+            int index = Arrays.binarySearch(this.starts, 0, this.size, (char) (word << WORD_SHIFT));
+            if (index < 0) {
+                index = Math.max(0, -index - 2);
+            }
+            long result = 0L;
+            while (index < this.size && this.starts[index] >>> WORD_SHIFT <= word) {
+                result |= this.word(word, index);
+                index++;
+            }
+            return result;
+        }
+
+        @Override
+        int fill(final int[] values, final int offset, final int high) {
+            int index = offset;
+            for (int i = 0; i < this.size; i++) {
+                for (int value = this.starts[i]; value <= this.ends[i]; value++) {
+                    values[index] = high | value;
+                    index++;
+                }
+            }
+            return index;
+        }
+
+        @Override
+        void or(final long[] words, final int offset) {
+            for (int i = 0; i < this.size; i++) {
+                for (int word = this.starts[i] >>> WORD_SHIFT; word <= this.ends[i] >>> WORD_SHIFT; word++) {
+                    if (offset + word >= words.length) {
+                        return;
+                    }
+                    words[offset + word] |= this.word(word, i);
+                }
+            }
+        }
+
+        @Override
+        int runs() {
+            return this.size;
+        }
+
+        @Override
+        Container copy() {
+            return new RunContainer(this.starts.clone(), this.ends.clone(), this.size);
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package org.thegalactic.context.storage;
+
+/*
+ * DenseBitMatrix.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Arrays;
+
+/**
+ * Bit matrix stored in two flat `long[]` arrays on the heap.
+ *
+ * Row `r` occupies the words `r * rowStride` to `(r + 1) * rowStride - 1` of
+ * the row array, and symmetrically for columns. Capacities are doubled when
+ * exhausted so that adding a row or a column is amortized constant time.
+ */
+public final class DenseBitMatrix extends BitMatrix {
+
+    /**
+     * Default capacity in rows and columns.
+     */
+    private static final int DEFAULT_CAPACITY = WORD_SIZE;
+
+    /**
+     * Number of rows.
+     */
+    private int rows;
+
+    /**
+     * Number of columns.
+     */
+    private int columns;
+
+    /**
+     * Row capacity, a multiple of the word size.
+     */
+    private int rowCapacity;
+
+    /**
+     * Column capacity, a multiple of the word size.
+     */
+    private int columnCapacity;
+
+    /**
+     * Rows as words over the columns.
+     */
+    private long[] rowWords;
+
+    /**
+     * Columns as words over the rows.
+     */
+    private long[] columnWords;
+
+    /**
+     * Factory method to construct an empty bit matrix.
+     *
+     * @return a new DenseBitMatrix object
+     */
+    public static DenseBitMatrix create() {
+        return new DenseBitMatrix(0, 0);
+    }
+
+    /**
+     * Factory method to construct an empty bit matrix with given size.
+     *
+     * @param rows    number of rows
+     * @param columns number of columns
+     *
+     * @return a new DenseBitMatrix object
+     */
+    public static DenseBitMatrix create(final int rows, final int columns) {
+        if (rows < 0 || columns < 0) {
+            throw new IllegalArgumentException("Matrix size cannot be negative");
+        }
+        return new DenseBitMatrix(rows, columns);
+    }
+
+    /**
+     * Factory method to construct a copy of a bit matrix.
+     *
+     * @param matrix bit matrix to be copied
+     *
+     * @return a new DenseBitMatrix object
+     */
+    public static DenseBitMatrix create(final BitMatrix matrix) {
+        DenseBitMatrix result = new DenseBitMatrix(matrix.rows(), matrix.columns());
+        for (int row = 0; row < result.rows; row++) {
+            long[] words = matrix.row(row);
+            for (int column = nextSetBit(words, 0); column >= 0; column = nextSetBit(words, column + 1)) {
+                result.set(row, column, true);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param rows    number of rows
+     * @param columns number of columns
+     */
+    private DenseBitMatrix(final int rows, final int columns) {
+        this.rows = rows;
+        this.columns = columns;
+        this.rowCapacity = Math.max(DEFAULT_CAPACITY, words(rows) * WORD_SIZE);
+        this.columnCapacity = Math.max(DEFAULT_CAPACITY, words(columns) * WORD_SIZE);
+        this.rowWords = new long[this.rowCapacity * words(this.columnCapacity)];
+        this.columnWords = new long[this.columnCapacity * words(this.rowCapacity)];
+    }
+
+    /**
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    @Override
+    public int rows() {
+        return this.rows;
+    }
+
+    /**
+     * Get the number of columns.
+     *
+     * @return the number of columns
+     */
+    @Override
+    public int columns() {
+        return this.columns;
+    }
+
+    /**
+     * Get a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     *
+     * @return the truth value of the cell
+     */
+    @Override
+    public boolean get(final int row, final int column) {
+        this.check(row, column);
+        return (this.rowWords[row * words(this.columnCapacity) + (column >>> WORD_SHIFT)] & (1L << column)) != 0;
+    }
+
+    /**
+     * Set a cell.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     * @param truth  new truth value
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public DenseBitMatrix set(final int row, final int column, final boolean truth) {
+        this.check(row, column);
+        int rowIndex = row * words(this.columnCapacity) + (column >>> WORD_SHIFT);
+        int columnIndex = column * words(this.rowCapacity) + (row >>> WORD_SHIFT);
+        if (truth) {
+            this.rowWords[rowIndex] |= 1L << column;
+            this.columnWords[columnIndex] |= 1L << row;
+        } else {
+            this.rowWords[rowIndex] &= ~(1L << column);
+            this.columnWords[columnIndex] &= ~(1L << row);
+        }
+        return this;
+    }
+
+    /**
+     * Add an empty row.
+     *
+     * @return the index of the new row
+     */
+    @Override
+    public int addRow() {
+        if (this.rows == this.rowCapacity) {
+            int stride = words(this.rowCapacity);
+            this.rowCapacity *= 2;
+            this.rowWords = Arrays.copyOf(this.rowWords, this.rowCapacity * words(this.columnCapacity));
+            this.columnWords = restride(this.columnWords, this.columnCapacity, stride, words(this.rowCapacity));
+        }
+        this.rows++;
+        return this.rows - 1;
+    }
+
+    /**
+     * Add an empty column.
+     *
+     * @return the index of the new column
+     */
+    @Override
+    public int addColumn() {
+        if (this.columns == this.columnCapacity) {
+            int stride = words(this.columnCapacity);
+            this.columnCapacity *= 2;
+            this.columnWords = Arrays.copyOf(this.columnWords, this.columnCapacity * words(this.rowCapacity));
+            this.rowWords = restride(this.rowWords, this.rowCapacity, stride, words(this.columnCapacity));
+        }
+        this.columns++;
+        return this.columns - 1;
+    }
+
+    /**
+     * Remove a row.
+     *
+     * @param row row to be removed
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public DenseBitMatrix removeRow(final int row) {
+        if (row < 0 || row >= this.rows) {
+            throw new IndexOutOfBoundsException("Row " + row + " is outside the matrix");
+        }
+        int last = this.rows - 1;
+        int stride = words(this.columnCapacity);
+        if (row != last) {
+            System.arraycopy(this.rowWords, last * stride, this.rowWords, row * stride, stride);
+            for (int column = 0; column < this.columns; column++) {
+                this.setColumnBit(column, row, this.getColumnBit(column, last));
+            }
+        }
+        Arrays.fill(this.rowWords, last * stride, (last + 1) * stride, 0L);
+        for (int column = 0; column < this.columns; column++) {
+            this.setColumnBit(column, last, false);
+        }
+        this.rows--;
+        return this;
+    }
+
+    /**
+     * Remove a column.
+     *
+     * @param column column to be removed
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public DenseBitMatrix removeColumn(final int column) {
+        if (column < 0 || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Column " + column + " is outside the matrix");
+        }
+        this.transpose();
+        this.removeRow(column);
+        this.transpose();
+        return this;
+    }
+
+    /**
+     * Exchange rows and columns.
+     *
+     * @return this for chaining.
+     */
+    @Override
+    public DenseBitMatrix transpose() {
+        int size = this.rows;
+        this.rows = this.columns;
+        this.columns = size;
+        int capacity = this.rowCapacity;
+        this.rowCapacity = this.columnCapacity;
+        this.columnCapacity = capacity;
+        long[] words = this.rowWords;
+        this.rowWords = this.columnWords;
+        this.columnWords = words;
+        return this;
+    }
+
+    /**
+     * Get a copy of this matrix.
+     *
+     * @return a new DenseBitMatrix object
+     */
+    @Override
+    public DenseBitMatrix copy() {
+        DenseBitMatrix result = new DenseBitMatrix(0, 0);
+        result.rows = this.rows;
+        result.columns = this.columns;
+        result.rowCapacity = this.rowCapacity;
+        result.columnCapacity = this.columnCapacity;
+        result.rowWords = this.rowWords.clone();
+        result.columnWords = this.columnWords.clone();
+        return result;
+    }
+
+    /**
+     * Get a word of a row.
+     *
+     * @param row  row of the word
+     * @param word index of the word
+     *
+     * @return the bits of the columns `64 * word` to `64 * word + 63`
+     */
+    @Override
+    public long rowWord(final int row, final int word) {
+        return this.rowWords[row * words(this.columnCapacity) + word];
+    }
+
+    /**
+     * Get a word of a column.
+     *
+     * @param column column of the word
+     * @param word   index of the word
+     *
+     * @return the bits of the rows `64 * word` to `64 * word + 63`
+     */
+    @Override
+    public long columnWord(final int column, final int word) {
+        return this.columnWords[column * words(this.rowCapacity) + word];
+    }
+
+    /**
+     * Intersect words over the columns with a row.
+     *
+     * @param row   row to be intersected
+     * @param words words over the columns, modified in place
+     */
+    @Override
+    public void andRow(final int row, final long[] words) {
+        int offset = row * words(this.columnCapacity);
+        for (int word = 0; word < words.length; word++) {
+            words[word] &= this.rowWords[offset + word];
+        }
+    }
+
+    /**
+     * Intersect words over the rows with a column.
+     *
+     * @param column column to be intersected
+     * @param words  words over the rows, modified in place
+     */
+    @Override
+    public void andColumn(final int column, final long[] words) {
+        int offset = column * words(this.rowCapacity);
+        for (int word = 0; word < words.length; word++) {
+            words[word] &= this.columnWords[offset + word];
+        }
+    }
+
+    /**
+     * Get a bit of the column array.
+     *
+     * @param column column of the bit
+     * @param row    row of the bit
+     *
+     * @return the bit
+     */
+    private boolean getColumnBit(final int column, final int row) {
+        return (this.columnWords[column * words(this.rowCapacity) + (row >>> WORD_SHIFT)] & (1L << row)) != 0;
+    }
+
+    /**
+     * Set a bit of the column array.
+     *
+     * @param column column of the bit
+     * @param row    row of the bit
+     * @param truth  new truth value
+     */
+    private void setColumnBit(final int column, final int row, final boolean truth) {
+        int index = column * words(this.rowCapacity) + (row >>> WORD_SHIFT);
+        if (truth) {
+            this.columnWords[index] |= 1L << row;
+        } else {
+            this.columnWords[index] &= ~(1L << row);
+        }
+    }
+
+    /**
+     * Check that a cell is inside the matrix.
+     *
+     * @param row    row of the cell
+     * @param column column of the cell
+     */
+    private void check(final int row, final int column) {
+        if (row < 0 || row >= this.rows || column < 0 || column >= this.columns) {
+            throw new IndexOutOfBoundsException("Cell (" + row + ", " + column + ") is outside the matrix");
+        }
+    }
+
+    /**
+     * Copy vectors into an array having a larger stride.
+     *
+     * @param words     vectors to be copied
+     * @param count     number of vectors
+     * @param stride    current stride
+     * @param newStride new stride
+     *
+     * @return the new array
+     */
+    private static long[] restride(final long[] words, final int count, final int stride, final int newStride) {
+        long[] result = new long[count * newStride];
+        for (int vector = 0; vector < count; vector++) {
+            System.arraycopy(words, vector * stride, result, vector * newStride, stride);
+        }
+        return result;
+    }
+}
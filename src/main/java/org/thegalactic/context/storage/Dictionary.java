@@ -0,0 +1,202 @@
+package org.thegalactic.context.storage;
+
+/*
+ * Dictionary.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Dictionary encoding comparable elements to dense integer indices.
+ *
+ * Indices always range from 0 to `size() - 1`. Removing an element moves the
+ * last element into the freed index so that the encoding stays dense, the
+ * same move must be applied to any structure indexed by this dictionary.
+ */
+public final class Dictionary {
+
+    /**
+     * Elements indexed by their code.
+     */
+    private final ArrayList<Comparable> elements;
+
+    /**
+     * Codes indexed by their element.
+     */
+    private final HashMap<Comparable, Integer> codes;
+
+    /**
+     * Factory method to construct an empty dictionary.
+     *
+     * @return a new Dictionary object
+     */
+    public static Dictionary create() {
+        return new Dictionary();
+    }
+
+    /**
+     * Factory method to construct a dictionary from a collection of elements.
+     *
+     * Elements are encoded in the iteration order of the collection.
+     *
+     * @param elements elements to be encoded
+     *
+     * @return a new Dictionary object
+     */
+    public static Dictionary create(final Iterable<? extends Comparable> elements) {
+        Dictionary dictionary = new Dictionary();
+        for (Comparable element : elements) {
+            dictionary.add(element);
+        }
+        return dictionary;
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     */
+    private Dictionary() {
+        this.elements = new ArrayList<Comparable>();
+        this.codes = new HashMap<Comparable, Integer>();
+    }
+
+    /**
+     * Get the number of encoded elements.
+     *
+     * @return the number of encoded elements
+     */
+    public int size() {
+        return this.elements.size();
+    }
+
+    /**
+     * Get the code of an element.
+     *
+     * @param element element to be looked up
+     *
+     * @return the code of the element or -1 if it is not encoded
+     */
+    public int indexOf(final Comparable element) {
+        Integer code = this.codes.get(element);
+        if (code == null) {
+            return -1;
+        }
+        return code;
+    }
+
+    /**
+     * Get the element having a code.
+     *
+     * @param index code of the element
+     *
+     * @return the element
+     */
+    public Comparable get(final int index) {
+        return this.elements.get(index);
+    }
+
+    /**
+     * Test if an element is encoded.
+     *
+     * @param element element to be tested
+     *
+     * @return true if the element is encoded
+     */
+    public boolean contains(final Comparable element) {
+        return this.codes.containsKey(element);
+    }
+
+    /**
+     * Encode an element.
+     *
+     * @param element element to be encoded
+     *
+     * @return the code of the element, existing or new
+     */
+    public int add(final Comparable element) {
+        Integer code = this.codes.get(element);
+        if (code == null) {
+            code = this.elements.size();
+            this.elements.add(element);
+            this.codes.put(element, code);
+        }
+        return code;
+    }
+
+    /**
+     * Remove an element.
+     *
+     * The last element takes the code of the removed one.
+     *
+     * @param element element to be removed
+     *
+     * @return the former code of the removed element or -1 if it was not encoded
+     */
+    public int remove(final Comparable element) {
+        Integer code = this.codes.remove(element);
+        if (code == null) {
+            return -1;
+        }
+        Comparable last = this.elements.remove(this.elements.size() - 1);
+        if (code < this.elements.size()) {
+            this.elements.set(code, last);
+            this.codes.put(last, code);
+        }
+        return code;
+    }
+
+    /**
+     * Get the encoded elements indexed by their code.
+     *
+     * @return an unmodifiable view of the encoded elements
+     */
+    public List<Comparable> getElements() {
+        return Collections.unmodifiableList(this.elements);
+    }
+
+    /**
+     * Decode a set of codes given as words of bits.
+     *
+     * @param words words of bits
+     *
+     * @return the set of elements whose code is set in the words
+     */
+    public TreeSet<Comparable> decode(final long[] words) {
+        TreeSet<Comparable> result = new TreeSet<Comparable>();
+        for (int index = BitMatrix.nextSetBit(words, 0); index >= 0; index = BitMatrix.nextSetBit(words, index + 1)) {
+            result.add(this.elements.get(index));
+        }
+        return result;
+    }
+
+    /**
+     * Encode a set of elements into codes.
+     *
+     * @param set set of elements
+     *
+     * @return the codes of the elements or null if one of the elements is not encoded
+     */
+    public int[] encode(final SortedSet<Comparable> set) {
+        int[] result = new int[set.size()];
+        int position = 0;
+        for (Comparable element : set) {
+            Integer code = this.codes.get(element);
+            if (code == null) {
+                return null;
+            }
+            result[position] = code;
+            position++;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,246 @@
+package org.thegalactic.context.storage;
+
+/*
+ * TidSet.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Arrays;
+
+/**
+ * Vertical representation of the extent of a set of attributes, in the manner
+ * of the dEclat algorithm.
+ *
+ * The extent is stored either as a tid-list, the sorted indices of its rows,
+ * or as a diffset, the sorted indices of the rows of its parent that it does
+ * not contain. The tid set of a set `PXY` is computed by
+ * {@link #extend(TidSet)} from the tid sets of its siblings `PX` and `PY`:
+ *
+ * - two tid-lists give the smallest of their intersection and of the diffset
+ *   `t(PX) \ t(PY)`;
+ * - two diffsets give the diffset `d(PY) \ d(PX)`;
+ * - a tid-list and a diffset give the tid-list `t(PY) \ d(PX)`.
+ *
+ * The support is kept along, so that going down a search tree of a dense
+ * context costs work proportional to the differences instead of the number
+ * of rows.
+ */
+public final class TidSet {
+
+    /**
+     * Sorted indices of the rows, or of the missing rows of the parent.
+     */
+    private final int[] tids;
+
+    /**
+     * True if the indices are a diffset.
+     */
+    private final boolean diffset;
+
+    /**
+     * Number of rows of the extent.
+     */
+    private final int support;
+
+    /**
+     * Tid set this one has been extended from, null for a root tid set.
+     */
+    private final TidSet parent;
+
+    /**
+     * Factory method to construct a root tid-list.
+     *
+     * @param tids indices of rows in increasing order
+     *
+     * @return a new TidSet object
+     */
+    public static TidSet create(final int[] tids) {
+        for (int i = 1; i < tids.length; i++) {
+            if (tids[i - 1] >= tids[i]) {
+                throw new IllegalArgumentException("Indices must be in increasing order");
+            }
+        }
+        return new TidSet(Arrays.copyOf(tids, tids.length), false, tids.length, null);
+    }
+
+    /**
+     * Factory method to construct a root tid-list from words of bits.
+     *
+     * @param words words over the rows
+     *
+     * @return a new TidSet object
+     */
+    public static TidSet create(final long[] words) {
+        int cardinality = 0;
+        for (long word : words) {
+            cardinality += Long.bitCount(word);
+        }
+        int[] tids = new int[cardinality];
+        int index = 0;
+        for (int word = 0; word < words.length; word++) {
+            long bits = words[word];
+            while (bits != 0) {
+                tids[index] = word * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                index++;
+                bits &= bits - 1;
+            }
+        }
+        return new TidSet(tids, false, cardinality, null);
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param tids    sorted indices
+     * @param diffset true if the indices are a diffset
+     * @param support number of rows of the extent
+     * @param parent  tid set this one has been extended from
+     */
+    private TidSet(final int[] tids, final boolean diffset, final int support, final TidSet parent) {
+        this.tids = tids;
+        this.diffset = diffset;
+        this.support = support;
+        this.parent = parent;
+    }
+
+    /**
+     * Get the number of rows of the extent.
+     *
+     * @return the support
+     */
+    public int support() {
+        return this.support;
+    }
+
+    /**
+     * Check if this tid set is stored as a diffset.
+     *
+     * @return true for a diffset, false for a tid-list
+     */
+    public boolean isDiffset() {
+        return this.diffset;
+    }
+
+    /**
+     * Get the number of stored indices.
+     *
+     * @return the size of the tid-list or of the diffset
+     */
+    public int size() {
+        return this.tids.length;
+    }
+
+    /**
+     * Get the tid set of the union of this set and of a sibling set.
+     *
+     * Siblings are tid sets extended from the same parent, or two root
+     * tid-lists. A root tid-list can be extended with any other tid-list.
+     *
+     * @param sibling tid set of a sibling
+     *
+     * @return the tid set of the union, whose parent is this one
+     *
+     * @throws IllegalArgumentException if a diffset is extended with a tid set of another parent
+     */
+    public TidSet extend(final TidSet sibling) {
+        if ((this.diffset || sibling.diffset) && this.parent != sibling.parent) {
+            throw new IllegalArgumentException("A diffset can only be extended with a sibling");
+        }
+        if (this.diffset && sibling.diffset) {
+            int[] diff = difference(sibling.tids, this.tids);
+            return new TidSet(diff, true, this.support - diff.length, this);
+        }
+        if (this.diffset) {
+            int[] list = difference(sibling.tids, this.tids);
+            return new TidSet(list, false, list.length, this);
+        }
+        if (sibling.diffset) {
+            int[] list = difference(this.tids, sibling.tids);
+            return new TidSet(list, false, list.length, this);
+        }
+        int[] diff = difference(this.tids, sibling.tids);
+        int count = this.tids.length - diff.length;
+        if (diff.length < count) {
+            return new TidSet(diff, true, count, this);
+        }
+        return new TidSet(intersection(this.tids, sibling.tids, count), false, count, this);
+    }
+
+    /**
+     * Get the indices of the rows of the extent.
+     *
+     * A diffset is subtracted from the indices of its parent.
+     *
+     * @return the indices in increasing order
+     */
+    public int[] toArray() {
+        if (this.diffset) {
+            return difference(this.parent.toArray(), this.tids);
+        }
+        return Arrays.copyOf(this.tids, this.tids.length);
+    }
+
+    /**
+     * Returns a string representation of this tid set.
+     *
+     * @return a string representation of this tid set
+     */
+    @Override
+    public String toString() {
+        return Arrays.toString(this.toArray());
+    }
+
+    /**
+     * Get the difference of two sorted arrays.
+     *
+     * @param left  sorted indices
+     * @param right sorted indices
+     *
+     * @return the indices of left that are not in right
+     */
+    private static int[] difference(final int[] left, final int[] right) {
+        int[] result = new int[left.length];
+        int size = 0;
+        int j = 0;
+        for (int i = 0; i < left.length; i++) {
+            while (j < right.length && right[j] < left[i]) {
+                j++;
+            }
+            if (j == right.length || right[j] != left[i]) {
+                result[size] = left[i];
+                size++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Get the intersection of two sorted arrays.
+     *
+     * @param left  sorted indices
+     * @param right sorted indices
+     * @param size  size of the intersection
+     *
+     * @return the indices of left that are in right
+     */
+    private static int[] intersection(final int[] left, final int[] right, final int size) {
+        int[] result = new int[size];
+        int index = 0;
+        int j = 0;
+        for (int i = 0; i < left.length && index < size; i++) {
+            while (j < right.length && right[j] < left[i]) {
+                j++;
+            }
+            if (j < right.length && right[j] == left[i]) {
+                result[index] = left[i];
+                index++;
+            }
+        }
+        return result;
+    }
+}
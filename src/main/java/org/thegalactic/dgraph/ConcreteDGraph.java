@@ -353,6 +353,7 @@ public class ConcreteDGraph<N, E> extends AbstractDGraph<N, E> implements Clonea
             this.nodes.add(node);
             this.successors.put(node, new TreeSet<Edge<N, E>>());
             this.predecessors.put(node, new TreeSet<Edge<N, E>>());
+            this.nodeAdded(node);
             return true;
         }
         return false;
@@ -370,27 +371,30 @@ public class ConcreteDGraph<N, E> extends AbstractDGraph<N, E> implements Clonea
             // Remove the edges (node,target) with key node in successors, and key target in predecessors
             for (final Edge<N, E> successor : this.successors.get(node)) {
                 if (successor.getTarget().compareTo(node) != 0) {
-                    for (final Edge<N, E> predecessor : this.predecessors.get(successor.getTarget())) {
-                        if (predecessor.getSource().compareTo(node) == 0) {
-                            this.predecessors.get(successor.getTarget()).remove(predecessor);
+                    final Iterator<Edge<N, E>> iterator = this.predecessors.get(successor.getTarget()).iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next().getSource().compareTo(node) == 0) {
+                            iterator.remove();
                         }
                     }
                 }
-                this.successors.remove(node);
             }
+            this.successors.remove(node);
             // Remove the edges (source,node) with key node in predecessors, and key source in successors
             for (final Edge<N, E> predecessor : this.predecessors.get(node)) {
                 if (predecessor.getSource().compareTo(node) != 0) {
-                    for (final Edge<N, E> successor : this.successors.get(predecessor.getSource())) {
-                        if (successor.getTarget().compareTo(node) == 0) {
-                            this.successors.get(predecessor.getSource()).remove(successor);
+                    final Iterator<Edge<N, E>> iterator = this.successors.get(predecessor.getSource()).iterator();
+                    while (iterator.hasNext()) {
+                        if (iterator.next().getTarget().compareTo(node) == 0) {
+                            iterator.remove();
                         }
                     }
                 }
-                this.predecessors.remove(node);
             }
+            this.predecessors.remove(node);
             // Remove node
             this.nodes.remove(node);
+            this.nodeRemoved(node);
             return true;
         }
         return false;
@@ -762,6 +766,28 @@ public class ConcreteDGraph<N, E> extends AbstractDGraph<N, E> implements Clonea
         return cc;
     }
 
+    /**
+     * Notifies that a node has been added by {@link #addNode}.
+     *
+     * This implementation does nothing. Subclasses maintaining indexes of
+     * their nodes override it.
+     *
+     * @param node the added node
+     */
+    protected void nodeAdded(final Node<N> node) {
+    }
+
+    /**
+     * Notifies that a node has been removed by {@link #removeNode}.
+     *
+     * This implementation does nothing. Subclasses maintaining indexes of
+     * their nodes override it.
+     *
+     * @param node the removed node
+     */
+    protected void nodeRemoved(final Node<N> node) {
+    }
+
     /**
      * Set the set of nodes of this component.
      *
@@ -11,6 +11,8 @@ package org.thegalactic.dgraph;
  * This file is part of java-lattices.
  * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
  */
+import java.util.concurrent.atomic.AtomicInteger;
+
 /**
  * This class gives a standard representation for a node of a graph.
  *
@@ -51,9 +53,10 @@ public class Node<N> implements Comparable<Node<N>>, Cloneable {
      * The total number of nodes.
      *
      * Initialised to 0, it is incremented by the constructor, and used to
-     * inialize the identifier.
+     * inialize the identifier. It is atomic so that nodes can be created
+     * concurrently with unique identifiers.
      */
-    private static int count;
+    private static final AtomicInteger COUNT = new AtomicInteger();
 
     /*
      * ------------- CONSTRUCTORS ------------------
@@ -61,20 +64,20 @@ public class Node<N> implements Comparable<Node<N>>, Cloneable {
     /**
      * Constructs a new node containing the specified content.
      *
-     * Identifier of this node is initalized with the `count` variable which is
+     * Identifier of this node is initalized with the `COUNT` counter which is
      * the incremented.
      *
      * @param content Content for this node
      */
     public Node(final N content) {
-        this.identifier = ++count;
+        this.identifier = COUNT.incrementAndGet();
         this.content = content;
     }
 
     /**
      * Constructs a new node with a null content.
      *
-     * Identifier of this node is initalized with the `count` variable which is
+     * Identifier of this node is initalized with the `COUNT` counter which is
      * the incremented.
      */
     public Node() {
@@ -155,7 +158,7 @@ public class Node<N> implements Comparable<Node<N>>, Cloneable {
     @Override
     public Node clone() throws CloneNotSupportedException {
         final Node node = (Node) super.clone();
-        node.identifier = ++count;
+        node.identifier = COUNT.incrementAndGet();
         return node;
     }
 
@@ -0,0 +1,36 @@
+package org.thegalactic.io;
+
+/*
+ * ChannelReader.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+
+/**
+ * This interface defines a way for reading an element directly from a file
+ * channel, for example by memory-mapping the file.
+ *
+ * {@link Filer} uses it instead of {@link Reader#read} when a registered reader
+ * implements it.
+ *
+ * @param <E> The class of elements to read.
+ */
+public interface ChannelReader<E> extends Reader<E> {
+
+    /**
+     * Read an element from a file channel.
+     *
+     * @param e       an element to read
+     * @param channel a file channel opened for reading
+     *
+     * @throws IOException When an IOException occurs
+     */
+    void read(E e, FileChannel channel) throws IOException;
+}
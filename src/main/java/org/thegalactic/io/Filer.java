@@ -13,9 +13,12 @@ package org.thegalactic.io;
  */
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 
 /**
  * This class is used to provide a generic way for saving and parsing objects
@@ -64,6 +67,9 @@ public final class Filer<E> {
     /**
      * Save the description of this component in a file whose name is specified.
      *
+     * The file is given as a channel to writers implementing
+     * {@link ChannelWriter}.
+     *
      * @param e        the element to save
      * @param factory  the reader/writer factory
      * @param filename the name of the file
@@ -71,15 +77,28 @@ public final class Filer<E> {
      * @throws IOException When an IOException occurs
      */
     public void save(final E e, final IOFactory factory, final String filename) throws IOException {
-        final BufferedWriter file = new BufferedWriter(new FileWriter(filename));
-        factory.getWriter(Filer.getExtension(filename)).write(e, file);
-        file.close();
+        final Writer writer = factory.getWriter(Filer.getExtension(filename));
+        if (writer instanceof ChannelWriter) {
+            final FileChannel channel = new FileOutputStream(filename).getChannel();
+            try {
+                ((ChannelWriter<E>) writer).write(e, channel);
+            } finally {
+                channel.close();
+            }
+        } else {
+            final BufferedWriter file = new BufferedWriter(new FileWriter(filename));
+            writer.write(e, file);
+            file.close();
+        }
     }
 
     /**
      * Parse the description of this component from a file whose name is
      * specified.
      *
+     * The file is given as a channel to readers implementing
+     * {@link ChannelReader}.
+     *
      * @param e        the element to parse
      * @param factory  the reader/writer factory
      * @param filename the name of the file
@@ -87,8 +106,18 @@ public final class Filer<E> {
      * @throws IOException When an IOException occurs
      */
     public void parse(final E e, final IOFactory factory, final String filename) throws IOException {
-        final BufferedReader file = new BufferedReader(new FileReader(filename));
-        factory.getReader(Filer.getExtension(filename)).read(e, file);
-        file.close();
+        final Reader reader = factory.getReader(Filer.getExtension(filename));
+        if (reader instanceof ChannelReader) {
+            final FileChannel channel = new FileInputStream(filename).getChannel();
+            try {
+                ((ChannelReader<E>) reader).read(e, channel);
+            } finally {
+                channel.close();
+            }
+        } else {
+            final BufferedReader file = new BufferedReader(new FileReader(filename));
+            reader.read(e, file);
+            file.close();
+        }
     }
 }
@@ -0,0 +1,226 @@
+package org.thegalactic.lattice;
+
+/*
+ * ClosureCache.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Bounded cache of closures, evicting the least recently used entry.
+ *
+ * Keys are copies of the closed sets with their hash code computed once, so
+ * that a lookup hashes the requested set once and compares it only to the
+ * sets of the same hash. Closures are copied when stored and when returned so
+ * that callers cannot modify the cache. All methods are synchronized.
+ *
+ * A cache is attached to a closure system by
+ * {@link ClosureSystem#setClosureCache} and used by
+ * {@link ClosureSystem#cachedClosure}.
+ */
+public final class ClosureCache {
+
+    /**
+     * Initial capacity of the map.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Load factor of the map.
+     */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /**
+     * Maximal number of entries.
+     */
+    private final int capacity;
+
+    /**
+     * Entries in access order.
+     */
+    private final LinkedHashMap<Key, TreeSet<Comparable>> entries;
+
+    /**
+     * Number of successful lookups.
+     */
+    private long hits;
+
+    /**
+     * Number of failed lookups.
+     */
+    private long misses;
+
+    /**
+     * Factory method to construct an empty cache.
+     *
+     * @param capacity maximal number of entries, strictly positive
+     *
+     * @return a new ClosureCache object
+     */
+    public static ClosureCache create(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Cache capacity must be positive");
+        }
+        return new ClosureCache(capacity);
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param capacity maximal number of entries
+     */
+    private ClosureCache(final int capacity) {
+        this.capacity = capacity;
+        this.entries = new LinkedHashMap<Key, TreeSet<Comparable>>(INITIAL_CAPACITY, LOAD_FACTOR, true) {
+            /**
+             * Remove the least recently used entry when the cache is full.
+             *
+             * @param eldest the least recently used entry
+             *
+             * @return true if the entry has to be removed
+             */
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<Key, TreeSet<Comparable>> eldest) {
+                return this.size() > ClosureCache.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Returns the closure of a set if it is cached.
+     *
+     * @param set a set
+     *
+     * @return a copy of the closure or null if it is not cached
+     */
+    public synchronized TreeSet<Comparable> get(final TreeSet<Comparable> set) {
+        TreeSet<Comparable> closure = this.entries.get(new Key(set));
+        if (closure == null) {
+            this.misses++;
+            return null;
+        }
+        this.hits++;
+        return new TreeSet<Comparable>(closure);
+    }
+
+    /**
+     * Stores the closure of a set.
+     *
+     * @param set     a set
+     * @param closure its closure
+     *
+     * @return this for chaining.
+     */
+    public synchronized ClosureCache put(final TreeSet<Comparable> set, final TreeSet<Comparable> closure) {
+        this.entries.put(new Key(new TreeSet<Comparable>(set)), new TreeSet<Comparable>(closure));
+        return this;
+    }
+
+    /**
+     * Removes all the entries.
+     *
+     * The hit and miss counters are kept.
+     *
+     * @return this for chaining.
+     */
+    public synchronized ClosureCache clear() {
+        this.entries.clear();
+        return this;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the maximal number of entries.
+     *
+     * @return the capacity
+     */
+    public int getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of successful lookups.
+     *
+     * @return the number of hits
+     */
+    public synchronized long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of failed lookups.
+     *
+     * @return the number of misses
+     */
+    public synchronized long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Set with a precomputed hash code.
+     */
+    private static final class Key {
+
+        /**
+         * The set.
+         */
+        private final TreeSet<Comparable> set;
+
+        /**
+         * Hash code of the set.
+         */
+        private final int hash;
+
+        /**
+         * Constructs a key.
+         *
+         * @param set a set, not modified while the key is used
+         */
+        Key(final TreeSet<Comparable> set) {
+            this.set = set;
+            this.hash = set.hashCode();
+        }
+
+        /**
+         * Returns the hash code of the set.
+         *
+         * @return the hash code
+         */
+        @Override
+        public int hashCode() {
+            return this.hash;
+        }
+
+        /**
+         * Compares the sets of two keys.
+         *
+         * @param object an object
+         *
+         * @return true if the object is a key of an equal set
+         */
+        @Override
+        public boolean equals(final Object object) {
+            if (!(object instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) object;
+            return this.hash == other.hash && this.set.equals(other.set);
+        }
+    }
+}
@@ -12,14 +12,19 @@ package org.thegalactic.lattice;
  * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
  */
 import java.io.IOException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
 
 import org.thegalactic.dgraph.DAGraph;
 import org.thegalactic.dgraph.ConcreteDGraph;
 import org.thegalactic.dgraph.Node;
+import org.thegalactic.rule.ImplicationalSystem;
+import org.thegalactic.rule.Rule;
 import org.thegalactic.util.ComparableSet;
 
 /**
@@ -58,6 +63,11 @@ import org.thegalactic.util.ComparableSet;
  */
 public abstract class ClosureSystem {
 
+    /**
+     * Optional cache of closures.
+     */
+    private ClosureCache closureCache;
+
     /*
      * ------------- ABSTRACT METHODS ------------------
      */
@@ -89,6 +99,71 @@ public abstract class ClosureSystem {
     /*
      * ------------- IMPLEMENTED METHODS ------------------
      */
+    /**
+     * Attaches a bounded cache of closures to this component.
+     *
+     * The cache is used by {@link #cachedClosure} and emptied each time this
+     * component is modified. A capacity lower or equal to 0 removes the cache.
+     *
+     * @param capacity maximal number of cached closures
+     *
+     * @return this for chaining
+     */
+    public ClosureSystem setClosureCache(int capacity) {
+        if (capacity > 0) {
+            this.closureCache = ClosureCache.create(capacity);
+        } else {
+            this.closureCache = null;
+        }
+        return this;
+    }
+
+    /**
+     * Returns the cache of closures of this component.
+     *
+     * @return the cache or null if closures are not cached
+     */
+    public ClosureCache getClosureCache() {
+        return this.closureCache;
+    }
+
+    /**
+     * Returns the closure of the specified set, using the cache of closures
+     * if any.
+     *
+     * Algorithms computing the closures of the same sets many times, such as
+     * the generation of immediate successors, call this method instead of
+     * {@link #closure}.
+     *
+     * @param set The specified set
+     *
+     * @return The closure
+     */
+    public TreeSet<Comparable> cachedClosure(TreeSet<Comparable> set) {
+        ClosureCache cache = this.closureCache;
+        if (cache == null) {
+            return this.closure(set);
+        }
+        TreeSet<Comparable> closure = cache.get(set);
+        if (closure == null) {
+            closure = this.closure(set);
+            cache.put(set, closure);
+        }
+        return closure;
+    }
+
+    /**
+     * Empties the cache of closures.
+     *
+     * This method has to be called by each method modifying the closure
+     * operator of this component.
+     */
+    protected void invalidateClosureCache() {
+        if (this.closureCache != null) {
+            this.closureCache.clear();
+        }
+    }
+
     /**
      * Returns the closed set lattice of this component.
      *
@@ -143,23 +218,62 @@ public abstract class ClosureSystem {
      */
     public Vector<Concept> allClosures() {
         Vector<Concept> allclosure = new Vector<Concept>();
-        // first closure: closure of the empty set
-        allclosure.add(new Concept(this.closure(new ComparableSet()), false));
-        Concept cl = allclosure.firstElement();
-        // next closures in lectically order
-        boolean continu = true;
-        do {
-            cl = this.nextClosure(cl);
-            if (allclosure.contains(cl)) {
-                continu = false;
-            } else {
-                allclosure.add(cl);
-            }
-        } while (continu);
-
+        Iterator<Concept> iterator = new ClosuresIterator();
+        while (iterator.hasNext()) {
+            allclosure.add(iterator.next());
+        }
         return allclosure;
     }
 
+    /**
+     * Returns an iterator over all the closed sets of the specified closure
+     * system, that computes them as they are consumed.
+     *
+     * This implementation runs the Next Closure algorithm, whose state is
+     * only the last closed set: closed sets can be counted, filtered or
+     * exported without being stored. Closure systems having a faster
+     * enumeration, such as contexts, override this method with an iterator
+     * keeping the frontier of their search tree.
+     *
+     * @return an iterator over the closed sets, starting with the closure of the empty set
+     */
+    public Iterator<Concept> closuresIterator() {
+        return new ClosuresIterator();
+    }
+
+    /**
+     * Returns all the closed sets of the specified closure system, in an order
+     * depending on the implementation.
+     *
+     * This implementation returns the closed sets generated by
+     * {@link #allClosures}. Closure systems having a faster enumeration, such
+     * as contexts, override this method.
+     *
+     * @return all the closed sets, starting with the closure of the empty set
+     */
+    public Vector<Concept> fastClosures() {
+        return this.allClosures();
+    }
+
+    /**
+     * Returns all the closed sets of the specified closure system, computed in
+     * parallel by the threads of a fork-join pool.
+     *
+     * This implementation returns the closed sets generated sequentially by
+     * {@link #allClosures}, that are already in the lectic order. Closure
+     * systems having a parallel enumeration, such as contexts, override this
+     * method.
+     *
+     * @param pool   a fork-join pool running the enumeration
+     * @param cutoff depth of the search tree under which subtrees are enumerated sequentially
+     * @param lectic true to return the closed sets in the lectic order, false for any order
+     *
+     * @return all the closed sets
+     */
+    public Vector<Concept> parallelClosures(ForkJoinPool pool, int cutoff, boolean lectic) {
+        return this.allClosures();
+    }
+
     /**
      * Returns the lecticaly next closed set of the specified one.
      *
@@ -196,6 +310,66 @@ public abstract class ClosureSystem {
         return new Concept(setA, false);
     }
 
+    /**
+     * Returns the canonical basis of this component, also known as the
+     * Duquenne-Guigues or stem basis.
+     *
+     * The rules of the canonical basis are P -> cl(P)\P for the pseudo-closed
+     * sets P of this component. They are computed by the algorithm of Ganter:
+     * the sets closed for the rules already found are enumerated in the lectic
+     * order with the Next Closure algorithm, and each one that is not closed
+     * for this component is a pseudo-closed set, whose rule is added to the
+     * basis.
+     *
+     * Neither the closed sets lattice nor the closed sets are generated: only
+     * the current set and the basis are kept in memory, closures for the basis
+     * being computed by {@link ImplicationalSystem#closure}. This treatment is
+     * performed in O((c+p)|S|(Cl+Cl')) where c is the number of closed sets, p
+     * the number of pseudo-closed sets, Cl the closure computation complexity
+     * of this component and Cl' the one of the basis.
+     *
+     * @return the canonical basis of this component
+     */
+    public ImplicationalSystem canonicalBasis() {
+        ImplicationalSystem basis = new ImplicationalSystem();
+        basis.addAllElements(new TreeSet<Comparable>(this.getSet()));
+        Comparable[] elements = basis.getSet().toArray(new Comparable[basis.sizeElements()]);
+        TreeSet<Comparable> setA = basis.closure(new TreeSet<Comparable>());
+        while (setA != null) {
+            TreeSet<Comparable> closure = this.closure(setA);
+            if (closure.size() > setA.size()) {
+                closure.removeAll(setA);
+                basis.addRule(new Rule(setA, closure));
+            }
+            setA = nextClosure(basis, elements, setA);
+        }
+        return basis;
+    }
+
+    /**
+     * Returns the lecticaly next set closed for an implicational system.
+     *
+     * @param basis    an implicational system
+     * @param elements elements of the implicational system in their natural order
+     * @param setA     a set closed for the implicational system
+     *
+     * @return the lecticaly next closed set, null if setA contains all the elements
+     */
+    private static TreeSet<Comparable> nextClosure(ImplicationalSystem basis, Comparable[] elements, TreeSet<Comparable> setA) {
+        TreeSet<Comparable> prefix = new TreeSet<Comparable>(setA);
+        for (int i = elements.length - 1; i >= 0; i--) {
+            if (!prefix.remove(elements[i])) {
+                TreeSet<Comparable> candidate = new TreeSet<Comparable>(prefix);
+                candidate.add(elements[i]);
+                candidate = basis.closure(candidate);
+                if (candidate.headSet(elements[i]).size() == prefix.size()) {
+                    return candidate;
+                }
+            }
+        }
+        return null;
+    }
+
     /**
      * Returns the precedence graph of this component.
      *
@@ -313,4 +487,59 @@ public abstract class ClosureSystem {
         // Finally, return the list of reducible elements with their equivalent attributes.
         return red;
     }
+
+    /**
+     * This class implements an iterator over the closed sets in the lectic
+     * order, computed by the Next Closure algorithm.
+     */
+    private class ClosuresIterator implements Iterator<Concept> {
+
+        /**
+         * The last closed set, null before the first one.
+         */
+        private Concept last;
+
+        /**
+         * The hasNext method return true if the iterator has a next closed set.
+         *
+         * The whole set is the last closed set in the lectic order: the
+         * enumeration stops there instead of wrapping around to the empty set,
+         * that is not closed when the closure of the empty set is not empty.
+         *
+         * @return true if the iterator has a next closed set
+         */
+        @Override
+        public boolean hasNext() {
+            return this.last == null || this.last.getSetA().size() < ClosureSystem.this.getSet().size();
+        }
+
+        /**
+         * The next method returns the lecticaly next closed set.
+         *
+         * @return the next closed set
+         */
+        @Override
+        public Concept next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (this.last == null) {
+                // first closure: closure of the empty set
+                this.last = new Concept(ClosureSystem.this.closure(new ComparableSet()), false);
+            } else {
+                this.last = ClosureSystem.this.nextClosure(this.last);
+            }
+            return this.last;
+        }
+
+        /**
+         * The remove operation is not supported.
+         *
+         * @throws UnsupportedOperationException
+         */
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -602,6 +602,24 @@ public class Concept extends Node {
      * @return the list of immediate successors of this component.
      */
     public ArrayList<TreeSet<Comparable>> immediateSuccessors(ClosureSystem init) {
+        return this.immediateSuccessors(init, new Precedence(init));
+    }
+
+    /**
+     * Returns the list of immediate successors of a given node of the lattice,
+     * using the precedence relation of the closure system.
+     *
+     * The precedence relation only depends on the closure system, it can be
+     * computed once for all the concepts whose immediate successors are
+     * generated.
+     *
+     * @param init       closure system used to compute immediate successors of
+     *                   this component.
+     * @param precedence the precedence relation of the closure system
+     *
+     * @return the list of immediate successors of this component.
+     */
+    public ArrayList<TreeSet<Comparable>> immediateSuccessors(ClosureSystem init, Precedence precedence) {
         // Initialisation of the dependance graph when not initialised by method recursiveDiagramLattice
         ConcreteDGraph<Comparable, ?> dependenceGraph = new ConcreteDGraph<Comparable, Object>();
         for (Comparable c : init.getSet()) {
@@ -612,37 +630,7 @@ public class Concept extends Node {
         // For a non reduced closure system, the precedence graph is not acyclic,
         // and therefore strongly connected components have to be used.
         ComparableSet f = new ComparableSet(this.getSetA());
-        long start = System.currentTimeMillis();
-        System.out.print("Precedence graph... ");
-        ConcreteDGraph prec = init.precedenceGraph();
-        System.out.println(System.currentTimeMillis() - start + "ms");
-        start = System.currentTimeMillis();
-        System.out.print("Srongly connected component... ");
-        DAGraph<SortedSet<Node<Comparable>>, ?>  acyclPrec = prec.getStronglyConnectedComponent();
-        System.out.println(System.currentTimeMillis() - start + "ms");
-        ComparableSet newVal = new ComparableSet();
-        newVal.addAll(f);
-        for (Object x : f) {
-            // computes nx, the strongly connected component containing x
-            Node<SortedSet<Node<Comparable>>> nx = null;
-            for (Node cc : acyclPrec.getNodes()) {
-                TreeSet<Node> cC = (TreeSet<Node>) cc.getContent();
-                for (Node y : cC) {
-                    if (x.equals(y.getContent())) {
-                        nx = cc;
-                    }
-                }
-            }
-            // computes the minorants of nx in the acyclic graph
-            SortedSet<Node<SortedSet<Node<Comparable>>>> ccMinNx = acyclPrec.minorants(nx);
-            // removes from newVal every minorants of nx
-            for (Node cc : ccMinNx) {
-                TreeSet<Node> cC = (TreeSet<Node>) cc.getContent();
-                for (Node y : cC) {
-                    newVal.remove(y.getContent());
-                }
-            }
-        }
+        ComparableSet newVal = precedence.valuation(f);
         // computes the node belonging in S\F
         Set<Node<Comparable>> n = new TreeSet<Node<Comparable>>();
         for (Node in : dependenceGraph.getNodes()) {
@@ -650,8 +638,6 @@ public class Concept extends Node {
                 n.add(in);
             }
         }
-        System.out.print("Dependance... ");
-        start = System.currentTimeMillis();
         // computes the dependance relation between nodes in S\F
         // and valuated this relation by the subset of S\F
         TreeSet<Edge> e = new TreeSet<Edge>();
@@ -662,7 +648,7 @@ public class Concept extends Node {
                     // i.e. "source" belongs to the closure of "F+target"
                     ComparableSet fPlusTo = new ComparableSet(f);
                     fPlusTo.add(target.getContent());
-                    fPlusTo = new ComparableSet(init.closure(fPlusTo));
+                    fPlusTo = new ComparableSet(init.cachedClosure(fPlusTo));
                     if (fPlusTo.contains(source.getContent())) {
                         // there is a dependance relation between source and target
                         // search for an existing edge between source and target
@@ -687,9 +673,6 @@ public class Concept extends Node {
                 }
             }
         }
-        System.out.println(System.currentTimeMillis() - start + "ms");
-        System.out.print("Subgraph... ");
-        start = System.currentTimeMillis();
         // computes the dependance subgraph of the closed set F as the reduction
         // of the dependance graph composed of nodes in S\A and edges of the dependance relation
         ConcreteDGraph sub = dependenceGraph.getSubgraphByNodes(n);
@@ -698,7 +681,6 @@ public class Concept extends Node {
         // that corresponds to successors of the closed set F
         DAGraph cfc = delta.getStronglyConnectedComponent();
         SortedSet<Node> sccmin = cfc.getSinks();
-        System.out.println(System.currentTimeMillis() - start + "ms");
         ArrayList<TreeSet<Comparable>> immSucc = new ArrayList<TreeSet<Comparable>>();
         for (Node n1 : sccmin) {
             TreeSet s = new TreeSet(f);
@@ -12,10 +12,16 @@ package org.thegalactic.lattice;
  * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
  */
 import org.thegalactic.context.Context;
+import org.thegalactic.context.storage.TidSet;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.SortedSet;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
 import java.io.IOException;
 import java.util.List;
 
@@ -64,6 +70,19 @@ import org.thegalactic.lattice.io.ConceptLatticeIOFactory;
  */
 public class ConceptLattice extends Lattice {
 
+    /**
+     * Concepts of this lattice indexed by their set A, built on demand and
+     * null when not built. The index is a concurrent map, so that concepts
+     * generated concurrently are found and indexed without lock.
+     */
+    private ConcurrentHashMap<TreeSet<Comparable>, Concept> index;
+
+    /**
+     * Closure system whose dependance graph has to be generated again when it
+     * is requested, null when the dependance graph is up to date.
+     */
+    private ClosureSystem staleDependencyGraph;
+
     /**
      * Generate the lattice composed of all the antichains of this component
      * ordered with the inclusion relation.
@@ -105,15 +124,8 @@ public class ConceptLattice extends Lattice {
                 conceptLattice.addNode(newJ);
             }
         }
-        // computation of the inclusion relaton
-        for (Object node1 : conceptLattice.getNodes()) {
-            for (Object node2 : conceptLattice.getNodes()) {
-                if (((Concept) node1).containsAllInA(((Concept) node2).getSetA())) {
-                    conceptLattice.addEdge((Node) node2, (Node) node1);
-                }
-            }
-        }
-        conceptLattice.transitiveReduction();
+        // computation of the cover relation, ideals being closed under intersection
+        new CoverRelation(conceptLattice).run();
         return conceptLattice;
     }
 
@@ -135,22 +147,113 @@ public class ConceptLattice extends Lattice {
      * @return a concept lattice
      */
     public static ConceptLattice completeLattice(ClosureSystem init) {
+        return completeLattice(init, false);
+    }
+
+    /**
+     * Generates and returns the complete (i.e. transitively closed) closed set
+     * lattice of the specified closure system, selecting the enumeration of
+     * the closures.
+     *
+     * When `fast` is true, closures are generated by
+     * {@link ClosureSystem#fastClosures}, that implements the FCbO algorithm
+     * on the bit sets of a context, otherwise by
+     * {@link ClosureSystem#allClosures}. Then, all concepts are ordered by
+     * inclusion.
+     *
+     * @param init a closure system (an ImplicationalSystem or a Context)
+     * @param fast a boolean indicating if the fast enumeration is used
+     *
+     * @return a concept lattice
+     */
+    public static ConceptLattice completeLattice(ClosureSystem init, boolean fast) {
+        // compute all the closed set with allClosures or fastClosures
+        if (fast) {
+            return completeLattice(init.fastClosures());
+        }
+        return completeLattice(init.allClosures());
+    }
+
+    /**
+     * Generates and returns the complete (i.e. transitively closed) closed set
+     * lattice of the specified closure system, whose closures are enumerated
+     * in parallel.
+     *
+     * Closures are generated by {@link ClosureSystem#parallelClosures} with
+     * the specified pool and depth cutoff. Then, all concepts are ordered by
+     * inclusion.
+     *
+     * @param init   a closure system (an ImplicationalSystem or a Context)
+     * @param pool   a fork-join pool running the enumeration
+     * @param cutoff depth of the search tree under which subtrees are enumerated sequentially
+     *
+     * @return a concept lattice
+     */
+    public static ConceptLattice completeLattice(ClosureSystem init, ForkJoinPool pool, int cutoff) {
+        return completeLattice(init.parallelClosures(pool, cutoff, false));
+    }
+
+    /**
+     * Generates and returns the complete (i.e. transitively closed) closed set
+     * lattice of the specified closures.
+     *
+     * The Hasse diagram is computed by {@link CoverRelation}, then closed by
+     * transitivity and reflexivity.
+     *
+     * @param allclosure all the closures of a closure system
+     *
+     * @return a concept lattice
+     */
+    private static ConceptLattice completeLattice(Vector<Concept> allclosure) {
+        ConceptLattice lattice = coverLattice(allclosure);
+        lattice.transitiveClosure();
+        lattice.reflexiveClosure();
+        return lattice;
+    }
+
+    /**
+     * Generates and returns the Hasse diagram of the closed set lattice of the
+     * specified closure system, selecting the enumeration of the closures.
+     *
+     * Closures are generated as by {@link #completeLattice(ClosureSystem, boolean)}.
+     * Then, the cover relation is computed by the iPred algorithm on bit sets
+     * instead of comparing all the pairs of closures. The complete lattice is
+     * obtained on demand with {@link #transitiveClosure} and
+     * {@link #reflexiveClosure}.
+     *
+     * @param init a closure system (an ImplicationalSystem or a Context)
+     * @param fast a boolean indicating if the fast enumeration is used
+     *
+     * @return a concept lattice
+     */
+    public static ConceptLattice coverLattice(ClosureSystem init, boolean fast) {
+        if (fast) {
+            return coverLattice(init.fastClosures());
+        }
+        return coverLattice(init.allClosures());
+    }
+
+    /**
+     * Generates and returns the Hasse diagram of the closed set lattice of
+     * the specified closures.
+     *
+     * The closures, as sets A of the concepts, must be closed under
+     * intersection, as all the closures of a closure system or its frequent
+     * closures.
+     *
+     * @param allclosure all the closures of a closure system
+     *
+     * @return a concept lattice
+     *
+     * @throws IllegalArgumentException if the closures are not closed under intersection
+     */
+    public static ConceptLattice coverLattice(Vector<Concept> allclosure) {
         ConceptLattice lattice = new ConceptLattice();
-        // compute all the closed set with allClosures
-        Vector<Concept> allclosure = init.allClosures();
         for (Concept cl : allclosure) {
             lattice.addNode(cl);
         }
-
-        // an edge corresponds to an inclusion between two closed sets
-        for (Object source : lattice.getNodes()) {
-            for (Object target : lattice.getNodes()) {
-                if (((Concept) target).containsAllInA(((Concept) source).getSetA())) {
-                    lattice.addEdge((Node) source, (Node) target);
-                }
-            }
-        }
-        // Hasse diagram is computed
+        // an edge corresponds to a cover between two closed sets
+        new CoverRelation(lattice).run();
         return lattice;
     }
 
@@ -177,6 +280,24 @@ public class ConceptLattice extends Lattice {
      * @return a concept lattice
      */
     public static ConceptLattice diagramLattice(ClosureSystem init) {
+        return diagramLattice(init, null);
+    }
+
+    /**
+     * Generates and returns the Hasse diagram of the closed set lattice of the
+     * specified closure system, whose immediate successors are computed by the
+     * threads of the specified executor.
+     *
+     * The generation is the one of {@link #diagramLattice(ClosureSystem)},
+     * immediate successors of different concepts being computed concurrently,
+     * and gives the same lattice and dependance graph.
+     *
+     * @param init     a closure system (an ImplicationalSystem or a Context)
+     * @param executor an executor running the generation, or null to run it in the calling thread
+     *
+     * @return a concept lattice
+     */
+    public static ConceptLattice diagramLattice(ClosureSystem init, ExecutorService executor) {
         ConceptLattice lattice = new ConceptLattice();
         //if (Diagram) {
         // computes the dependance graph of the closure system
@@ -189,8 +310,12 @@ public class ConceptLattice extends Lattice {
         // intialize the close set lattice with botom element
         Concept bot = new Concept(init.closure(new ComparableSet()), false);
         lattice.addNode(bot);
-        // recursive genaration from the botom element with diagramLattice
-        lattice.recursiveDiagramLattice(bot, init);
+        // genaration from the botom element with diagramLattice
+        if (executor == null) {
+            lattice.recursiveDiagramLattice(bot, init);
+        } else {
+            lattice.recursiveDiagramLattice(bot, init, executor);
+        }
         // minimalisation of edge's content to get only inclusion-minimal valuation for each edge
         /**
          * for (Edge ed : lattice.dependanceGraph.getEdges()) {
@@ -240,8 +365,18 @@ public class ConceptLattice extends Lattice {
         Concept bot = new Concept(init.closure(new ComparableSet()), false);
         lattice.addNode(bot);
         int threshold = (int) (support * init.getExtent(bot.getSetA()).size());
+        // tid-lists of the frequent elements that can be added to the bottom element
+        TreeMap<Comparable, TidSet> extensions = new TreeMap<Comparable, TidSet>();
+        for (Comparable x : init.getSet()) {
+            if (!bot.getSetA().contains(x)) {
+                TidSet tids = init.getTidSet(x);
+                if (tids.support() >= threshold) {
+                    extensions.put(x, tids);
+                }
+            }
+        }
         // recursive genaration from the botom element with diagramLattice
-        lattice.recursiveDiagramIceberg(bot, init, threshold);
+        lattice.recursiveDiagramIceberg(bot, init, new Precedence(init), threshold, extensions);
         return lattice;
     }
 
@@ -381,6 +516,31 @@ public class ConceptLattice extends Lattice {
     /*
      * ------------- SET A AND SET B HANDLING METHOD ------------------
      */
+    /**
+     * Returns the concept whose set A is setA; null if not found.
+     *
+     * Concepts are found in a hash index of their set A, built at the first
+     * call and maintained when nodes are added to or removed from this
+     * lattice, or when sets A are modified by the methods of this lattice.
+     * A concept whose set A has been modified in place since it was indexed
+     * may not be found.
+     *
+     * @param setA set A of the concept to find
+     *
+     * @return concept whose set A is setA; null if not found.
+     */
+    public Concept getConcept(TreeSet<Comparable> setA) {
+        if (this.index == null) {
+            this.buildIndex();
+        }
+        Concept cpt = this.index.get(setA);
+        if (cpt != null && (!this.containsNode(cpt) || !setA.equals(cpt.getSetA()))) {
+            this.buildIndex();
+            cpt = this.index.get(setA);
+        }
+        return cpt;
+    }
+
     /**
      * Returns concept defined by setA and setB; null if not found.
      *
@@ -390,9 +550,13 @@ public class ConceptLattice extends Lattice {
      * @return concept defined by setA and setB; null if not found.
      */
     public Concept getConcept(ComparableSet setA, ComparableSet setB) {
-        SortedSet<Node> setNodes = this.getNodes();
-        Concept cpt = null;
-        for (Node node : setNodes) {
+        Concept cpt = this.getConcept(setA);
+        if (cpt != null && setB.equals(cpt.getSetB())) {
+            return cpt;
+        }
+        // several concepts may share set A in a lattice that is not a concept lattice
+        cpt = null;
+        for (Object node : this.getNodes()) {
             if ((setA.equals(((Concept) node).getSetA())) && (setB.equals(((Concept) node).getSetB()))) {
                 cpt = (Concept) node;
             }
@@ -400,6 +564,71 @@ public class ConceptLattice extends Lattice {
         return cpt;
     }
 
+    /**
+     * Adds a concept to the index of set A when it is built.
+     *
+     * @param node the added node
+     */
+    @Override
+    protected final void nodeAdded(final Node node) {
+        if (this.index != null && node instanceof Concept && ((Concept) node).hasSetA()) {
+            this.index.put(new TreeSet<Comparable>(((Concept) node).getSetA()), (Concept) node);
+        }
+    }
+
+    /**
+     * Removes a concept from the index of set A when it is built.
+     *
+     * @param node the removed node
+     */
+    @Override
+    protected final void nodeRemoved(final Node node) {
+        if (this.index != null && node instanceof Concept && ((Concept) node).hasSetA()) {
+            TreeSet<Comparable> setA = ((Concept) node).getSetA();
+            if (this.index.get(setA) == node) {
+                this.index.remove(setA);
+            }
+        }
+    }
+
+    /**
+     * Returns the concept of the index of set A having the set A of the
+     * specified concept, or indexes the specified concept when there is none.
+     *
+     * Lookup and insertion are a single atomic operation of the concurrent
+     * index, so that a closed set generated by several threads gets one
+     * concept without any lock. The concept still has to be added to this
+     * lattice when it is indexed.
+     *
+     * @param concept a concept with a set A
+     *
+     * @return the concept already indexed, or null if the specified concept has been indexed
+     */
+    Concept indexIfAbsent(Concept concept) {
+        this.prepareIndex();
+        return this.index.putIfAbsent(concept.getSetA(), concept);
+    }
+
+    /**
+     * Builds the index of set A when it is not built, before it is shared by
+     * the threads of a generation.
+     */
+    void prepareIndex() {
+        if (this.index == null) {
+            this.buildIndex();
+        }
+    }
+
+    /**
+     * Builds the index of set A from the nodes of this lattice.
+     */
+    private void buildIndex() {
+        this.index = new ConcurrentHashMap<TreeSet<Comparable>, Concept>();
+        for (Object node : this.getNodes()) {
+            this.nodeAdded((Node) node);
+        }
+    }
+
     /**
      * Replace set A in each concept of the lattice with the null value.
      *
@@ -415,6 +644,7 @@ public class ConceptLattice extends Lattice {
             Concept c = (Concept) node;
             c.putSetA(null);
         }
+        this.index = null;
         return true;
     }
 
@@ -457,6 +687,7 @@ public class ConceptLattice extends Lattice {
                 c.putSetA(setX);
             }
         }
+        this.index = null;
         return true;
     }
 
@@ -520,6 +751,7 @@ public class ConceptLattice extends Lattice {
                     cto.getSetA().removeAll(csource.getSetA());
                 }
             }
+            this.index = null;
         }
         // makes setB inclusion reduction
         if (setB) {
@@ -563,6 +795,7 @@ public class ConceptLattice extends Lattice {
                     c.putSetB(new ComparableSet());
                 }
             }
+            this.index = null;
         }
         return true;
     }
@@ -799,23 +1032,31 @@ public class ConceptLattice extends Lattice {
      * in the worst case, Cl is the closure computation complexity and g is the
      * number of minimal generators of the lattice.
      *
+     * Concepts are generated from a worklist, so that the depth of the
+     * lattice does not consume the stack.
+     *
      * @param n    a concept
      * @param init a closure system
      */
     public void recursiveDiagramLattice(Concept n, ClosureSystem init) {
-        Vector<TreeSet<Comparable>> immSucc = this.immediateSuccessors(n, init);
-        for (TreeSet<Comparable> setX : immSucc) {
-            Concept c = new Concept(new TreeSet(setX), false);
-            Concept ns = (Concept) this.getNode(c);
-            if (ns != null) {
-                // when ns already exists, addition of a new edge
-                this.addEdge(n, ns);
-            } else { // when ns don't already exists, addition of a new node and recursive treatment
-                this.addNode(c);
-                this.addEdge(n, c);
-                this.recursiveDiagramLattice(c, init);
-            }
-        }
+        new DiagramWorklist(this, init, new Precedence(init)).run(n);
+    }
+
+    /**
+     * Returns the Hasse diagramme of the closed set lattice of the specified
+     * closure system issued from the specified concept, computed by the
+     * threads of the specified executor.
+     *
+     * Immediate successors of different concepts are computed concurrently,
+     * each concept being a task of the executor. This method returns when the
+     * generation is finished.
+     *
+     * @param n        a concept
+     * @param init     a closure system
+     * @param executor an executor running the generation
+     */
+    public void recursiveDiagramLattice(Concept n, ClosureSystem init, ExecutorService executor) {
+        new DiagramWorklist(this, init, new Precedence(init)).run(n, executor);
     }
 
     /**
@@ -832,26 +1073,71 @@ public class ConceptLattice extends Lattice {
      * in the worst case, Cl is the closure computation complexity and g is the
      * number of minimal generators of the lattice.
      *
-     * @param n         a concept
-     * @param init      a closure system
-     * @param threshold a support threshold, as a number of observations
+     * The supports are computed vertically: the tid set of `F+x` is given for
+     * each frequent element x that can be added to the closed set `F` of the
+     * concept, and the tid sets of the successors are obtained by extending
+     * these sibling tid sets, as tid-lists or diffsets. The closure of `F+x`
+     * is the set of attributes shared by the rows of its tid set, so that the
+     * columns of `F` are never intersected again.
+     *
+     * @param n          a concept
+     * @param init       a context
+     * @param precedence the precedence relation of the closure system
+     * @param threshold  a support threshold, as a number of observations
+     * @param extensions tid sets of the frequent sets F+x, indexed by x
      */
-    private void recursiveDiagramIceberg(Concept n, ClosureSystem init, int threshold) {
-        Context context = (Context) init;
-        Vector<TreeSet<Comparable>> immSucc = this.immediateSuccessors(n, init);
+    private void recursiveDiagramIceberg(Concept n, Context init, Precedence precedence, int threshold,
+            TreeMap<Comparable, TidSet> extensions) {
+        TreeMap<Comparable, TreeSet<Comparable>> closures = new TreeMap<Comparable, TreeSet<Comparable>>();
+        for (Comparable x : extensions.keySet()) {
+            closures.put(x, init.getIntent(extensions.get(x)));
+        }
+        Vector<TreeSet<Comparable>> immSucc = this.immediateSuccessors(n, init, new TreeSet<Comparable>(extensions.keySet()), precedence, closures);
         for (TreeSet<Comparable> setX : immSucc) {
-            if (context.getExtentNb(setX) >= threshold) {
+            Concept ns = this.getConcept(setX);
+            if (ns != null) {
+                this.addEdge(n, ns);
+            } else {
                 Concept c = new Concept(new TreeSet(setX), false);
-                Concept ns = (Concept) this.getNode(c);
-                if (ns != null) {
-                    this.addEdge(n, ns);
-                } else {
-                    this.addNode(c);
-                    this.addEdge(n, c);
-                    this.recursiveDiagramIceberg(c, init, threshold);
+                this.addNode(c);
+                this.addEdge(n, c);
+                this.recursiveDiagramIceberg(c, init, precedence, threshold, extend(extensions, setX, threshold));
+            }
+        }
+    }
+
+    /**
+     * Returns the tid sets of the frequent sets that extend an immediate
+     * successor by one element.
+     *
+     * The successor is the closure of `F+x0` for any of its elements x0 not
+     * in `F`, so it has the tid set of `F+x0`, and the tid set of its union
+     * with an element y is the extension of this tid set by the one of `F+y`.
+     *
+     * @param extensions tid sets of the frequent sets F+x, indexed by x
+     * @param successor  closed set of an immediate successor of F
+     * @param threshold  a support threshold, as a number of observations
+     *
+     * @return tid sets of the frequent sets successor+y, indexed by y
+     */
+    private static TreeMap<Comparable, TidSet> extend(TreeMap<Comparable, TidSet> extensions, TreeSet<Comparable> successor, int threshold) {
+        TidSet tids = null;
+        for (Comparable x : successor) {
+            if (extensions.containsKey(x)) {
+                tids = extensions.get(x);
+                break;
+            }
+        }
+        TreeMap<Comparable, TidSet> result = new TreeMap<Comparable, TidSet>();
+        for (Comparable y : extensions.keySet()) {
+            if (!successor.contains(y)) {
+                TidSet extension = tids.extend(extensions.get(y));
+                if (extension.support() >= threshold) {
+                    result.put(y, extension);
                 }
             }
         }
+        return result;
     }
 
     /**
@@ -880,90 +1166,132 @@ public class ConceptLattice extends Lattice {
      * @return a set of immediate successors
      */
     public Vector<TreeSet<Comparable>> immediateSuccessors(Node n, ClosureSystem init) {
-        // Initialisation of the dependance graph when not initialised by method recursiveDiagramLattice
+        return this.immediateSuccessors(n, init, null);
+    }
+
+    /**
+     * Returns the list of immediate successors of a given node of the lattice
+     * obtained by adding elements of the specified candidates.
+     *
+     * Only candidates are nodes of the dependance subgraph, so no closure
+     * involving other elements is computed. When the closure of `F+x` only
+     * contains candidates for each candidate `x`, as for elements `x` such
+     * that `F+x` is frequent in an iceberg, the result is the set of immediate
+     * successors containing only candidates.
+     *
+     * @param n          a node
+     * @param init       a closure system
+     * @param candidates elements that may be added to the node, or null for all
+     *
+     * @return a set of immediate successors
+     */
+    public Vector<TreeSet<Comparable>> immediateSuccessors(Node n, ClosureSystem init, TreeSet<Comparable> candidates) {
+        return this.immediateSuccessors(n, init, candidates, new Precedence(init));
+    }
+
+    /**
+     * Returns the list of immediate successors of a given node of the lattice
+     * obtained by adding elements of the specified candidates, using the
+     * precedence relation of the closure system computed for a generation.
+     *
+     * @param n          a node
+     * @param init       a closure system
+     * @param candidates elements that may be added to the node, or null for all
+     * @param precedence the precedence relation of the closure system
+     *
+     * @return a set of immediate successors
+     */
+    public Vector<TreeSet<Comparable>> immediateSuccessors(Node n, ClosureSystem init, TreeSet<Comparable> candidates, Precedence precedence) {
+        return this.immediateSuccessors(n, init, candidates, precedence, null);
+    }
+
+    /**
+     * Returns the list of immediate successors of a given node of the lattice
+     * obtained by adding elements of the specified candidates, using the
+     * precedence relation of the closure system and the closures of the sets
+     * `F+x` when they are already known.
+     *
+     * @param n          a node
+     * @param init       a closure system
+     * @param candidates elements that may be added to the node, or null for all
+     * @param precedence the precedence relation of the closure system
+     * @param closures   closures of the sets F+x for the candidates x, or null to compute them with the closure system
+     *
+     * @return a set of immediate successors
+     */
+    private Vector<TreeSet<Comparable>> immediateSuccessors(Node n, ClosureSystem init, TreeSet<Comparable> candidates, Precedence precedence,
+            TreeMap<Comparable, TreeSet<Comparable>> closures) {
+        // Initialisation of the dependance graph when not initialised by method recursiveDiagramLattice,
+        // the lock is only taken before the first initialisation
         if (!this.hasDependencyGraph()) {
-            ConcreteDGraph graph = new ConcreteDGraph();
-            for (Comparable c : init.getSet()) {
-                graph.addNode(new Node(c));
+            synchronized (this) {
+                if (!this.hasDependencyGraph()) {
+                    ConcreteDGraph graph = new ConcreteDGraph();
+                    for (Comparable c : init.getSet()) {
+                        graph.addNode(new Node(c));
+                    }
+                    this.setDependencyGraph(graph);
+                }
             }
-            this.setDependencyGraph(graph);
         }
+        ConcreteDGraph dependencyGraph = this.getDependencyGraph();
         // computes newVal, the subset to be used to valuate every new dependance relation
         // newVal = F\predecessors of F in the precedence graph of the closure system
         // For a non reduced closure system, the precedence graph is not acyclic,
         // and therefore strongly connected components have to be used.
         ComparableSet setF = new ComparableSet(((Concept) n).getSetA());
-        ConcreteDGraph prec = init.precedenceGraph();
-        DAGraph acyclPrec = prec.getStronglyConnectedComponent();
-        ComparableSet newVal = new ComparableSet();
-        newVal.addAll(setF);
-        for (Object x : setF) {
-            // computes nx, the strongly connected component containing x
-            Node nx = null;
-            for (Object cc : acyclPrec.getNodes()) {
-                TreeSet<Node> setCC = (TreeSet<Node>) ((Node) cc).getContent();
-                for (Node y : setCC) {
-                    if (x.equals(y.getContent())) {
-                        nx = (Node) cc;
-                    }
-                }
+        ComparableSet newVal = precedence.valuation(setF);
+        // computes the dependance subgraph of the closed set F, composed of the nodes in S\F
+        // and of the edges of the dependance relation between them
+        ConcreteDGraph delta = new ConcreteDGraph();
+        for (Object in : dependencyGraph.getNodes()) {
+            Comparable content = (Comparable) ((Node) in).getContent();
+            if (!setF.contains(content) && (candidates == null || candidates.contains(content))) {
+                delta.addNode((Node) in);
             }
-            // computes the minorants of nx in the acyclic graph
-            SortedSet<Node> ccMinNx = acyclPrec.minorants(nx);
-            // removes from newVal every minorants of nx
-            for (Node cc : ccMinNx) {
-                TreeSet<Node> setCC = (TreeSet<Node>) cc.getContent();
-                for (Node y : setCC) {
-                    newVal.remove(y.getContent());
+        }
+        for (Object to : delta.getNodes()) {
+            Node target = (Node) to;
+            // "source" is in dependance relation with "target" when it belongs to the closure of "F+target"
+            ComparableSet fPlusTo;
+            if (closures == null) {
+                fPlusTo = new ComparableSet(setF);
+                fPlusTo.add(target.getContent());
+                fPlusTo = new ComparableSet(init.cachedClosure(fPlusTo));
+            } else {
+                fPlusTo = new ComparableSet(closures.get(target.getContent()));
+            }
+            for (Object from : delta.getNodes()) {
+                Node source = (Node) from;
+                if (!source.equals(target) && fPlusTo.contains(source.getContent())) {
+                    delta.addEdge(source, target);
                 }
             }
         }
-        // computes the node belonging in S\F
-        TreeSet<Node> nodes = new TreeSet<Node>();
-        for (Object in : this.getDependencyGraph().getNodes()) {
-            if (!setF.contains(((Node) in).getContent())) {
-                nodes.add((Node) in);
-            }
-        }
-        // computes the dependance relation between nodes in S\F
-        // and valuated this relation by the subset of S\F
-        TreeSet<Edge> edges = new TreeSet<Edge>();
-        for (Node source : nodes) {
-            for (Node target : nodes) {
-                if (!source.equals(target)) {
-                    // check if source is in dependance relation with target
-                    // i.e. "source" belongs to the closure of "F+target"
-                    ComparableSet fPlusTo = new ComparableSet(setF);
-                    fPlusTo.add(target.getContent());
-                    fPlusTo = new ComparableSet(init.closure(fPlusTo));
-                    if (fPlusTo.contains(source.getContent())) {
-                        // there is a dependance relation between source and target
-                        // search for an existing edge between source and target
-                        Edge ed = this.getDependencyGraph().getEdge(source, target);
-                        if (ed == null) {
-                            ed = new Edge(source, target, new TreeSet<ComparableSet>());
-                            this.getDependencyGraph().addEdge(ed);
-                        }
-                        edges.add(ed);
-                        // check if F is a minimal set closed for dependance relation between source and target
-                        ((TreeSet<ComparableSet>) ed.getContent()).add(newVal);
-                        TreeSet<ComparableSet> valEd = new TreeSet<ComparableSet>((TreeSet<ComparableSet>) ed.getContent());
-                        for (ComparableSet x1 : valEd) {
-                            if (x1.containsAll(newVal) && !newVal.containsAll(x1)) {
-                                ((TreeSet<ComparableSet>) ed.getContent()).remove(x1);
-                            }
-                            if (!x1.containsAll(newVal) && newVal.containsAll(x1)) {
-                                ((TreeSet<ComparableSet>) ed.getContent()).remove(newVal);
-                            }
-                        }
+        // valuates the dependance relation by newVal in the dependance graph,
+        // that may be shared by generations of several concepts running concurrently
+        synchronized (dependencyGraph) {
+            for (Object e : delta.getEdges()) {
+                Edge dependance = (Edge) e;
+                // search for an existing edge between source and target
+                Edge ed = dependencyGraph.getEdge(dependance.getSource(), dependance.getTarget());
+                if (ed == null) {
+                    ed = new Edge(dependance.getSource(), dependance.getTarget(), new TreeSet<ComparableSet>());
+                    dependencyGraph.addEdge(ed);
+                }
+                // check if F is a minimal set closed for dependance relation between source and target
+                ((TreeSet<ComparableSet>) ed.getContent()).add(newVal);
+                TreeSet<ComparableSet> valEd = new TreeSet<ComparableSet>((TreeSet<ComparableSet>) ed.getContent());
+                for (ComparableSet x1 : valEd) {
+                    if (x1.containsAll(newVal) && !newVal.containsAll(x1)) {
+                        ((TreeSet<ComparableSet>) ed.getContent()).remove(x1);
+                    }
+                    if (!x1.containsAll(newVal) && newVal.containsAll(x1)) {
+                        ((TreeSet<ComparableSet>) ed.getContent()).remove(newVal);
                     }
                 }
             }
         }
-        // computes the dependance subgraph of the closed set F as the reduction
-        // of the dependance graph composed of nodes in S\A and edges of the dependance relation
-        ConcreteDGraph sub = this.getDependencyGraph().getSubgraphByNodes(nodes);
-        ConcreteDGraph delta = sub.getSubgraphByEdges(edges);
         // computes the sources of the CFC of the dependance subgraph
         // that corresponds to successors of the closed set F
         DAGraph cfc = delta.getStronglyConnectedComponent();
@@ -980,6 +1308,360 @@ public class ConceptLattice extends Lattice {
         return immSucc;
     }
 
+    /*
+     * --------------- ON-LINE GENERATION METHODS ------------
+     */
+    /**
+     * Adds an observation to the specified context and updates this lattice,
+     * that must be the Hasse diagram of the closed set lattice of the context,
+     * without generating it again.
+     *
+     * Closed sets of the context are the closed sets of the previous context
+     * and their intersections with the intent of the new observation. They are
+     * inserted by the AddIntent algorithm of van der Merwe, Obiedkov and
+     * Kourie: the intersection of the intent with a closed set is searched
+     * from the top of the lattice, created when it does not exist, and
+     * linked to its immediate predecessors and successors, so that only the
+     * concepts smaller than the new ones are visited. Set B of the concepts
+     * containing the new observation is updated when it exists.
+     *
+     * Attributes of the intent that do not belong to the context are added to
+     * the context and to the top of this lattice. When this lattice has a
+     * dependance graph, it is not updated incrementally: it is discarded, and
+     * generated again for the new context by {@link #getDependencyGraph()}
+     * only when it is requested.
+     *
+     * @param context     the context whose closed set lattice is this component
+     * @param observation an observation that does not belong to the context
+     * @param intent      the attributes of the observation
+     *
+     * @return true if the observation was added, false if it already belongs to the context
+     *
+     * @throws IllegalArgumentException if this lattice has no top
+     */
+    public boolean addObservation(Context context, Comparable observation, TreeSet<Comparable> intent) {
+        if (context.containsObservation(observation)) {
+            return false;
+        }
+        Concept top = (Concept) this.top();
+        if (top == null) {
+            throw new IllegalArgumentException("The lattice must have a top");
+        }
+        // new attributes only belong to the top, whose set A is the set of attributes
+        TreeSet<Comparable> attributes = new TreeSet<Comparable>(intent);
+        attributes.removeAll(context.getAttributes());
+        if (!attributes.isEmpty()) {
+            boolean empty = context.getExtent(top.getSetA()).isEmpty();
+            context.addAllToAttributes(attributes);
+            if (empty) {
+                top.addAllToA(attributes);
+                this.index = null;
+            } else {
+                Concept newTop = new Concept(context.getAttributes(), top.hasSetB());
+                this.addNode(newTop);
+                this.addEdge(top, newTop);
+                top = newTop;
+            }
+        }
+        context.addToObservations(observation);
+        for (Comparable att : intent) {
+            context.addExtentIntent(observation, att);
+        }
+        // insertion of the closed sets included in the intent
+        Concept object = this.addIntent(new TreeSet<Comparable>(intent), top);
+        // the observation belongs to set B of the concepts smaller than its concept
+        if (object.hasSetB()) {
+            TreeSet<Node> visited = new TreeSet<Node>();
+            List<Node> toVisit = new ArrayList<Node>();
+            toVisit.add(object);
+            visited.add(object);
+            while (!toVisit.isEmpty()) {
+                Concept concept = (Concept) toVisit.remove(toVisit.size() - 1);
+                concept.addToB(observation);
+                for (Object predecessor : this.getPredecessorNodes(concept)) {
+                    if (visited.add((Node) predecessor)) {
+                        toVisit.add((Node) predecessor);
+                    }
+                }
+            }
+        }
+        this.invalidateDependencyGraph(context);
+        return true;
+    }
+
+    /**
+     * Removes an observation from the specified context and updates this
+     * lattice, that must be the Hasse diagram of the closed set lattice of the
+     * context, without generating it again.
+     *
+     * Closed sets of the context are the closed sets of the previous context
+     * that remain closed. Only the closed sets included in the intent of the
+     * observation may be no longer closed: their concept is merged with the
+     * concept of their new closure, and removed from the lattice by linking
+     * its immediate predecessors to its immediate successors. The observation
+     * is removed from set B of the concepts when it exists.
+     *
+     * When this lattice has a dependance graph, it is not updated
+     * incrementally, since a removal may change the precedence relation that
+     * valuates all its edges: it is discarded, and generated again for the new
+     * context by {@link #getDependencyGraph()} only when it is requested. A
+     * lattice without dependance graph does not pay this generation.
+     *
+     * @param context     the context whose closed set lattice is this component
+     * @param observation an observation of the context
+     *
+     * @return true if the observation was removed, false if it does not belong to the context
+     */
+    public boolean removeObservation(Context context, Comparable observation) {
+        if (!context.containsObservation(observation)) {
+            return false;
+        }
+        Concept object = this.getConcept(context.getIntent(observation));
+        context.removeFromObservations(observation);
+        // concepts including the observation are the concepts smaller than its concept
+        List<Concept> removed = new ArrayList<Concept>();
+        TreeSet<Node> visited = new TreeSet<Node>();
+        List<Node> toVisit = new ArrayList<Node>();
+        if (object != null) {
+            toVisit.add(object);
+            visited.add(object);
+        }
+        while (!toVisit.isEmpty()) {
+            Concept concept = (Concept) toVisit.remove(toVisit.size() - 1);
+            if (concept.hasSetB()) {
+                concept.getSetB().remove(observation);
+            }
+            if (!context.closure(concept.getSetA()).equals(concept.getSetA())) {
+                removed.add(concept);
+            }
+            for (Object predecessor : this.getPredecessorNodes(concept)) {
+                if (visited.add((Node) predecessor)) {
+                    toVisit.add((Node) predecessor);
+                }
+            }
+        }
+        for (Concept concept : removed) {
+            this.removeConcept(concept);
+        }
+        this.invalidateDependencyGraph(context);
+        return true;
+    }
+
+    /**
+     * Removes an attribute from the specified context and updates this
+     * lattice, that must be the Hasse diagram of the closed set lattice of the
+     * context, without generating it again.
+     *
+     * Closed sets of the context are the closed sets of the previous context
+     * without the attribute. When both `C` and `C+a` are closed, the concept
+     * of `C+a` is merged with the concept of `C` and removed from the lattice
+     * by linking its immediate predecessors to its immediate successors.
+     * Otherwise, the attribute is removed from set A of the concept, the
+     * order between the concepts being unchanged.
+     *
+     * When this lattice has a dependance graph, it is not updated
+     * incrementally, since a removal may change the precedence relation that
+     * valuates all its edges: it is discarded, and generated again for the new
+     * context by {@link #getDependencyGraph()} only when it is requested. A
+     * lattice without dependance graph does not pay this generation.
+     *
+     * @param context   the context whose closed set lattice is this component
+     * @param attribute an attribute of the context
+     *
+     * @return true if the attribute was removed, false if it does not belong to the context
+     */
+    public boolean removeAttribute(Context context, Comparable attribute) {
+        if (!context.containsAttribute(attribute)) {
+            return false;
+        }
+        context.removeFromAttributes(attribute);
+        List<Concept> removed = new ArrayList<Concept>();
+        List<Concept> reduced = new ArrayList<Concept>();
+        for (Object node : this.getNodes()) {
+            Concept concept = (Concept) node;
+            if (concept.getSetA().contains(attribute)) {
+                TreeSet<Comparable> setA = new TreeSet<Comparable>(concept.getSetA());
+                setA.remove(attribute);
+                if (this.getConcept(setA) == null) {
+                    reduced.add(concept);
+                } else {
+                    removed.add(concept);
+                }
+            }
+        }
+        for (Concept concept : removed) {
+            this.removeConcept(concept);
+        }
+        for (Concept concept : reduced) {
+            concept.getSetA().remove(attribute);
+        }
+        this.index = null;
+        this.invalidateDependencyGraph(context);
+        return true;
+    }
+
+    /**
+     * Removes a concept from this lattice, linking each of its immediate
+     * predecessors to each of its immediate successors that is not greater
+     * than another immediate successor of the predecessor.
+     *
+     * @param concept a concept of this lattice
+     */
+    private void removeConcept(Concept concept) {
+        List<Node> predecessors = new ArrayList<Node>(this.getPredecessorNodes(concept));
+        List<Node> successors = new ArrayList<Node>(this.getSuccessorNodes(concept));
+        this.removeNode(concept);
+        for (Node predecessor : predecessors) {
+            for (Node successor : successors) {
+                boolean cover = true;
+                for (Object other : this.getSuccessorNodes(predecessor)) {
+                    if (((Concept) successor).getSetA().containsAll(((Concept) other).getSetA())) {
+                        cover = false;
+                        break;
+                    }
+                }
+                if (cover) {
+                    this.addEdge(predecessor, successor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the dependance graph of this lattice.
+     *
+     * When the dependance graph has been discarded by an update of this
+     * lattice, it is generated again for the closure system given to the
+     * update, as {@link #diagramLattice} does, by computing the immediate
+     * successors of each concept. The dependance graph is thus not updated
+     * incrementally: the first request following a sequence of updates pays
+     * a whole generation, and the other requests nothing.
+     *
+     * @return the dependance graph
+     */
+    @Override
+    public ConcreteDGraph getDependencyGraph() {
+        if (this.staleDependencyGraph != null) {
+            ClosureSystem init = this.staleDependencyGraph;
+            this.staleDependencyGraph = null;
+            ConcreteDGraph graph = new ConcreteDGraph();
+            for (Comparable c : init.getSet()) {
+                graph.addNode(new Node(c));
+            }
+            this.setDependencyGraph(graph);
+            Precedence precedence = new Precedence(init);
+            for (Object node : this.getNodes()) {
+                this.immediateSuccessors((Node) node, init, null, precedence);
+            }
+        }
+        return super.getDependencyGraph();
+    }
+
+    /**
+     * Test if this component has a dependency graph, including a dependency
+     * graph discarded by an update that is generated again when requested.
+     *
+     * @return the truth value for this property
+     */
+    @Override
+    protected boolean hasDependencyGraph() {
+        return super.hasDependencyGraph() || this.staleDependencyGraph != null;
+    }
+
+    /**
+     * Discards the dependance graph of this lattice when it exists, so that
+     * it is generated again for the closure system when it is requested.
+     *
+     * Valuations of the dependance graph depend on the precedence relation of
+     * the whole closure system, that may be changed by any update, so that
+     * they cannot be updated for the modified concepts only.
+     *
+     * @param init the closure system of this lattice
+     */
+    private void invalidateDependencyGraph(ClosureSystem init) {
+        if (this.hasDependencyGraph()) {
+            this.setDependencyGraph(null);
+            this.staleDependencyGraph = init;
+        }
+    }
+
+    /**
+     * Returns the concept whose set A is the specified intent, inserting it in
+     * this lattice with the concepts whose set A is the intersection of the
+     * intent with an existing set A when they do not exist.
+     *
+     * @param intent    a set closed in the new closure system
+     * @param generator a concept whose set A contains the intent
+     *
+     * @return the concept whose set A is the intent
+     */
+    private Concept addIntent(TreeSet<Comparable> intent, Concept generator) {
+        Concept minimal = this.minimalConcept(intent, generator);
+        if (minimal.getSetA().size() == intent.size()) {
+            return minimal;
+        }
+        List<Concept> newPredecessors = new ArrayList<Concept>();
+        for (Object node : new ArrayList<Object>(this.getPredecessorNodes(minimal))) {
+            Concept candidate = (Concept) node;
+            if (!intent.containsAll(candidate.getSetA())) {
+                TreeSet<Comparable> meet = new TreeSet<Comparable>(candidate.getSetA());
+                meet.retainAll(intent);
+                candidate = this.addIntent(meet, candidate);
+            }
+            boolean add = true;
+            Iterator<Concept> it = newPredecessors.iterator();
+            while (it.hasNext()) {
+                Concept predecessor = it.next();
+                if (predecessor.getSetA().containsAll(candidate.getSetA())) {
+                    add = false;
+                    break;
+                }
+                if (candidate.getSetA().containsAll(predecessor.getSetA())) {
+                    it.remove();
+                }
+            }
+            if (add) {
+                newPredecessors.add(candidate);
+            }
+        }
+        Concept concept = new Concept(intent, minimal.hasSetB());
+        if (minimal.hasSetB()) {
+            concept.addAllToB(minimal.getSetB());
+        }
+        this.addNode(concept);
+        for (Concept predecessor : newPredecessors) {
+            this.removeEdge(predecessor, minimal);
+            this.addEdge(predecessor, concept);
+        }
+        this.addEdge(concept, minimal);
+        return concept;
+    }
+
+    /**
+     * Returns the smallest concept whose set A contains the specified set,
+     * searched from the specified concept.
+     *
+     * @param set       a set
+     * @param generator a concept whose set A contains the set
+     *
+     * @return the smallest concept smaller than the generator whose set A contains the set
+     */
+    private Concept minimalConcept(TreeSet<Comparable> set, Concept generator) {
+        Concept minimal = generator;
+        boolean found = true;
+        while (found) {
+            found = false;
+            for (Object predecessor : this.getPredecessorNodes(minimal)) {
+                if (((Concept) predecessor).getSetA().containsAll(set)) {
+                    minimal = (Concept) predecessor;
+                    found = true;
+                    break;
+                }
+            }
+        }
+        return minimal;
+    }
+
     /**
      * Save the description of this component in a file whose name is specified.
      *
@@ -0,0 +1,140 @@
+package org.thegalactic.lattice;
+
+/*
+ * CoverRelation.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.TreeMap;
+
+/**
+ * Computation of the cover relation of a family of closed sets by the iPred
+ * algorithm of Baixeries, Szathmary, Valtchev and Godin.
+ *
+ * Closed sets are treated by increasing size. The border is the set of
+ * maximal closed sets already treated: the immediate predecessors of a closed
+ * set `C` are among the intersections of `C` with the elements of the border,
+ * and an intersection `P` is an immediate predecessor when `C` contains none
+ * of the elements added to `P` by its immediate successors already found.
+ *
+ * Sets A of the concepts are encoded by bit sets, so that the diagram is
+ * computed in O(n|S|w) where n is the number of closed sets, S is the set of
+ * elements and w is the width of the lattice, instead of the O(n^2|S|) of
+ * the comparison of all pairs of closed sets.
+ */
+final class CoverRelation {
+
+    /**
+     * The lattice whose edges are computed.
+     */
+    private final ConceptLattice lattice;
+
+    /**
+     * Constructs the computation of the cover relation of a lattice.
+     *
+     * @param lattice a lattice of concepts whose sets A are closed under intersection
+     */
+    CoverRelation(final ConceptLattice lattice) {
+        this.lattice = lattice;
+    }
+
+    /**
+     * Adds to the lattice an edge from each concept to each of its immediate
+     * successors for the inclusion of sets A.
+     *
+     * @throws IllegalArgumentException if the sets A are not closed under intersection
+     */
+    void run() {
+        Concept[] concepts = new Concept[this.lattice.getNodes().size()];
+        int size = 0;
+        for (Object node : this.lattice.getNodes()) {
+            concepts[size] = (Concept) node;
+            size++;
+        }
+        if (size == 0) {
+            return;
+        }
+        Arrays.sort(concepts, new Comparator<Concept>() {
+            /**
+             * Compares the size of the sets A of two concepts.
+             *
+             * @param c1 a concept
+             * @param c2 a concept
+             *
+             * @return a negative integer, zero, or a positive integer as c1 is smaller than, equal to, or greater than c2
+             */
+            @Override
+            public int compare(final Concept c1, final Concept c2) {
+                return c1.getSetA().size() - c2.getSetA().size();
+            }
+        });
+        BitSet[] intents = this.encode(concepts);
+        HashMap<BitSet, Integer> positions = new HashMap<BitSet, Integer>();
+        BitSet[] delta = new BitSet[size];
+        for (int i = 0; i < size; i++) {
+            positions.put(intents[i], Integer.valueOf(i));
+            delta[i] = new BitSet();
+        }
+        LinkedHashSet<Integer> border = new LinkedHashSet<Integer>();
+        border.add(Integer.valueOf(0));
+        for (int i = 1; i < size; i++) {
+            LinkedHashSet<Integer> candidates = new LinkedHashSet<Integer>();
+            for (Integer element : border) {
+                BitSet meet = (BitSet) intents[element].clone();
+                meet.and(intents[i]);
+                Integer candidate = positions.get(meet);
+                if (candidate == null) {
+                    throw new IllegalArgumentException("Sets A must be closed under intersection");
+                }
+                candidates.add(candidate);
+            }
+            for (Integer candidate : candidates) {
+                int c = candidate.intValue();
+                if (!delta[c].intersects(intents[i])) {
+                    this.lattice.addEdge(concepts[c], concepts[i]);
+                    BitSet added = (BitSet) intents[i].clone();
+                    added.andNot(intents[c]);
+                    delta[c].or(added);
+                    border.remove(candidate);
+                }
+            }
+            border.add(Integer.valueOf(i));
+        }
+    }
+
+    /**
+     * Encodes the sets A of concepts by bit sets over their elements.
+     *
+     * @param concepts an array of concepts
+     *
+     * @return the bit sets of the sets A
+     */
+    private BitSet[] encode(final Concept[] concepts) {
+        TreeMap<Comparable, Integer> elements = new TreeMap<Comparable, Integer>();
+        for (Concept concept : concepts) {
+            for (Comparable element : concept.getSetA()) {
+                if (!elements.containsKey(element)) {
+                    elements.put(element, Integer.valueOf(elements.size()));
+                }
+            }
+        }
+        BitSet[] intents = new BitSet[concepts.length];
+        for (int i = 0; i < concepts.length; i++) {
+            intents[i] = new BitSet(elements.size());
+            for (Comparable element : concepts[i].getSetA()) {
+                intents[i].set(elements.get(element));
+            }
+        }
+        return intents;
+    }
+}
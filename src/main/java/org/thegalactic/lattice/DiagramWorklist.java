@@ -0,0 +1,249 @@
+package org.thegalactic.lattice;
+
+/*
+ * DiagramWorklist.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Worklist generation of the Hasse diagram of a closed set lattice by
+ * Bordat's algorithm.
+ *
+ * Each concept of the worklist is replaced by its immediate successors that
+ * are new in the lattice, computed by {@link ConceptLattice#immediateSuccessors},
+ * so that the depth of the lattice does not consume the stack. The worklist is either
+ * processed in the calling thread, or by the threads of an executor, each
+ * concept being a task.
+ *
+ * Concepts are found from their closed set, or created, by a single atomic
+ * operation on the concurrent index of the lattice, without lock. Only the
+ * insertion of nodes and edges in the lattice is done while holding its lock,
+ * and the valuations of the dependance graph are updated while holding the
+ * lock of the dependance graph, so that immediate successors of different
+ * concepts are computed concurrently.
+ */
+final class DiagramWorklist {
+
+    /**
+     * The lattice being generated.
+     */
+    private final ConceptLattice lattice;
+
+    /**
+     * The closure system.
+     */
+    private final ClosureSystem init;
+
+    /**
+     * The precedence relation of the closure system.
+     */
+    private final Precedence precedence;
+
+    /**
+     * Constructs a worklist generating a lattice.
+     *
+     * @param lattice    the lattice being generated
+     * @param init       the closure system
+     * @param precedence the precedence relation of the closure system
+     */
+    DiagramWorklist(final ConceptLattice lattice, final ClosureSystem init, final Precedence precedence) {
+        this.lattice = lattice;
+        this.init = init;
+        this.precedence = precedence;
+        lattice.prepareIndex();
+    }
+
+    /**
+     * Generates the lattice issued from a concept in the calling thread.
+     *
+     * @param start a concept of the lattice
+     */
+    void run(final Concept start) {
+        ArrayDeque<Concept> worklist = new ArrayDeque<Concept>();
+        worklist.push(start);
+        while (!worklist.isEmpty()) {
+            for (Concept concept : this.process(worklist.pop())) {
+                worklist.push(concept);
+            }
+        }
+    }
+
+    /**
+     * Generates the lattice issued from a concept with the threads of an
+     * executor, and waits for the end of the generation.
+     *
+     * @param start    a concept of the lattice
+     * @param executor an executor running the tasks
+     *
+     * @throws IllegalStateException if the calling thread is interrupted
+     */
+    void run(final Concept start, final ExecutorService executor) {
+        Generation generation = new Generation(executor);
+        generation.submit(start);
+        try {
+            generation.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while generating the lattice", e);
+        }
+        Throwable failure = generation.failure.get();
+        if (failure instanceof RuntimeException) {
+            throw (RuntimeException) failure;
+        }
+        if (failure instanceof Error) {
+            throw (Error) failure;
+        }
+    }
+
+    /**
+     * Computes the immediate successors of a concept and inserts them in the
+     * lattice.
+     *
+     * @param concept a concept of the lattice
+     *
+     * @return the successors that were not in the lattice
+     */
+    private List<Concept> process(final Concept concept) {
+        List<Concept> created = new ArrayList<Concept>();
+        for (TreeSet<Comparable> setX : this.lattice.immediateSuccessors(concept, this.init, null, this.precedence)) {
+            Concept successor = new Concept(new TreeSet<Comparable>(setX), false);
+            Concept indexed = this.lattice.indexIfAbsent(successor);
+            if (indexed == null) {
+                created.add(successor);
+            } else {
+                successor = indexed;
+            }
+            // the node may be inserted by the edge of another concept, before the thread that indexed it
+            synchronized (this.lattice) {
+                this.lattice.addNode(successor);
+                this.lattice.addEdge(concept, successor);
+            }
+        }
+        return created;
+    }
+
+    /**
+     * State of a generation running in an executor.
+     */
+    private final class Generation {
+
+        /**
+         * The executor running the tasks.
+         */
+        private final ExecutorService executor;
+
+        /**
+         * Number of submitted tasks that are not finished.
+         */
+        private final AtomicInteger pending;
+
+        /**
+         * Released when all the tasks are finished.
+         */
+        private final CountDownLatch done;
+
+        /**
+         * First failure of a task.
+         */
+        private final AtomicReference<Throwable> failure;
+
+        /**
+         * Constructs the state of a generation.
+         *
+         * @param executor the executor running the tasks
+         */
+        Generation(final ExecutorService executor) {
+            this.executor = executor;
+            this.pending = new AtomicInteger();
+            this.done = new CountDownLatch(1);
+            this.failure = new AtomicReference<Throwable>();
+        }
+
+        /**
+         * Submits the task of a concept.
+         *
+         * @param concept a concept of the lattice
+         */
+        void submit(final Concept concept) {
+            this.pending.incrementAndGet();
+            try {
+                this.executor.execute(new Task(this, concept));
+            } catch (RejectedExecutionException e) {
+                this.finish();
+                throw e;
+            }
+        }
+
+        /**
+         * Records the end of a task.
+         */
+        void finish() {
+            if (this.pending.decrementAndGet() == 0) {
+                this.done.countDown();
+            }
+        }
+    }
+
+    /**
+     * Task computing the immediate successors of a concept.
+     */
+    private final class Task implements Runnable {
+
+        /**
+         * The generation of this task.
+         */
+        private final Generation generation;
+
+        /**
+         * The concept.
+         */
+        private final Concept concept;
+
+        /**
+         * Constructs a task.
+         *
+         * @param generation the generation of this task
+         * @param concept    the concept
+         */
+        Task(final Generation generation, final Concept concept) {
+            this.generation = generation;
+            this.concept = concept;
+        }
+
+        /**
+         * Computes the immediate successors and submits the tasks of the new ones.
+         */
+        @Override
+        public void run() {
+            try {
+                if (this.generation.failure.get() == null) {
+                    for (Concept successor : DiagramWorklist.this.process(this.concept)) {
+                        this.generation.submit(successor);
+                    }
+                }
+            } catch (RuntimeException e) {
+                this.generation.failure.compareAndSet(null, e);
+            } catch (Error e) {
+                this.generation.failure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                this.generation.finish();
+            }
+        }
+    }
+}
@@ -95,7 +95,7 @@ public class Lattice<N, E> extends DAGraph<N, E> {
      * join-irreducibles such that the join of elements of X corresponds to the
      * node x of the lattice.
      */
-    private ConcreteDGraph dependencyGraph = null;
+    private volatile ConcreteDGraph dependencyGraph = null;
 
     /*
      * ------------- CONSTRUCTORS ------------------
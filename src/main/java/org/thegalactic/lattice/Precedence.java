@@ -0,0 +1,166 @@
+package org.thegalactic.lattice;
+
+/*
+ * Precedence.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.BitSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.thegalactic.util.ComparableSet;
+
+/**
+ * Precedence relation of a closure system encoded by bit sets.
+ *
+ * The strongly connected component of an element x of the precedence graph is
+ * the set of elements y such that x and y belong to the closure of each other.
+ * Its minorants in the acyclic graph of the components are the elements y of
+ * the closure of x such that x does not belong to the closure of y. Both are
+ * computed once from the closures of the elements, so that the valuation of
+ * the dependance relation of each concept of a generation is obtained by a
+ * few bit set operations instead of computing the precedence graph, its
+ * strongly connected components and their transitive closure.
+ *
+ * A precedence relation is computed once for a closure system and given to
+ * {@link Concept#immediateSuccessors(ClosureSystem, Precedence)} or
+ * {@link ConceptLattice#immediateSuccessors(org.thegalactic.dgraph.Node, ClosureSystem, TreeSet, Precedence)}
+ * for each concept of a generation.
+ */
+public final class Precedence {
+
+    /**
+     * Elements of the closure system indexed by their position.
+     */
+    private final TreeMap<Comparable, Integer> index;
+
+    /**
+     * Elements of the closure system.
+     */
+    private final Comparable[] elements;
+
+    /**
+     * Strongly connected component of each element.
+     */
+    private final BitSet[] components;
+
+    /**
+     * Elements of the minorants of the component of each element.
+     */
+    private final BitSet[] minorants;
+
+    /**
+     * Constructs the precedence relation of a closure system.
+     *
+     * @param init a closure system
+     */
+    public Precedence(final ClosureSystem init) {
+        this.index = new TreeMap<Comparable, Integer>();
+        this.elements = init.getSet().toArray(new Comparable[init.getSet().size()]);
+        for (int i = 0; i < this.elements.length; i++) {
+            this.index.put(this.elements[i], Integer.valueOf(i));
+        }
+        BitSet[] closures = new BitSet[this.elements.length];
+        for (int i = 0; i < this.elements.length; i++) {
+            ComparableSet setX = new ComparableSet();
+            setX.add(this.elements[i]);
+            closures[i] = this.encode(init.closure(setX));
+        }
+        this.components = new BitSet[this.elements.length];
+        this.minorants = new BitSet[this.elements.length];
+        for (int i = 0; i < this.elements.length; i++) {
+            this.components[i] = new BitSet(this.elements.length);
+            this.minorants[i] = new BitSet(this.elements.length);
+            for (int j = closures[i].nextSetBit(0); j >= 0; j = closures[i].nextSetBit(j + 1)) {
+                if (closures[j].get(i)) {
+                    this.components[i].set(j);
+                } else {
+                    this.minorants[i].set(j);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the elements of the strongly connected component of an element.
+     *
+     * @param x an element
+     *
+     * @return the elements equivalent to x by closure, empty if x is not an element
+     */
+    TreeSet<Comparable> component(final Comparable x) {
+        Integer i = this.index.get(x);
+        if (i == null) {
+            return new TreeSet<Comparable>();
+        }
+        return this.decode(this.components[i]);
+    }
+
+    /**
+     * Returns the subset of a set that is used to valuate the dependance
+     * relation of the closed set F.
+     *
+     * It is obtained by removing from F every element of the minorants of the
+     * strongly connected components of the elements of F.
+     *
+     * @param setF a closed set
+     *
+     * @return the valuation of the dependance relation
+     */
+    ComparableSet valuation(final TreeSet<Comparable> setF) {
+        BitSet removed = new BitSet(this.elements.length);
+        for (Comparable x : setF) {
+            Integer i = this.index.get(x);
+            if (i != null) {
+                removed.or(this.minorants[i]);
+            }
+        }
+        ComparableSet newVal = new ComparableSet();
+        for (Comparable x : setF) {
+            Integer i = this.index.get(x);
+            if (i == null || !removed.get(i)) {
+                newVal.add(x);
+            }
+        }
+        return newVal;
+    }
+
+    /**
+     * Encodes a set of elements by a bit set.
+     *
+     * @param set a set of elements
+     *
+     * @return the bit set of the elements of the closure system in the set
+     */
+    private BitSet encode(final TreeSet<Comparable> set) {
+        BitSet bits = new BitSet(this.elements.length);
+        for (Comparable x : set) {
+            Integer i = this.index.get(x);
+            if (i != null) {
+                bits.set(i);
+            }
+        }
+        return bits;
+    }
+
+    /**
+     * Decodes a bit set of elements.
+     *
+     * @param bits a bit set of elements
+     *
+     * @return the set of elements
+     */
+    private TreeSet<Comparable> decode(final BitSet bits) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            set.add(this.elements[i]);
+        }
+        return set;
+    }
+}
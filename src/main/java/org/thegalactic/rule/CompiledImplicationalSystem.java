@@ -0,0 +1,592 @@
+package org.thegalactic.rule;
+
+/*
+ * CompiledImplicationalSystem.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Immutable and compact form of an implicational system.
+ *
+ * Elements are numbered in their natural order, and the premise and the
+ * conclusion of each rule are stored as bit vectors in two arrays of longs, so
+ * that a rule costs a few words instead of two trees of elements. Rules are
+ * kept in the order they are given.
+ *
+ * Closures are computed by the LinClosure algorithm, each element knowing the
+ * rules whose premise contains it. Entailment and the normalisations into a
+ * proper right maximal, a minimum or the canonical basis are computed on the
+ * bit vectors, each one returning a new compiled system. Rules are converted
+ * back to {@link Rule} objects only by {@link #getRule(int)} and
+ * {@link #toImplicationalSystem()}.
+ *
+ * Being immutable, a compiled system can be shared by concurrent closure
+ * computations: {@link ImplicationalSystem} keeps one as the index of its
+ * closures above a few tens of rules.
+ */
+public final class CompiledImplicationalSystem {
+
+    /**
+     * Elements in their natural order.
+     */
+    private final Comparable[] elements;
+
+    /**
+     * Number of longs of a bit vector.
+     */
+    private final int words;
+
+    /**
+     * Number of rules.
+     */
+    private final int count;
+
+    /**
+     * Premises of the rules, words consecutive longs for each rule.
+     */
+    private final long[] premises;
+
+    /**
+     * Conclusions of the rules, words consecutive longs for each rule.
+     */
+    private final long[] conclusions;
+
+    /**
+     * Size of the premise of each rule.
+     */
+    private final int[] sizes;
+
+    /**
+     * Rules whose premise contains each element.
+     */
+    private final int[][] occurrences;
+
+    /**
+     * Factory method to construct the compiled form of an implicational system.
+     *
+     * @param is an implicational system
+     *
+     * @return a new CompiledImplicationalSystem object
+     */
+    public static CompiledImplicationalSystem create(final ImplicationalSystem is) {
+        return create(is.getSet(), is.getRules());
+    }
+
+    /**
+     * Factory method to construct the compiled form of a set of rules on a set
+     * of elements.
+     *
+     * @param set   a set of elements
+     * @param rules a collection of rules on these elements
+     *
+     * @return a new CompiledImplicationalSystem object
+     *
+     * @throws IllegalArgumentException if a rule contains an element that does not belong to the set
+     */
+    public static CompiledImplicationalSystem create(final SortedSet<Comparable> set, final Iterable<Rule> rules) {
+        Comparable[] elements = set.toArray(new Comparable[set.size()]);
+        int words = (elements.length + Long.SIZE - 1) / Long.SIZE;
+        int count = 0;
+        for (Rule rule : rules) {
+            count++;
+        }
+        long[] premises = new long[count * words];
+        long[] conclusions = new long[count * words];
+        int r = 0;
+        for (Rule rule : rules) {
+            if (!encode(elements, rule.getPremise(), premises, r * words)
+                    || !encode(elements, rule.getConclusion(), conclusions, r * words)) {
+                throw new IllegalArgumentException("Rule " + rule + " is not on the set " + set);
+            }
+            r++;
+        }
+        return new CompiledImplicationalSystem(elements, count, premises, conclusions);
+    }
+
+    /**
+     * This class is not designed to be publicly instantiated.
+     *
+     * @param elements    elements in their natural order
+     * @param count       number of rules
+     * @param premises    premises of the rules
+     * @param conclusions conclusions of the rules
+     */
+    private CompiledImplicationalSystem(final Comparable[] elements, final int count, final long[] premises, final long[] conclusions) {
+        this.elements = elements;
+        this.words = (elements.length + Long.SIZE - 1) / Long.SIZE;
+        this.count = count;
+        this.premises = premises;
+        this.conclusions = conclusions;
+        this.sizes = new int[count];
+        int[] lengths = new int[elements.length];
+        for (int r = 0; r < count; r++) {
+            for (int w = 0; w < this.words; w++) {
+                long bits = premises[r * this.words + w];
+                this.sizes[r] += Long.bitCount(bits);
+                while (bits != 0) {
+                    lengths[w * Long.SIZE + Long.numberOfTrailingZeros(bits)]++;
+                    bits &= bits - 1;
+                }
+            }
+        }
+        this.occurrences = new int[elements.length][];
+        for (int e = 0; e < elements.length; e++) {
+            this.occurrences[e] = new int[lengths[e]];
+            lengths[e] = 0;
+        }
+        for (int r = 0; r < count; r++) {
+            for (int w = 0; w < this.words; w++) {
+                long bits = premises[r * this.words + w];
+                while (bits != 0) {
+                    int e = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                    this.occurrences[e][lengths[e]] = r;
+                    lengths[e]++;
+                    bits &= bits - 1;
+                }
+            }
+        }
+    }
+
+    /*
+     * --------------- ACCESSORS ------------
+     */
+    /**
+     * Returns the set of elements of this component.
+     *
+     * @return the set of elements of this component
+     */
+    public TreeSet<Comparable> getSet() {
+        return new TreeSet<Comparable>(Arrays.asList(this.elements));
+    }
+
+    /**
+     * Returns the number of elements of this component.
+     *
+     * @return the number of elements of this component
+     */
+    public int sizeElements() {
+        return this.elements.length;
+    }
+
+    /**
+     * Returns the number of rules of this component.
+     *
+     * @return the number of rules of this component
+     */
+    public int sizeRules() {
+        return this.count;
+    }
+
+    /**
+     * Returns a rule of this component.
+     *
+     * @param r index of the rule, in the order of the rules
+     *
+     * @return a new rule with the premise and the conclusion of the r-th rule
+     */
+    public Rule getRule(final int r) {
+        return new Rule(this.decode(this.premises, r * this.words), this.decode(this.conclusions, r * this.words));
+    }
+
+    /**
+     * Returns an implicational system with the elements and the rules of this
+     * component.
+     *
+     * @return a new implicational system
+     */
+    public ImplicationalSystem toImplicationalSystem() {
+        ImplicationalSystem is = new ImplicationalSystem();
+        is.addAllElements(this.getSet());
+        for (int r = 0; r < this.sizeRules(); r++) {
+            is.addRule(this.getRule(r));
+        }
+        return is;
+    }
+
+    /*
+     * --------------- CLOSURE AND ENTAILMENT ------------
+     */
+    /**
+     * Builds the closure of a set of elements.
+     *
+     * Elements of x that do not belong to this component are kept in the
+     * closure.
+     *
+     * @param x a set of elements
+     *
+     * @return the closure of x for this component
+     */
+    public TreeSet<Comparable> closure(final SortedSet<Comparable> x) {
+        return this.closure(x, null);
+    }
+
+    /**
+     * Builds the closure of a set of elements using only some rules.
+     *
+     * @param x      a set of elements
+     * @param masked rules that are not used, by index, null to use all the rules
+     *
+     * @return the closure of x for the rules that are not masked
+     */
+    TreeSet<Comparable> closure(final SortedSet<Comparable> x, final boolean[] masked) {
+        long[] bits = new long[this.words];
+        encode(this.elements, x, bits, 0);
+        TreeSet<Comparable> result = this.decode(this.closure(bits, masked), 0);
+        result.addAll(x);
+        return result;
+    }
+
+    /**
+     * Returns true if a rule is entailed by this component, i.e. if its
+     * conclusion is included in the closure of its premise.
+     *
+     * @param rule a rule
+     *
+     * @return true if the rule is entailed by this component
+     */
+    public boolean implies(final Rule rule) {
+        return this.closure(rule.getPremise()).containsAll(rule.getConclusion());
+    }
+
+    /**
+     * Returns true if all the rules of another compiled system are entailed by
+     * this component.
+     *
+     * @param other a compiled implicational system
+     *
+     * @return true if the rules of other are entailed by this component
+     */
+    public boolean implies(final CompiledImplicationalSystem other) {
+        for (int r = 0; r < other.sizeRules(); r++) {
+            if (!this.implies(other.getRule(r))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if this component and another compiled system entail each
+     * other, i.e. if they have the same closures.
+     *
+     * @param other a compiled implicational system
+     *
+     * @return true if this component is equivalent to other
+     */
+    public boolean isEquivalent(final CompiledImplicationalSystem other) {
+        return this.implies(other) && other.implies(this);
+    }
+
+    /*
+     * --------------- NORMALISATIONS ------------
+     */
+    /**
+     * Returns the proper form of this component.
+     *
+     * Elements of the premise are removed from the conclusion of each rule, and
+     * rules with an empty conclusion are removed.
+     *
+     * @return a new compiled system with the proper rules of this component
+     */
+    public CompiledImplicationalSystem proper() {
+        long[] conclusion = new long[this.conclusions.length];
+        for (int i = 0; i < conclusion.length; i++) {
+            conclusion[i] = this.conclusions[i] & ~this.premises[i];
+        }
+        return this.select(this.premises, conclusion, null);
+    }
+
+    /**
+     * Returns the proper right maximal form of this component.
+     *
+     * The conclusion of each rule is replaced with the closure of its premise
+     * without the premise. Rules with the same premise are then merged, and
+     * rules with an empty conclusion are removed.
+     *
+     * @return a new compiled system with the right maximal rules of this component
+     */
+    public CompiledImplicationalSystem rightMaximal() {
+        int count = this.sizeRules();
+        long[] conclusion = new long[this.conclusions.length];
+        boolean[] removed = new boolean[count];
+        Integer[] order = new Integer[count];
+        for (int r = 0; r < count; r++) {
+            long[] closure = this.closure(Arrays.copyOfRange(this.premises, r * this.words, (r + 1) * this.words), null);
+            for (int w = 0; w < this.words; w++) {
+                conclusion[r * this.words + w] = closure[w] & ~this.premises[r * this.words + w];
+            }
+            order[r] = r;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            public int compare(final Integer r1, final Integer r2) {
+                return CompiledImplicationalSystem.this.comparePremises(r1, r2);
+            }
+        });
+        for (int i = 1; i < count; i++) {
+            removed[order[i]] = this.comparePremises(order[i - 1], order[i]) == 0;
+        }
+        return this.select(this.premises, conclusion, removed);
+    }
+
+    /**
+     * Returns the minimum form of this component.
+     *
+     * The proper right maximal form is first computed, then a rule is removed
+     * when its conclusion is included in the closure of its premise by the
+     * remaining rules.
+     *
+     * @return a new compiled system with a minimum number of rules equivalent to this component
+     */
+    public CompiledImplicationalSystem minimum() {
+        CompiledImplicationalSystem maximal = this.rightMaximal();
+        int count = maximal.sizeRules();
+        boolean[] removed = new boolean[count];
+        for (int r = 0; r < count; r++) {
+            removed[r] = true;
+            int offset = r * maximal.words;
+            long[] closure = maximal.closure(Arrays.copyOfRange(maximal.premises, offset, offset + maximal.words), removed);
+            removed[r] = maximal.contains(closure, maximal.conclusions, offset);
+        }
+        return maximal.select(maximal.premises, maximal.conclusions, removed);
+    }
+
+    /**
+     * Returns the canonical basis of this component.
+     *
+     * The minimum form is first computed, then the premise of each rule is
+     * replaced by its closure by the other rules, and elements of this new
+     * premise are removed from the conclusion.
+     *
+     * Since the minimum form has only one rule for each closure of a premise,
+     * the closure of a premise without its rule only uses rules of smaller
+     * closures, and does not depend on the premises already replaced: each
+     * closure is computed by LinClosure on the minimum form with its rule
+     * masked, the counters of the rules being reset for each premise.
+     *
+     * @return a new compiled system with the canonical basis of this component
+     */
+    public CompiledImplicationalSystem canonicalBasis() {
+        CompiledImplicationalSystem minimum = this.minimum();
+        int count = minimum.sizeRules();
+        int size = minimum.words;
+        long[] premise = new long[minimum.premises.length];
+        long[] conclusion = minimum.conclusions.clone();
+        boolean[] masked = new boolean[count];
+        int[] counts = new int[count];
+        int[] stack = new int[minimum.elements.length];
+        for (int r = 0; r < count; r++) {
+            System.arraycopy(minimum.premises, r * size, premise, r * size, size);
+            masked[r] = true;
+            minimum.close(premise, r * size, masked, counts, stack);
+            masked[r] = false;
+            for (int w = 0; w < size; w++) {
+                conclusion[r * size + w] &= ~premise[r * size + w];
+            }
+        }
+        return minimum.select(premise, conclusion, null);
+    }
+
+    /*
+     * --------------- PRIVATE METHODS ------------
+     */
+    /**
+     * Builds the closure of a bit vector by the LinClosure algorithm.
+     *
+     * @param x       a bit vector of elements
+     * @param removed rules that are not used, null to use all the rules
+     *
+     * @return the closure of x
+     */
+    private long[] closure(final long[] x, final boolean[] removed) {
+        long[] closed = x.clone();
+        this.close(closed, 0, removed, new int[this.count], new int[this.elements.length]);
+        return closed;
+    }
+
+    /**
+     * Closes in place a bit vector by the LinClosure algorithm.
+     *
+     * The counters of the rules and the stack of elements are given by the
+     * caller, so that they are allocated once when closing several bit
+     * vectors; the counters are reset to the size of the premises.
+     *
+     * @param closed  bit vectors
+     * @param offset  offset of the bit vector to close
+     * @param removed rules that are not used, null to use all the rules
+     * @param counts  counters of the rules, of size the number of rules
+     * @param stack   stack of elements, of size the number of elements
+     */
+    private void close(final long[] closed, final int offset, final boolean[] removed, final int[] counts, final int[] stack) {
+        System.arraycopy(this.sizes, 0, counts, 0, this.count);
+        int top = 0;
+        for (int w = 0; w < this.words; w++) {
+            long bits = closed[offset + w];
+            while (bits != 0) {
+                stack[top] = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                top++;
+                bits &= bits - 1;
+            }
+        }
+        for (int r = 0; r < this.count; r++) {
+            if (counts[r] == 0 && (removed == null || !removed[r])) {
+                top = this.fire(r, closed, offset, stack, top);
+            }
+        }
+        while (top > 0) {
+            top--;
+            for (int r : this.occurrences[stack[top]]) {
+                counts[r]--;
+                if (counts[r] == 0 && (removed == null || !removed[r])) {
+                    top = this.fire(r, closed, offset, stack, top);
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds the conclusion of a rule to a closure.
+     *
+     * @param r      a rule whose premise is in the closure
+     * @param closed bit vectors
+     * @param offset offset of the bit vector of the closure
+     * @param stack  elements of the closure whose rules are not yet updated
+     * @param top    number of elements in the stack
+     *
+     * @return the new number of elements in the stack
+     */
+    private int fire(final int r, final long[] closed, final int offset, final int[] stack, final int top) {
+        int size = top;
+        for (int w = 0; w < this.words; w++) {
+            long bits = this.conclusions[r * this.words + w] & ~closed[offset + w];
+            closed[offset + w] |= bits;
+            while (bits != 0) {
+                stack[size] = w * Long.SIZE + Long.numberOfTrailingZeros(bits);
+                size++;
+                bits &= bits - 1;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Returns true if a bit vector contains the bit vector of a rule.
+     *
+     * @param x      a bit vector
+     * @param rules  bit vectors of rules
+     * @param offset offset of the bit vector of the rule
+     *
+     * @return true if the bit vector of the rule is included in x
+     */
+    private boolean contains(final long[] x, final long[] rules, final int offset) {
+        for (int w = 0; w < this.words; w++) {
+            if ((rules[offset + w] & ~x[w]) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the premises of two rules word by word.
+     *
+     * @param r1 a rule
+     * @param r2 another rule
+     *
+     * @return a negative integer, zero, or a positive integer as the premise of r1 is before, equal or after the premise of r2
+     */
+    private int comparePremises(final int r1, final int r2) {
+        for (int w = 0; w < this.words; w++) {
+            long p1 = this.premises[r1 * this.words + w];
+            long p2 = this.premises[r2 * this.words + w];
+            if (p1 != p2) {
+                if (p1 < p2) {
+                    return -1;
+                }
+                return 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Builds a compiled system on the elements of this component with the
+     * rules having a non empty conclusion.
+     *
+     * @param premise    premises of the rules
+     * @param conclusion conclusions of the rules
+     * @param removed    rules that are not kept, null to keep all the rules
+     *
+     * @return a new compiled system
+     */
+    private CompiledImplicationalSystem select(final long[] premise, final long[] conclusion, final boolean[] removed) {
+        int kept = 0;
+        long[] newP = new long[premise.length];
+        long[] newC = new long[conclusion.length];
+        for (int r = 0; r < this.count; r++) {
+            boolean empty = true;
+            for (int w = 0; w < this.words; w++) {
+                empty = empty && conclusion[r * this.words + w] == 0;
+            }
+            if (!empty && (removed == null || !removed[r])) {
+                System.arraycopy(premise, r * this.words, newP, kept * this.words, this.words);
+                System.arraycopy(conclusion, r * this.words, newC, kept * this.words, this.words);
+                kept++;
+            }
+        }
+        return new CompiledImplicationalSystem(this.elements, kept,
+                Arrays.copyOf(newP, kept * this.words), Arrays.copyOf(newC, kept * this.words));
+    }
+
+    /**
+     * Decodes a bit vector into a set of elements.
+     *
+     * @param bits   bit vectors
+     * @param offset offset of the bit vector
+     *
+     * @return the set of elements of the bit vector
+     */
+    private TreeSet<Comparable> decode(final long[] bits, final int offset) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (int w = 0; w < this.words; w++) {
+            long word = bits[offset + w];
+            while (word != 0) {
+                set.add(this.elements[w * Long.SIZE + Long.numberOfTrailingZeros(word)]);
+                word &= word - 1;
+            }
+        }
+        return set;
+    }
+
+    /**
+     * Encodes a set of elements into a bit vector.
+     *
+     * @param elements elements in their natural order
+     * @param set      a set of elements
+     * @param bits     bit vectors
+     * @param offset   offset of the bit vector
+     *
+     * @return true if all the elements of the set have been encoded
+     */
+    private static boolean encode(final Comparable[] elements, final SortedSet<Comparable> set, final long[] bits, final int offset) {
+        boolean all = true;
+        for (Comparable element : set) {
+            int e = Arrays.binarySearch(elements, element);
+            if (e < 0) {
+                all = false;
+            } else {
+                bits[offset + e / Long.SIZE] |= 1L << (e % Long.SIZE);
+            }
+        }
+        return all;
+    }
+}
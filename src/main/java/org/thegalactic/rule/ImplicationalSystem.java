@@ -126,6 +126,17 @@ public class ImplicationalSystem extends ClosureSystem {
      */
     private TreeSet<Comparable> set;
 
+    /**
+     * Number of rules above which closures are computed by LinClosure.
+     */
+    private static final int LIN_CLOSURE_THRESHOLD = 32;
+
+    /**
+     * Compiled form of this component, computing closures by LinClosure,
+     * built on demand.
+     */
+    private CompiledImplicationalSystem compiled;
+
     /*
      * --------------- CONSTRUCTORS -----------
      */
@@ -195,6 +206,7 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return this for chaining
      */
     public ImplicationalSystem init() {
+        this.invalidateClosureCache();
         this.sigma = new TreeSet<Rule>();
         this.set = new TreeSet<Comparable>();
         return this;
@@ -239,6 +251,25 @@ public class ImplicationalSystem extends ClosureSystem {
         return this.sigma.size();
     }
 
+    /**
+     * Returns the compiled form of this component.
+     *
+     * Elements and rules are copied, so that this component can be modified
+     * afterwards without changing the compiled form. The compiled form is
+     * kept until this component is modified, and shared with the computation
+     * of closures.
+     *
+     * @return a compiled implicational system with the rules of this component
+     */
+    public CompiledImplicationalSystem compile() {
+        CompiledImplicationalSystem index = this.compiled;
+        if (index == null || index.sizeRules() != this.sigma.size()) {
+            index = CompiledImplicationalSystem.create(this);
+            this.compiled = index;
+        }
+        return index;
+    }
+
     /*
      * ------------- MODIFICATION METHODS ------------------
      */
@@ -250,6 +281,7 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return true if the element has been added to `S`
      */
     public boolean addElement(Comparable e) {
+        this.invalidateClosureCache();
         return set.add(e);
     }
 
@@ -261,6 +293,7 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return true if the element has been added to `S`
      */
     public boolean addAllElements(TreeSet<Comparable> x) {
+        this.invalidateClosureCache();
         boolean all = true;
         for (Comparable e : x) {
             if (!set.add(e)) {
@@ -279,6 +312,7 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return true if the element has been added to `S`
      */
     public boolean deleteElement(Comparable e) {
+        this.invalidateClosureCache();
         if (set.contains(e)) {
             set.remove(e);
             ImplicationalSystem save = new ImplicationalSystem(this);
@@ -342,6 +376,7 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return true the rule has been added to if `sigma`
      */
     public boolean addRule(Rule rule) {
+        this.invalidateClosureCache();
         if (!this.containsRule(rule) && this.checkRuleElements(rule)) {
             return this.sigma.add(rule);
         }
@@ -356,6 +391,7 @@ public class ImplicationalSystem extends ClosureSystem {
      * @return true if the rule has been removed
      */
     public boolean removeRule(Rule rule) {
+        this.invalidateClosureCache();
         return this.sigma.remove(rule);
     }
 
@@ -574,10 +610,8 @@ public class ImplicationalSystem extends ClosureSystem {
         ImplicationalSystem tmp = new ImplicationalSystem(this);
         tmp.makeRightMaximal();
         for (Rule rule : sigma) {
-            ImplicationalSystem epsilon = new ImplicationalSystem(tmp);
-            epsilon.removeRule(rule);
             TreeSet<Comparable> clThis = this.closure(rule.getPremise());
-            TreeSet<Comparable> clEpsilon = epsilon.closure(rule.getPremise());
+            TreeSet<Comparable> clEpsilon = tmp.closure(rule.getPremise(), rule);
             if (clThis.equals(clEpsilon)) {
                 return false;
             }
@@ -718,6 +752,7 @@ public class ImplicationalSystem extends ClosureSystem {
      *         before and after this treatment
      */
     public int makeCompact() {
+        this.invalidateClosureCache();
         ImplicationalSystem save = new ImplicationalSystem(this);
         int before = this.sigma.size();
         this.sigma = new TreeSet();
@@ -755,6 +790,7 @@ public class ImplicationalSystem extends ClosureSystem {
      *         before and after this treatment
      */
     public int makeCompactAssociation() {
+        this.invalidateClosureCache();
         ImplicationalSystem save = new ImplicationalSystem(this);
         int before = this.sigma.size();
         this.sigma = new TreeSet();
@@ -818,6 +854,7 @@ public class ImplicationalSystem extends ClosureSystem {
      *         before and after this treatment
      */
     public int makeLeftMinimal() {
+        this.invalidateClosureCache();
         this.makeUnary();
         ImplicationalSystem save = new ImplicationalSystem(this);
         for (Rule rule1 : save.sigma) {
@@ -889,22 +926,27 @@ public class ImplicationalSystem extends ClosureSystem {
      * if this rule is suppressed.
      *
      * This treatment is performed in O(|sigma||S|cl) where O(cl) is the
-     * computation of a closure.
+     * computation of a closure. Rules are not copied: closures without the
+     * deleted rules and the tested one are computed by masking them.
      *
      * @return the difference between the number of rules of this component
      *         before and after this treatment
      */
     public int makeMinimum() {
         this.makeRightMaximal();
-        ImplicationalSystem save = new ImplicationalSystem(this);
-        for (Rule rule : save.sigma) {
-            ImplicationalSystem epsilon = new ImplicationalSystem(this);
-            epsilon.removeRule(rule);
-            if (epsilon.closure(rule.getPremise()).equals(this.closure(rule.getPremise()))) {
-                this.removeRule(rule);
+        Rule[] rules = this.sigma.toArray(new Rule[this.sigma.size()]);
+        boolean[] masked = new boolean[rules.length];
+        for (int r = 0; r < rules.length; r++) {
+            masked[r] = true;
+            // the rule is deleted when the other rules still give the closure of its premise
+            masked[r] = this.closure(rules[r].getPremise(), masked).containsAll(rules[r].getConclusion());
+        }
+        for (int r = 0; r < rules.length; r++) {
+            if (masked[r]) {
+                this.removeRule(rules[r]);
             }
         }
-        return save.sizeRules() - this.sizeRules();
+        return rules.length - this.sizeRules();
     }
 
     /**
@@ -939,22 +981,32 @@ public class ImplicationalSystem extends ClosureSystem {
      * This treatment is performed in (|Sigma||S|cl) where O(cl) is the
      * computation of a closure.
      *
+     * Since the minimum component has only one rule for each closure of a
+     * premise, the closure of a premise without its rule only uses rules of
+     * smaller closures, and does not depend on the premises already replaced:
+     * all the new premises are computed by masking their rule before any
+     * replacement, without copying the rules.
+     *
      * @return the difference between the number of rules of this component
      *         before and after this treatment
      */
     public int makeCanonicalBasis() {
         this.makeMinimum();
-        ImplicationalSystem save = new ImplicationalSystem(this);
-        for (Rule rule : save.sigma) {
-            ImplicationalSystem epsilon = new ImplicationalSystem(this);
-            epsilon.removeRule(rule);
-            Rule tmp = new Rule(epsilon.closure(rule.getPremise()), rule.getConclusion());
-            if (!rule.equals(tmp)) {
-                this.replaceRule(rule, tmp);
+        Rule[] rules = this.sigma.toArray(new Rule[this.sigma.size()]);
+        Rule[] replaced = new Rule[rules.length];
+        boolean[] masked = new boolean[rules.length];
+        for (int r = 0; r < rules.length; r++) {
+            masked[r] = true;
+            replaced[r] = new Rule(this.closure(rules[r].getPremise(), masked), rules[r].getConclusion());
+            masked[r] = false;
+        }
+        for (int r = 0; r < rules.length; r++) {
+            if (!rules[r].equals(replaced[r])) {
+                this.replaceRule(rules[r], replaced[r]);
             }
         }
         this.makeProper();
-        return save.sizeRules() - this.sizeRules();
+        return rules.length - this.sizeRules();
     }
 
     /*
@@ -1109,22 +1161,76 @@ public class ImplicationalSystem extends ClosureSystem {
      * For non direct ImplicationalSystem, at most |S| iterations are needed,
      * and this tratment is performed in O(|Sigma||S|^2).
      *
+     * Above a few tens of rules, the closure is computed by the LinClosure
+     * algorithm in time linear in the size of the rules, using the compiled
+     * form of this component given by {@link #compile()}, that is discarded
+     * as soon as the rules are modified.
+     *
      * @param x a TreeSet of indexed elements
      *
      * @return the closure of X for this component
      */
     public TreeSet<Comparable> closure(TreeSet<Comparable> x) {
+        return this.closure(x, (boolean[]) null);
+    }
+
+    /**
+     * Builds the closure of a set X of indexed elements without using a rule
+     * of this component.
+     *
+     * The result is the closure of X for this component from which the rule
+     * has been removed, but neither this component nor its rules are copied.
+     *
+     * @param x    a TreeSet of indexed elements
+     * @param rule a rule that is not used
+     *
+     * @return the closure of X for this component without the rule
+     */
+    public TreeSet<Comparable> closure(TreeSet<Comparable> x, Rule rule) {
+        boolean[] masked = null;
+        if (this.sigma.contains(rule)) {
+            masked = new boolean[this.sigma.size()];
+            masked[this.sigma.headSet(rule).size()] = true;
+        }
+        return this.closure(x, masked);
+    }
+
+    /**
+     * Builds the closure of a set X of indexed elements using only some rules
+     * of this component.
+     *
+     * @param x      a TreeSet of indexed elements
+     * @param masked rules that are not used, by position in the order of the rules, null to use all the rules
+     *
+     * @return the closure of X for the rules of this component that are not masked
+     */
+    private TreeSet<Comparable> closure(TreeSet<Comparable> x, boolean[] masked) {
+        if (this.sigma.size() > LIN_CLOSURE_THRESHOLD) {
+            return this.compile().closure(x, masked);
+        }
         TreeSet<Comparable> oldES = new TreeSet<Comparable>();
         // all the attributes are in their own closure
         TreeSet<Comparable> newES = new TreeSet<Comparable>(x);
         do {
             oldES.addAll(newES);
+            int r = 0;
             for (Rule rule : this.sigma) {
-                if (newES.containsAll(rule.getPremise()) || rule.getPremise().isEmpty()) {
+                if ((masked == null || !masked[r])
+                        && (newES.containsAll(rule.getPremise()) || rule.getPremise().isEmpty())) {
                     newES.addAll(rule.getConclusion());
                 }
+                r++;
             }
         } while (!oldES.equals(newES));
         return newES;
     }
+
+    /**
+     * Discards the cached closures and the compiled form of this component.
+     */
+    @Override
+    protected void invalidateClosureCache() {
+        super.invalidateClosureCache();
+        this.compiled = null;
+    }
 }
@@ -0,0 +1,154 @@
+package org.thegalactic.context;
+
+/*
+ * CloseByOneTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.thegalactic.context.storage.DenseBitMatrix;
+import org.thegalactic.lattice.Concept;
+import org.thegalactic.util.ComparableSet;
+
+/**
+ * CloseByOne test.
+ */
+public class CloseByOneTest {
+
+    /**
+     * Get the closed sets of concepts.
+     *
+     * @param concepts concepts
+     *
+     * @return the set of their sets A
+     */
+    private TreeSet<ComparableSet> sets(Vector<Concept> concepts) {
+        TreeSet<ComparableSet> result = new TreeSet<ComparableSet>();
+        for (Concept concept : concepts) {
+            result.add(new ComparableSet(concept.getSetA()));
+        }
+        return result;
+    }
+
+    /**
+     * Test of allClosures method, of class CloseByOne.
+     */
+    @Test
+    public void testAllClosures() {
+        for (int i = 0; i < 5; i++) {
+            Context context = Context.random(30 + i, 8 + i, 4);
+            Vector<Concept> reference = context.allClosures();
+            Vector<Concept> closures = CloseByOne.create(context).allClosures();
+            assertEquals(reference.size(), closures.size());
+            assertEquals(this.sets(reference), this.sets(closures));
+            assertEquals(reference.firstElement().getSetA(), closures.firstElement().getSetA());
+            Context dense = new Context(context).setBitMatrix(DenseBitMatrix.create());
+            assertEquals(this.sets(reference), this.sets(dense.fastClosures()));
+        }
+    }
+
+    /**
+     * Test of allClosures method with more than a word of attributes and observations, of class CloseByOne.
+     */
+    @Test
+    public void testAllClosuresWords() {
+        Context context = new Context();
+        for (int i = 0; i < 70; i++) {
+            context.addToAttributes(i);
+            context.addToObservations("o" + i);
+        }
+        for (int i = 0; i < 70; i++) {
+            for (int j = 0; j <= i; j++) {
+                if (j != 40 || i % 2 == 0) {
+                    context.addExtentIntent("o" + i, j);
+                }
+            }
+        }
+        Vector<Concept> closures = context.fastClosures();
+        assertEquals(this.sets(context.allClosures()), this.sets(closures));
+        assertEquals(closures.size(), this.sets(closures).size());
+    }
+
+    /**
+     * Test of allClosures method on degenerated contexts, of class CloseByOne.
+     */
+    @Test
+    public void testAllClosuresEmpty() {
+        Context context = new Context();
+        assertEquals(1, CloseByOne.create(context).allClosures().size());
+        context.addToAttributes("a");
+        context.addToAttributes("b");
+        Vector<Concept> closures = CloseByOne.create(context).allClosures();
+        assertEquals(1, closures.size());
+        assertEquals(2, closures.firstElement().getSetA().size());
+        context.addToObservations("1");
+        closures = CloseByOne.create(context).allClosures();
+        assertEquals(2, closures.size());
+        assertEquals(0, closures.firstElement().getSetA().size());
+    }
+
+    /**
+     * Test of parallel allClosures method, of class CloseByOne.
+     */
+    @Test
+    public void testAllClosuresParallel() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        Context context = Context.random(40, 10, 4);
+        Vector<Concept> reference = context.allClosures();
+        for (int cutoff = 0; cutoff < 4; cutoff++) {
+            Vector<Concept> closures = CloseByOne.create(context).allClosures(pool, cutoff, false);
+            assertEquals(reference.size(), closures.size());
+            assertEquals(this.sets(reference), this.sets(closures));
+            Vector<Concept> lectic = context.parallelClosures(pool, cutoff, true);
+            for (int i = 0; i < reference.size(); i++) {
+                assertEquals(reference.get(i).getSetA(), lectic.get(i).getSetA());
+            }
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * Test of parallel allClosures method with a negative cutoff, of class CloseByOne.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAllClosuresNegative() {
+        CloseByOne.create(new Context()).allClosures(new ForkJoinPool(1), -1, false);
+    }
+
+    /**
+     * Test of iterator method, of class CloseByOne.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testIterator() {
+        Context context = Context.random(40, 10, 4);
+        Vector<Concept> closures = CloseByOne.create(context).allClosures();
+        Iterator<Concept> iterator = context.closuresIterator();
+        for (Concept closure : closures) {
+            assertTrue(iterator.hasNext());
+            assertEquals(closure.getSetA(), iterator.next().getSetA());
+        }
+        assertFalse(iterator.hasNext());
+        int count = 0;
+        for (Concept closure : CloseByOne.create(context)) {
+            count++;
+        }
+        assertEquals(closures.size(), count);
+        iterator.next();
+    }
+}
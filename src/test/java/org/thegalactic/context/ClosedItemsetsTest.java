@@ -0,0 +1,117 @@
+package org.thegalactic.context;
+
+/*
+ * ClosedItemsetsTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.thegalactic.dgraph.Edge;
+import org.thegalactic.lattice.Concept;
+import org.thegalactic.lattice.ConceptLattice;
+
+/**
+ * ClosedItemsets test.
+ */
+public class ClosedItemsetsTest {
+
+    /**
+     * Test of iterator method, of class ClosedItemsets.
+     */
+    @Test
+    public void testIterator() {
+        for (int i = 0; i < 5; i++) {
+            Context context = Context.random(40, 6, 3);
+            int threshold = 2 * i;
+            TreeSet<String> expected = new TreeSet<String>();
+            for (Concept concept : context.allClosures()) {
+                int support = context.getExtentNb(concept.getSetA());
+                if (support >= Math.max(threshold, 1)) {
+                    expected.add(concept.getSetA() + ":" + support);
+                }
+            }
+            TreeSet<String> result = new TreeSet<String>();
+            int count = 0;
+            for (ClosedItemsets.Itemset itemset : ClosedItemsets.create(context, threshold)) {
+                result.add(itemset.toString());
+                count++;
+            }
+            assertEquals(expected, result);
+            assertEquals(expected.size(), count);
+        }
+    }
+
+    /**
+     * Test of two iterators walked together on many attributes, of class ClosedItemsets.
+     */
+    @Test
+    public void testIteratorsTogether() {
+        Context context = Context.random(150, 30, 6);
+        TreeSet<String> expected = new TreeSet<String>();
+        for (Concept concept : context.fastClosures()) {
+            int support = context.getExtentNb(concept.getSetA());
+            if (support >= 3) {
+                expected.add(concept.getSetA() + ":" + support);
+            }
+        }
+        ClosedItemsets itemsets = ClosedItemsets.create(context, 3);
+        Iterator<ClosedItemsets.Itemset> first = itemsets.iterator();
+        Iterator<ClosedItemsets.Itemset> second = itemsets.iterator();
+        TreeSet<String> result = new TreeSet<String>();
+        while (first.hasNext()) {
+            String itemset = first.next().toString();
+            assertEquals(itemset, second.next().toString());
+            assertTrue(result.add(itemset));
+        }
+        assertFalse(second.hasNext());
+        assertEquals(expected, result);
+    }
+
+    /**
+     * Test of iterator method on an empty context, of class ClosedItemsets.
+     */
+    @Test(expected = NoSuchElementException.class)
+    public void testIteratorEmpty() {
+        Iterator<ClosedItemsets.Itemset> iterator = ClosedItemsets.create(new Context(), 0).iterator();
+        assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    /**
+     * Test of lattice method, of class ClosedItemsets.
+     */
+    @Test
+    public void testLattice() {
+        Context context = Context.random(40, 6, 3);
+        ClosedItemsets itemsets = context.closedItemsets(0.1);
+        int count = 0;
+        for (ClosedItemsets.Itemset itemset : itemsets) {
+            assertTrue(itemset.getSupport() >= 4);
+            count++;
+        }
+        ConceptLattice lattice = itemsets.lattice();
+        assertEquals(count, lattice.getNodes().size());
+        assertEquals(1, lattice.min().size());
+        for (Object e : lattice.getEdges()) {
+            Edge edge = (Edge) e;
+            Concept source = (Concept) edge.getSource();
+            Concept target = (Concept) edge.getTarget();
+            assertTrue(target.getSetA().containsAll(source.getSetA()));
+            assertFalse(source.getSetA().containsAll(target.getSetA()));
+        }
+    }
+}
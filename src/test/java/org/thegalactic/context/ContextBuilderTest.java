@@ -0,0 +1,119 @@
+package org.thegalactic.context;
+
+/*
+ * ContextBuilderTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.thegalactic.context.storage.CompressedBitMatrix;
+import org.thegalactic.context.storage.DenseBitMatrix;
+
+/**
+ * Test the org.thegalactic.context.ContextBuilder class.
+ */
+public class ContextBuilderTest {
+
+    /**
+     * Test of add methods, of class ContextBuilder.
+     */
+    @Test
+    public void testAdd() {
+        ContextBuilder builder = ContextBuilder.create();
+        assertEquals(0, builder.addObservation("1"));
+        assertEquals(1, builder.addObservation("2"));
+        assertEquals(0, builder.addObservation("1"));
+        assertEquals(0, builder.addAttribute("a"));
+        assertEquals(-1, builder.indexOfAttribute("b"));
+        assertEquals(builder, builder.addIncidence(1, 0));
+        assertEquals(2, builder.getObservationsSize());
+        assertEquals(1, builder.getAttributesSize());
+        assertEquals(1, builder.getIncidencesSize());
+    }
+
+    /**
+     * Test of addIncidence method with an unknown code, of class ContextBuilder.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testAddIncidenceUnknown() {
+        ContextBuilder.create().addIncidence(0, 0);
+    }
+
+    /**
+     * Test of build method, of class ContextBuilder.
+     */
+    @Test
+    public void testBuild() {
+        ContextBuilder builder = ContextBuilder.create();
+        for (int i = 0; i < 3000; i++) {
+            builder.addIncidence(Integer.valueOf(i), Integer.valueOf(i % 7));
+        }
+        builder.addAttribute(99);
+        Context context = builder.build();
+        assertEquals(3000, context.getObservations().size());
+        assertEquals(8, context.getAttributes().size());
+        assertTrue(context.containAsIntent(10, 3));
+        assertEquals(429, context.getExtent(3).size());
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        set.add(3);
+        assertEquals(429, context.getExtentNb(set));
+        assertEquals(0, context.getExtent(99).size());
+    }
+
+    /**
+     * Test of build method in a context stored in a bit matrix, of class ContextBuilder.
+     */
+    @Test
+    public void testBuildBitMatrix() {
+        Context context = new Context();
+        context.addToObservations("0");
+        context.setBitMatrix(DenseBitMatrix.create());
+        ContextBuilder.create().addIncidence("1", "a").addIncidence("2", "a").build(context);
+        assertEquals("[0, 1, 2]", context.getObservations().toString());
+        assertEquals("[1, 2]", context.getExtent("a").toString());
+    }
+
+    /**
+     * Test of build method for a sparse context, of class ContextBuilder.
+     */
+    @Test
+    public void testBuildSparse() {
+        ContextBuilder builder = ContextBuilder.create();
+        Context reference = new Context();
+        for (int i = 0; i < 300; i++) {
+            builder.addObservation(i);
+            builder.addAttribute(i);
+            reference.addToObservations(i);
+            reference.addToAttributes(i);
+        }
+        for (int i = 0; i < 300; i++) {
+            builder.addIncidence(Integer.valueOf(i), Integer.valueOf(i % 5));
+            reference.addExtentIntent(i, i % 5);
+            builder.addIncidence(Integer.valueOf(i), Integer.valueOf(5 + i % 7));
+            reference.addExtentIntent(i, 5 + i % 7);
+        }
+        Context context = builder.build();
+        assertTrue(context.getBitMatrix() instanceof CompressedBitMatrix);
+        assertFalse(reference.hasBitMatrix());
+        for (int i = 0; i < 12; i++) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(i);
+            assertEquals(reference.closure(set), context.closure(set));
+            assertEquals(reference.getExtentNb(set), context.getExtentNb(set));
+            assertEquals(reference.getExtent(i), context.getExtent(i));
+        }
+        assertEquals(reference.closure(new TreeSet<Comparable>()), context.closure(new TreeSet<Comparable>()));
+    }
+}
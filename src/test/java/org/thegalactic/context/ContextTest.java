@@ -22,6 +22,10 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.TreeSet;
 
+import org.thegalactic.context.storage.BitMatrix;
+import org.thegalactic.context.storage.BufferBitMatrix;
+import org.thegalactic.context.storage.CompressedBitMatrix;
+import org.thegalactic.context.storage.DenseBitMatrix;
 import org.thegalactic.util.Couple;
 import org.thegalactic.dgraph.Node;
 import org.thegalactic.lattice.Lattice;
@@ -451,4 +455,220 @@ public class ContextTest {
         TreeSet<Node> convex = ctx.getDivisionConvex(subContexts.get(0));
         assertEquals(subContexts.get(0).conceptLattice(true).getNodes().size() + convex.size(), l.getNodes().size());
     }
+
+    /**
+     * Test of the bit matrix storage.
+     */
+    @Test
+    public void testBitMatrix() {
+        Context context = Context.random(40, 4, 3);
+        context.addToAttributes("z");
+        Context dense = new Context(context).setBitMatrix(DenseBitMatrix.create());
+        assertTrue(dense.hasBitMatrix());
+        assertEquals(context.getAttributes(), dense.getAttributes());
+        for (Comparable att : context.getAttributes()) {
+            assertEquals(context.getExtent(att), dense.getExtent(att));
+        }
+        for (Comparable obs : context.getObservations()) {
+            assertEquals(context.getIntent(obs), dense.getIntent(obs));
+        }
+        for (Comparable att : context.getAttributes()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(att);
+            assertEquals(context.closure(set), dense.closure(set));
+            assertEquals(context.getExtentNb(set), dense.getExtentNb(set));
+        }
+        assertEquals(context.closure(new TreeSet<Comparable>()), dense.closure(new TreeSet<Comparable>()));
+        assertEquals(context.allClosures().size(), dense.allClosures().size());
+        TreeSet<Comparable> unknown = new TreeSet<Comparable>();
+        unknown.add("unknown");
+        assertEquals(context.getAttributes(), dense.closure(unknown));
+        assertEquals(0, dense.getExtentNb(unknown));
+    }
+
+    /**
+     * Test of hasExtentNb methods, of class Context.
+     */
+    @Test
+    public void testHasExtentNb() {
+        Context context = Context.random(100, 4, 3);
+        Context dense = new Context(context).setBitMatrix(DenseBitMatrix.create());
+        for (Comparable att : context.getAttributes()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(att);
+            int support = context.getExtentNb(set);
+            assertTrue(context.hasExtentNb(set, support));
+            assertFalse(context.hasExtentNb(set, support + 1));
+            assertTrue(dense.hasExtentNb(set, support));
+            assertFalse(dense.hasExtentNb(set, support + 1));
+            TreeSet<Comparable> extent = context.getExtent(context.getAttributes().first());
+            set.add(context.getAttributes().first());
+            support = context.getExtentNb(set);
+            assertTrue(context.hasExtentNb(extent, att, support));
+            assertFalse(context.hasExtentNb(extent, att, support + 1));
+        }
+        TreeSet<Comparable> unknown = new TreeSet<Comparable>();
+        unknown.add("unknown");
+        assertFalse(context.hasExtentNb(unknown, 1));
+        assertFalse(dense.hasExtentNb(unknown, 1));
+        assertTrue(context.hasExtentNb(unknown, 0));
+    }
+
+    /**
+     * Test of getTidSet method, of class Context.
+     */
+    @Test
+    public void testGetTidSet() {
+        Context context = Context.random(100, 4, 3);
+        Context dense = new Context(context).setBitMatrix(DenseBitMatrix.create());
+        Comparable first = context.getAttributes().first();
+        for (Comparable att : context.getAttributes()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(att);
+            assertEquals(context.getExtentNb(set), context.getTidSet(att).support());
+            assertEquals(context.getTidSet(att).support(), dense.getTidSet(att).support());
+            set.add(first);
+            assertEquals(context.getExtentNb(set), context.getTidSet(first).extend(context.getTidSet(att)).support());
+        }
+        assertEquals(0, context.getTidSet("unknown").support());
+    }
+
+    /**
+     * Test of getIntent method for a tid set, of class Context.
+     */
+    @Test
+    public void testGetIntentTidSet() {
+        Context context = Context.random(100, 4, 3);
+        Context dense = new Context(context).setBitMatrix(DenseBitMatrix.create());
+        Comparable first = context.getAttributes().first();
+        for (Comparable att : context.getAttributes()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(first);
+            set.add(att);
+            assertEquals(context.closure(set), context.getIntent(context.getTidSet(first).extend(context.getTidSet(att))));
+            assertEquals(context.closure(set), dense.getIntent(dense.getTidSet(first).extend(dense.getTidSet(att))));
+        }
+        assertEquals(context.getAttributes(), context.getIntent(context.getTidSet("unknown")));
+    }
+
+    /**
+     * Test of the off-heap bit matrix storage.
+     */
+    @Test
+    public void testDirectBitMatrix() {
+        Context context = Context.random(150, 5, 3);
+        Context direct = new Context(context).setBitMatrix(BufferBitMatrix.createDirect());
+        assertTrue(((BufferBitMatrix) direct.getBitMatrix()).isDirect());
+        for (Comparable obs : context.getObservations()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(obs);
+            assertEquals(context.getIntent(obs), direct.getIntent(obs));
+            assertEquals(context.getIntentNb(set), direct.getIntentNb(set));
+            assertEquals(context.getExtentNb(context.getIntent(obs)), direct.getExtentNb(context.getIntent(obs)));
+            assertEquals(context.closure(context.getIntent(obs)), direct.closure(context.getIntent(obs)));
+        }
+        assertEquals(context.getIntentNb(context.getObservations()), direct.getIntentNb(context.getObservations()));
+        assertEquals(context.allClosures().size(), direct.allClosures().size());
+    }
+
+    /**
+     * Test of the copy and the reversion of a context stored in a bit matrix.
+     */
+    @Test
+    public void testCopyBitMatrix() {
+        Context context = Context.random(100, 20, 4);
+        BitMatrix[] matrices = {DenseBitMatrix.create(), BufferBitMatrix.createDirect(), CompressedBitMatrix.create()};
+        for (BitMatrix matrix : matrices) {
+            Context stored = new Context(context).setBitMatrix(matrix);
+            Context copy = new Context(stored);
+            assertEquals(matrix.getClass(), copy.getBitMatrix().getClass());
+            assertFalse(matrix == copy.getBitMatrix());
+            assertEquals(context.getObservations(), copy.getObservations());
+            assertEquals(context.getAttributes(), copy.getAttributes());
+            for (Comparable obs : context.getObservations()) {
+                assertEquals(context.getIntent(obs), copy.getIntent(obs));
+            }
+            Comparable obs = context.getObservations().first();
+            copy.removeFromObservations(obs);
+            assertTrue(stored.containsObservation(obs));
+            assertEquals(context.getIntent(obs), stored.getIntent(obs));
+            Context reverse = stored.getReverseContext();
+            assertEquals(matrix.getClass(), reverse.getBitMatrix().getClass());
+            assertEquals(context.getObservations(), reverse.getAttributes());
+            for (Comparable att : context.getAttributes()) {
+                assertEquals(context.getExtent(att), reverse.getIntent(att));
+            }
+            assertEquals(context.getIntent(obs), stored.getIntent(obs));
+        }
+        assertTrue(((BufferBitMatrix) new Context(new Context(context).setBitMatrix(BufferBitMatrix.createDirect()))
+                .getBitMatrix()).isDirect());
+    }
+
+    /**
+     * Test of the bit matrix storage modifications.
+     */
+    @Test
+    public void testBitMatrixModifications() {
+        Context context = new Context().setBitMatrix(DenseBitMatrix.create());
+        context.addToAttributes("a");
+        context.addToAttributes("b");
+        context.addToAttributes("c");
+        context.addToObservations("1");
+        context.addToObservations("2");
+        context.addToObservations("3");
+        assertTrue(context.addExtentIntent("1", "a"));
+        assertFalse(context.addExtentIntent("1", "a"));
+        context.addExtentIntent("1", "b");
+        context.addExtentIntent("2", "a");
+        context.addExtentIntent("3", "b");
+        context.addExtentIntent("3", "c");
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        set.add("c");
+        assertEquals("[b, c]", context.closure(set).toString());
+        assertTrue(context.removeFromAttributes("a"));
+        assertEquals("[b]", context.getIntent("1").toString());
+        assertTrue(context.removeFromObservations("1"));
+        assertEquals("[3]", context.getExtent("b").toString());
+        assertTrue(context.removeExtentIntent("3", "c"));
+        assertFalse(context.containAsIntent("3", "c"));
+        context.reverse();
+        assertEquals("[b]", context.getExtent("3").toString());
+        assertEquals("[3]", context.getIntent("b").toString());
+        context.reverse();
+        context.setBitMatrix(null);
+        assertFalse(context.hasBitMatrix());
+        assertEquals("[3]", context.getExtent("b").toString());
+        assertEquals(1, context.getIntentNb(context.getExtent("b")));
+    }
+
+    /**
+     * Test of the incremental maintenance of bit sets.
+     */
+    @Test
+    public void testIncrementalBitSets() {
+        Context context = Context.random(30, 3, 4);
+        context.removeFromObservations("1");
+        context.removeFromObservations("30");
+        context.removeFromAttributes("B1");
+        context.addToObservations("new");
+        context.addExtentIntent("new", "C2");
+        context.removeExtentIntent("2", "C2");
+        for (Comparable att : context.getAttributes()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(att);
+            assertEquals(context.getExtent(att).size(), context.getExtentNb(set));
+        }
+        for (Comparable obs : context.getObservations()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(obs);
+            assertEquals(context.getIntent(obs).size(), context.getIntentNb(set));
+        }
+        context.reverse();
+        for (Comparable att : context.getAttributes()) {
+            TreeSet<Comparable> set = new TreeSet<Comparable>();
+            set.add(att);
+            assertEquals(context.getExtent(att).size(), context.getExtentNb(set));
+        }
+        assertEquals(context.getObservations().size(), context.getObservationDictionary().size());
+    }
 }
@@ -0,0 +1,140 @@
+package org.thegalactic.context.io;
+
+/*
+ * ContextSerializerBinaryTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.thegalactic.context.Context;
+import org.thegalactic.context.storage.BufferBitMatrix;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Test the org.thegalactic.context.io.ContextSerializerBinary class.
+ */
+public class ContextSerializerBinaryTest {
+
+    /**
+     * Test getInstance.
+     */
+    @Test
+    public void testGetInstance() {
+        ContextSerializerBinary serializer = ContextSerializerBinary.getInstance();
+        assertEquals(serializer, ContextSerializerBinary.getInstance());
+    }
+
+    /**
+     * Test write then read of a context.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test
+    public void testReadWrite() throws IOException {
+        File file = File.createTempFile("junit", ".bctx");
+        Context context = new Context();
+        context.addToAttributes("a");
+        context.addToAttributes("b");
+        context.addToAttributes("été");
+        context.addToObservations(1);
+        context.addToObservations(2);
+        context.addToObservations(-3);
+        context.addExtentIntent(1, "a");
+        context.addExtentIntent(1, "b");
+        context.addExtentIntent(2, "a");
+        context.addExtentIntent(-3, "b");
+        context.addExtentIntent(-3, "été");
+        context.save(file.getPath());
+        Context copy = new Context(file.getPath());
+        assertTrue(copy.hasBitMatrix());
+        assertTrue(copy.getBitMatrix() instanceof BufferBitMatrix);
+        assertEquals(context.getObservations(), copy.getObservations());
+        assertEquals(context.getAttributes(), copy.getAttributes());
+        for (Comparable obs : context.getObservations()) {
+            assertEquals(context.getIntent(obs), copy.getIntent(obs));
+        }
+        for (Comparable att : context.getAttributes()) {
+            assertEquals(context.getExtent(att), copy.getExtent(att));
+        }
+        copy.addExtentIntent(1, "été");
+        copy.addToObservations(4);
+        copy.addExtentIntent(4, "a");
+        assertEquals("[1, 2, 4]", copy.getExtent("a").toString());
+        assertEquals("[a, b, été]", copy.getIntent(1).toString());
+        assertFalse(context.getIntent(1).contains("été"));
+        copy.save(file.getPath());
+        Context again = new Context(file.getPath());
+        assertEquals(copy.getExtent("a"), again.getExtent("a"));
+        assertEquals(copy.getIntent(1), again.getIntent(1));
+        file.delete();
+    }
+
+    /**
+     * Test write then read of a context stored in a bit matrix.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test
+    public void testReadWriteBitMatrix() throws IOException {
+        File file = File.createTempFile("junit", ".bctx");
+        Context context = Context.random(100, 70, 5);
+        context.setBitMatrix(BufferBitMatrix.create());
+        context.save(file.getPath());
+        Context copy = new Context(file.getPath());
+        for (Comparable obs : context.getObservations()) {
+            assertEquals(context.getIntent(obs), copy.getIntent(obs));
+        }
+        Comparable obs = context.getObservations().first();
+        assertEquals(context.getExtentNb(context.getIntent(obs)), copy.getExtentNb(copy.getIntent(obs)));
+        Context mapped = new Context(copy);
+        assertEquals(BufferBitMatrix.class, mapped.getBitMatrix().getClass());
+        assertTrue(((BufferBitMatrix) mapped.getBitMatrix()).isDirect());
+        assertEquals(BufferBitMatrix.class, copy.getReverseContext().getBitMatrix().getClass());
+        mapped.removeFromObservations(obs);
+        assertEquals(context.getIntent(obs), copy.getIntent(obs));
+        assertEquals(context.getObservations(), copy.getObservations());
+        file.delete();
+    }
+
+    /**
+     * Test read of an invalid file.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test(expected = IOException.class)
+    public void testReadInvalid() throws IOException {
+        File file = File.createTempFile("junit", ".bctx");
+        FileWriter writer = new FileWriter(file);
+        writer.write("BCTX but not a context");
+        writer.close();
+        try {
+            new Context(file.getPath());
+        } finally {
+            file.delete();
+        }
+    }
+
+    /**
+     * Test read from a buffered reader.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test(expected = IOException.class)
+    public void testReadBuffered() throws IOException {
+        ContextSerializerBinary.getInstance().read(new Context(), new BufferedReader(new StringReader("")));
+    }
+}
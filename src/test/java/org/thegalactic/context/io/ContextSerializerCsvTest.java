@@ -18,6 +18,9 @@ import static org.junit.Assert.fail;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.FileWriter;
 
@@ -257,4 +260,49 @@ public class ContextSerializerCsvTest {
             new File(filename).delete();
         }
     }
+
+    /**
+     * Test read with truthy cells.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test
+    public void testReadTruthy() throws IOException {
+        Context context = new Context();
+        ContextSerializerCsv.getTruthyInstance().read(context,
+                new BufferedReader(new StringReader(",a,b,c,d,e\n1,x,TRUE, 2 ,0,no\n2,0.0,,-1,false,1\n")));
+        assertEquals("[a, b, c]", context.getIntent("1").toString());
+        assertEquals("[c, e]", context.getIntent("2").toString());
+        context = new Context();
+        ContextSerializerCsv.getInstance().read(context, new BufferedReader(new StringReader(",a,b\n1,x,1\n")));
+        assertEquals("[b]", context.getIntent("1").toString());
+    }
+
+    /**
+     * Test read and write of the sparse format.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test
+    public void testSparse() throws IOException {
+        Context context = new Context();
+        ContextSerializerCsv.getSparseInstance().read(context,
+                new BufferedReader(new StringReader("1,a\n1,c\n2,a\n3,\n,e\n")));
+        assertEquals("[1, 2, 3]", context.getObservations().toString());
+        assertEquals("[a, c, e]", context.getAttributes().toString());
+        assertEquals("[1, 2]", context.getExtent("a").toString());
+        StringWriter string = new StringWriter();
+        ContextSerializerCsv.getSparseInstance().write(context, new BufferedWriter(string));
+        assertEquals("1,a\r\n1,c\r\n2,a\r\n3,\r\n\"\",e\r\n", string.toString());
+    }
+
+    /**
+     * Test read of an invalid sparse format.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test(expected = IOException.class)
+    public void testSparseInvalid() throws IOException {
+        ContextSerializerCsv.getSparseInstance().read(new Context(), new BufferedReader(new StringReader("1,a,b\n")));
+    }
 }
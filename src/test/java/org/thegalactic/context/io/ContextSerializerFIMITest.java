@@ -13,7 +13,11 @@ package org.thegalactic.context.io;
  */
 import org.junit.Test;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.StringReader;
 
 import org.thegalactic.context.Context;
 import static org.junit.Assert.assertEquals;
@@ -61,4 +65,69 @@ public class ContextSerializerFIMITest {
             e.printStackTrace();
         }
     }
+
+    /**
+     * Test read from a memory-mapped file.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test
+    public void testReadChannel() throws IOException {
+        File file = File.createTempFile("junit", ".dat");
+        FileWriter writer = new FileWriter(file);
+        writer.write("1 3\r\n2  4 5 \n\n1 2\n3 4 5");
+        writer.close();
+        Context context = new Context(file.getPath());
+        assertEquals("[O1, O2, O3, O4, O5]", context.getObservations().toString());
+        assertEquals("[1, 2, 3, 4, 5]", context.getAttributes().toString());
+        assertEquals("[2, 4, 5]", context.getIntent("O2").toString());
+        assertEquals("[]", context.getIntent("O3").toString());
+        assertEquals("[3, 4, 5]", context.getIntent("O5").toString());
+        file.delete();
+    }
+
+    /**
+     * Test read from a buffered reader.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test
+    public void testReadBuffered() throws IOException {
+        Context context = new Context();
+        ContextSerializerFIMI.getInstance().read(context, new BufferedReader(new StringReader("10 20\n20\n")));
+        assertEquals("[O1, O2]", context.getObservations().toString());
+        assertEquals("[O1, O2]", context.getExtent(20).toString());
+    }
+
+    /**
+     * Test read of an invalid file.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test(expected = IOException.class)
+    public void testReadInvalid() throws IOException {
+        ContextSerializerFIMI.getInstance().read(new Context(), new BufferedReader(new StringReader("1 a\n")));
+    }
+
+    /**
+     * Test read of the largest attribute.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test
+    public void testReadLargest() throws IOException {
+        Context context = new Context();
+        ContextSerializerFIMI.getInstance().read(context, new BufferedReader(new StringReader("2147483647\n")));
+        assertEquals("[2147483647]", context.getAttributes().toString());
+    }
+
+    /**
+     * Test read of an attribute larger than an integer.
+     *
+     * @throws IOException When an IOException occurs
+     */
+    @Test(expected = IOException.class)
+    public void testReadTooLarge() throws IOException {
+        ContextSerializerFIMI.getInstance().read(new Context(), new BufferedReader(new StringReader("2147483648\n")));
+    }
 }
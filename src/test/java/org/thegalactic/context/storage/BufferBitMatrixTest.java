@@ -0,0 +1,162 @@
+package org.thegalactic.context.storage;
+
+/*
+ * BufferBitMatrixTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.nio.LongBuffer;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * BufferBitMatrix test.
+ */
+public class BufferBitMatrixTest {
+
+    /**
+     * Test of create method, of class BufferBitMatrix.
+     */
+    @Test
+    public void testCreate() {
+        BufferBitMatrix matrix = BufferBitMatrix.create();
+        assertEquals(0, matrix.rows());
+        assertEquals(0, matrix.columns());
+    }
+
+    /**
+     * Test of wrap method, of class BufferBitMatrix.
+     */
+    @Test
+    public void testWrap() {
+        LongBuffer rows = LongBuffer.wrap(new long[]{1L, 6L}).asReadOnlyBuffer();
+        LongBuffer columns = LongBuffer.wrap(new long[]{1L, 2L, 2L}).asReadOnlyBuffer();
+        BufferBitMatrix matrix = BufferBitMatrix.wrap(rows, columns, 2, 3);
+        assertTrue(matrix.get(0, 0));
+        assertTrue(matrix.get(1, 2));
+        assertFalse(matrix.get(0, 1));
+        assertArrayEquals(new long[]{6L}, matrix.row(1));
+        assertArrayEquals(new long[]{2L}, matrix.column(2));
+        assertArrayEquals(new long[]{6L}, matrix.closure(new int[]{1}));
+    }
+
+    /**
+     * Test of wrap method with too small buffers, of class BufferBitMatrix.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrapTooSmall() {
+        BufferBitMatrix.wrap(LongBuffer.allocate(1), LongBuffer.allocate(3), 2, 3);
+    }
+
+    /**
+     * Test of set method on read-only buffers, of class BufferBitMatrix.
+     */
+    @Test
+    public void testCopyOnWrite() {
+        long[] words = new long[]{1L, 6L};
+        LongBuffer rows = LongBuffer.wrap(words).asReadOnlyBuffer();
+        LongBuffer columns = LongBuffer.wrap(new long[]{1L, 2L, 2L}).asReadOnlyBuffer();
+        BufferBitMatrix matrix = BufferBitMatrix.wrap(rows, columns, 2, 3);
+        assertEquals(matrix, matrix.set(0, 2, true));
+        assertTrue(matrix.get(0, 2));
+        assertArrayEquals(new long[]{3L}, matrix.column(2));
+        assertEquals(1L, words[0]);
+    }
+
+    /**
+     * Test of addRow and addColumn methods, of class BufferBitMatrix.
+     */
+    @Test
+    public void testAdd() {
+        BufferBitMatrix matrix = BufferBitMatrix.create();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(i, matrix.addRow());
+            assertEquals(i, matrix.addColumn());
+            matrix.set(i, i, true);
+        }
+        for (int i = 0; i < 100; i++) {
+            assertTrue(matrix.get(i, i));
+            assertEquals(1, BitMatrix.cardinality(matrix.row(i)));
+            assertEquals(1, BitMatrix.cardinality(matrix.column(i)));
+        }
+    }
+
+    /**
+     * Test of removeRow and removeColumn methods, of class BufferBitMatrix.
+     */
+    @Test
+    public void testRemove() {
+        LongBuffer rows = LongBuffer.wrap(new long[]{1L, 6L}).asReadOnlyBuffer();
+        LongBuffer columns = LongBuffer.wrap(new long[]{1L, 2L, 2L}).asReadOnlyBuffer();
+        BufferBitMatrix matrix = BufferBitMatrix.wrap(rows, columns, 2, 3);
+        matrix.removeRow(0);
+        assertEquals(1, matrix.rows());
+        assertArrayEquals(new long[]{6L}, matrix.row(0));
+        matrix.removeColumn(0);
+        assertEquals(2, matrix.columns());
+        assertArrayEquals(new long[]{3L}, matrix.row(0));
+        assertArrayEquals(new long[]{1L}, matrix.column(1));
+    }
+
+    /**
+     * Test of transpose method, of class BufferBitMatrix.
+     */
+    @Test
+    public void testTranspose() {
+        BufferBitMatrix matrix = BufferBitMatrix.create();
+        matrix.addRow();
+        matrix.addColumn();
+        matrix.addColumn();
+        matrix.set(0, 1, true);
+        assertEquals(matrix, matrix.transpose());
+        assertEquals(2, matrix.rows());
+        assertEquals(1, matrix.columns());
+        assertTrue(matrix.get(1, 0));
+    }
+
+    /**
+     * Test of createDirect method, of class BufferBitMatrix.
+     */
+    @Test
+    public void testCreateDirect() {
+        BufferBitMatrix matrix = BufferBitMatrix.createDirect();
+        assertTrue(matrix.isDirect());
+        assertFalse(BufferBitMatrix.create().isDirect());
+        for (int i = 0; i < 130; i++) {
+            matrix.addRow();
+            matrix.set(i, matrix.addColumn(), true);
+            matrix.set(i, 0, true);
+        }
+        assertTrue(matrix.isDirect());
+        assertEquals(130, matrix.extentCardinality(new int[]{0}));
+        assertEquals(1, matrix.extentCardinality(new int[]{0, 129}));
+        assertEquals(2, matrix.intentCardinality(new int[]{129}));
+        assertEquals(1, matrix.intentCardinality(new int[]{1, 2}));
+        assertArrayEquals(new long[]{1L, 0L, 0L}, matrix.closure(new int[]{}));
+    }
+
+    /**
+     * Test of rowWord and columnWord methods, of class BufferBitMatrix.
+     */
+    @Test
+    public void testWord() {
+        BufferBitMatrix matrix = BufferBitMatrix.createDirect();
+        matrix.addRow();
+        for (int i = 0; i < 70; i++) {
+            matrix.addColumn();
+        }
+        matrix.set(0, 67, true);
+        assertEquals(8L, matrix.rowWord(0, 1));
+        assertEquals(1L, matrix.columnWord(67, 0));
+    }
+}
@@ -0,0 +1,113 @@
+package org.thegalactic.context.storage;
+
+/*
+ * CompressedBitMatrixTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CompressedBitMatrix test.
+ */
+public class CompressedBitMatrixTest {
+
+    /**
+     * Test of set and get methods, of class CompressedBitMatrix.
+     */
+    @Test
+    public void testSet() {
+        CompressedBitMatrix matrix = CompressedBitMatrix.create();
+        matrix.addRow();
+        matrix.addRow();
+        matrix.addColumn();
+        assertEquals(matrix, matrix.set(1, 0, true));
+        assertTrue(matrix.get(1, 0));
+        assertArrayEquals(new long[]{2L}, matrix.column(0));
+        assertArrayEquals(new long[]{1L}, matrix.row(1));
+        matrix.set(1, 0, false);
+        assertFalse(matrix.get(1, 0));
+    }
+
+    /**
+     * Test of get method outside the matrix, of class CompressedBitMatrix.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutside() {
+        CompressedBitMatrix.create().get(0, 0);
+    }
+
+    /**
+     * Test of removeRow and removeColumn methods, of class CompressedBitMatrix.
+     */
+    @Test
+    public void testRemove() {
+        CompressedBitMatrix matrix = CompressedBitMatrix.create();
+        for (int i = 0; i < 3; i++) {
+            matrix.addRow();
+            matrix.addColumn();
+        }
+        matrix.set(0, 0, true).set(2, 1, true).set(2, 2, true);
+        matrix.removeRow(0);
+        assertEquals(2, matrix.rows());
+        assertArrayEquals(new long[]{6L}, matrix.row(0));
+        assertArrayEquals(new long[]{1L}, matrix.column(1));
+        matrix.removeColumn(0);
+        assertEquals(2, matrix.columns());
+        assertArrayEquals(new long[]{3L}, matrix.row(0));
+        assertArrayEquals(new long[]{1L}, matrix.column(1));
+    }
+
+    /**
+     * Test of extent, intent, closure and cardinality methods, of class CompressedBitMatrix.
+     */
+    @Test
+    public void testClosure() {
+        Random random = new Random(2);
+        CompressedBitMatrix compressed = CompressedBitMatrix.create();
+        DenseBitMatrix dense = DenseBitMatrix.create(300, 40);
+        for (int row = 0; row < 300; row++) {
+            compressed.addRow();
+        }
+        for (int column = 0; column < 40; column++) {
+            compressed.addColumn();
+        }
+        for (int k = 0; k < 1500; k++) {
+            int row = random.nextInt(300);
+            int column = random.nextInt(40);
+            compressed.set(row, column, true);
+            dense.set(row, column, true);
+        }
+        compressed.optimize();
+        for (int column = 0; column < 40; column++) {
+            int[] columns = new int[]{column, (column * 7) % 40};
+            assertArrayEquals(dense.extent(columns), compressed.extent(columns));
+            assertArrayEquals(dense.closure(columns), compressed.closure(columns));
+            assertEquals(dense.extentCardinality(columns), compressed.extentCardinality(columns));
+            assertTrue(compressed.hasExtentCardinality(columns, dense.extentCardinality(columns)));
+            assertFalse(compressed.hasExtentCardinality(columns, dense.extentCardinality(columns) + 1));
+            assertArrayEquals(dense.intent(dense.extent(columns)), compressed.intent(compressed.extent(columns)));
+            assertArrayEquals(dense.column(column), compressed.column(column));
+        }
+        for (int row = 0; row < 300; row++) {
+            int[] rows = new int[]{row, (row * 11) % 300};
+            assertEquals(dense.intentCardinality(rows), compressed.intentCardinality(rows));
+            assertArrayEquals(dense.intent(rows), compressed.intent(rows));
+            assertEquals(dense.rowWord(row, 0), compressed.rowWord(row, 0));
+        }
+        assertArrayEquals(dense.closure(new int[]{}), compressed.closure(new int[]{}));
+        assertEquals(300, compressed.extentCardinality(new int[]{}));
+    }
+}
@@ -0,0 +1,160 @@
+package org.thegalactic.context.storage;
+
+/*
+ * CompressedBitmapTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CompressedBitmap test.
+ */
+public class CompressedBitmapTest {
+
+    /**
+     * Build a bitmap and a bit set from the same random integers.
+     *
+     * @param random  a random generator
+     * @param bound   bound of the integers
+     * @param count   number of integers
+     * @param reference bit set receiving the integers
+     *
+     * @return the bitmap
+     */
+    private CompressedBitmap random(Random random, int bound, int count, BitSet reference) {
+        CompressedBitmap bitmap = CompressedBitmap.create();
+        for (int i = 0; i < count; i++) {
+            int value = random.nextInt(bound);
+            bitmap.add(value);
+            reference.set(value);
+        }
+        return bitmap;
+    }
+
+    /**
+     * Get the integers of a bit set.
+     *
+     * @param set a bit set
+     *
+     * @return the integers in increasing order
+     */
+    private int[] toArray(BitSet set) {
+        int[] result = new int[set.cardinality()];
+        int index = 0;
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            result[index] = i;
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Test of add, remove and contains methods, of class CompressedBitmap.
+     */
+    @Test
+    public void testAdd() {
+        CompressedBitmap bitmap = CompressedBitmap.create();
+        assertTrue(bitmap.isEmpty());
+        assertEquals(bitmap, bitmap.add(3).add(1 << 20).add(3));
+        assertTrue(bitmap.contains(3));
+        assertTrue(bitmap.contains(1 << 20));
+        assertFalse(bitmap.contains(4));
+        assertEquals(2, bitmap.cardinality());
+        assertEquals("[3, 1048576]", bitmap.toString());
+        assertEquals(bitmap, bitmap.remove(1 << 20).remove(5));
+        assertEquals("[3]", bitmap.toString());
+        bitmap.remove(3);
+        assertTrue(bitmap.isEmpty());
+    }
+
+    /**
+     * Test of conversions between containers, of class CompressedBitmap.
+     */
+    @Test
+    public void testContainers() {
+        CompressedBitmap bitmap = CompressedBitmap.create();
+        for (int i = 0; i < 10000; i++) {
+            bitmap.add(2 * i);
+        }
+        assertEquals(10000, bitmap.cardinality());
+        assertTrue(bitmap.contains(19998));
+        assertFalse(bitmap.contains(19999));
+        for (int i = 0; i < 8000; i++) {
+            bitmap.remove(2 * i);
+        }
+        assertEquals(2000, bitmap.cardinality());
+        assertEquals(16000, bitmap.toArray()[0]);
+        CompressedBitmap runs = CompressedBitmap.create();
+        for (int i = 100; i < 70000; i++) {
+            runs.add(i);
+        }
+        runs.optimize();
+        assertEquals(69900, runs.cardinality());
+        assertTrue(runs.contains(65536));
+        assertFalse(runs.contains(99));
+        assertEquals(-1L << 36, runs.word(1));
+        assertEquals(2000, runs.andCardinality(bitmap));
+        assertEquals(2000, runs.and(bitmap).cardinality());
+        runs.remove(200);
+        assertFalse(runs.contains(200));
+        assertEquals(69899, runs.cardinality());
+    }
+
+    /**
+     * Test of and and andCardinality methods, of class CompressedBitmap.
+     */
+    @Test
+    public void testAnd() {
+        Random random = new Random(1);
+        int[][] sizes = {{200000, 100}, {200000, 150000}, {100000, 9000}, {5000, 4000}};
+        for (int[] first : sizes) {
+            for (int[] second : sizes) {
+                BitSet left = new BitSet();
+                BitSet right = new BitSet();
+                CompressedBitmap a = this.random(random, first[0], first[1], left);
+                CompressedBitmap b = this.random(random, second[0], second[1], right);
+                if (first[1] == 4000) {
+                    a.optimize();
+                }
+                left.and(right);
+                assertEquals(left.cardinality(), a.andCardinality(b));
+                assertArrayEquals(this.toArray(left), a.and(b).toArray());
+                b.optimize();
+                assertEquals(left.cardinality(), a.andCardinality(b));
+                assertArrayEquals(this.toArray(left), b.and(a).toArray());
+            }
+        }
+    }
+
+    /**
+     * Test of create, word and toWords methods, of class CompressedBitmap.
+     */
+    @Test
+    public void testWords() {
+        long[] words = new long[]{5L, 0L, 1L << 63};
+        CompressedBitmap bitmap = CompressedBitmap.create(words);
+        assertEquals("[0, 2, 191]", bitmap.toString());
+        assertEquals(5L, bitmap.word(0));
+        assertEquals(0L, bitmap.word(1));
+        assertEquals(0L, bitmap.word(1000));
+        assertArrayEquals(words, bitmap.toWords(192));
+        assertArrayEquals(new long[]{5L, 0L}, bitmap.toWords(100));
+        CompressedBitmap copy = bitmap.copy();
+        copy.add(1);
+        assertFalse(bitmap.contains(1));
+    }
+}
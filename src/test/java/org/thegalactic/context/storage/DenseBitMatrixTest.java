@@ -0,0 +1,162 @@
+package org.thegalactic.context.storage;
+
+/*
+ * DenseBitMatrixTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DenseBitMatrix test.
+ */
+public class DenseBitMatrixTest {
+
+    /**
+     * Test of create method, of class DenseBitMatrix.
+     */
+    @Test
+    public void testCreate() {
+        DenseBitMatrix matrix = DenseBitMatrix.create(3, 70);
+        assertEquals(3, matrix.rows());
+        assertEquals(70, matrix.columns());
+        assertFalse(matrix.get(2, 69));
+    }
+
+    /**
+     * Test of create method with a negative size, of class DenseBitMatrix.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateNegative() {
+        DenseBitMatrix.create(-1, 0);
+    }
+
+    /**
+     * Test of set and get methods, of class DenseBitMatrix.
+     */
+    @Test
+    public void testSet() {
+        DenseBitMatrix matrix = DenseBitMatrix.create(2, 2);
+        assertEquals(matrix, matrix.set(1, 0, true));
+        assertTrue(matrix.get(1, 0));
+        assertArrayEquals(new long[]{2L}, matrix.column(0));
+        assertArrayEquals(new long[]{1L}, matrix.row(1));
+        matrix.set(1, 0, false);
+        assertFalse(matrix.get(1, 0));
+    }
+
+    /**
+     * Test of get method outside the matrix, of class DenseBitMatrix.
+     */
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void testGetOutside() {
+        DenseBitMatrix.create(2, 2).get(2, 0);
+    }
+
+    /**
+     * Test of addRow and addColumn methods, of class DenseBitMatrix.
+     */
+    @Test
+    public void testGrow() {
+        DenseBitMatrix matrix = DenseBitMatrix.create();
+        for (int i = 0; i < 200; i++) {
+            assertEquals(i, matrix.addRow());
+            assertEquals(i, matrix.addColumn());
+            matrix.set(i, i, true);
+        }
+        for (int i = 0; i < 200; i++) {
+            assertTrue(matrix.get(i, i));
+            assertEquals(1, BitMatrix.cardinality(matrix.row(i)));
+            assertEquals(1, BitMatrix.cardinality(matrix.column(i)));
+        }
+    }
+
+    /**
+     * Test of removeRow and removeColumn methods, of class DenseBitMatrix.
+     */
+    @Test
+    public void testRemove() {
+        DenseBitMatrix matrix = DenseBitMatrix.create(3, 3);
+        matrix.set(0, 0, true).set(2, 1, true).set(2, 2, true);
+        matrix.removeRow(0);
+        assertEquals(2, matrix.rows());
+        assertArrayEquals(new long[]{6L}, matrix.row(0));
+        assertArrayEquals(new long[]{0L}, matrix.row(1));
+        matrix.removeColumn(1);
+        assertEquals(2, matrix.columns());
+        assertArrayEquals(new long[]{2L}, matrix.row(0));
+        assertArrayEquals(new long[]{1L}, matrix.column(1));
+    }
+
+    /**
+     * Test of transpose method, of class DenseBitMatrix.
+     */
+    @Test
+    public void testTranspose() {
+        DenseBitMatrix matrix = DenseBitMatrix.create(2, 3);
+        matrix.set(1, 2, true).transpose();
+        assertEquals(3, matrix.rows());
+        assertEquals(2, matrix.columns());
+        assertTrue(matrix.get(2, 1));
+    }
+
+    /**
+     * Test of extent, intent and closure methods, of class BitMatrix.
+     */
+    @Test
+    public void testClosure() {
+        DenseBitMatrix matrix = DenseBitMatrix.create(3, 3);
+        matrix.set(0, 0, true).set(0, 1, true).set(1, 0, true).set(2, 1, true).set(2, 2, true);
+        assertArrayEquals(new long[]{3L}, matrix.extent(new int[]{0}));
+        assertArrayEquals(new long[]{7L}, matrix.extent(new int[]{}));
+        assertArrayEquals(new long[]{2L}, matrix.intent(new long[]{5L}));
+        assertArrayEquals(new long[]{6L}, matrix.closure(new int[]{2}));
+        assertArrayEquals(new long[]{7L}, matrix.closure(new int[]{0, 2}));
+    }
+
+    /**
+     * Test of the static methods, of class BitMatrix.
+     */
+    @Test
+    public void testWords() {
+        assertEquals(2, BitMatrix.words(65));
+        assertArrayEquals(new long[]{-1L, 1L}, BitMatrix.ones(65));
+        long[] words = new long[]{0L, 4L};
+        assertEquals(66, BitMatrix.nextSetBit(words, 0));
+        assertEquals(-1, BitMatrix.nextSetBit(words, 67));
+        assertEquals(1, BitMatrix.cardinality(words));
+    }
+
+    /**
+     * Test of extentCardinality and intentCardinality methods, of class DenseBitMatrix.
+     */
+    @Test
+    public void testCardinality() {
+        DenseBitMatrix matrix = DenseBitMatrix.create(70, 3);
+        for (int row = 0; row < 70; row++) {
+            matrix.set(row, row % 3, true);
+            matrix.set(row, 2, true);
+        }
+        assertEquals(70, matrix.extentCardinality(new int[]{2}));
+        assertEquals(24, matrix.extentCardinality(new int[]{0, 2}));
+        assertEquals(0, matrix.extentCardinality(new int[]{0, 1}));
+        assertEquals(70, matrix.extentCardinality(new int[]{}));
+        assertEquals(1, matrix.intentCardinality(new int[]{0, 1}));
+        assertEquals(3, matrix.intentCardinality(new int[]{}));
+        assertArrayEquals(new long[]{5L}, matrix.closure(new int[]{0}));
+        assertTrue(matrix.hasExtentCardinality(new int[]{0, 2}, 24));
+        assertFalse(matrix.hasExtentCardinality(new int[]{0, 2}, 25));
+        assertTrue(matrix.hasExtentCardinality(new int[]{0, 1}, 0));
+        assertFalse(matrix.hasExtentCardinality(new int[]{}, 71));
+    }
+}
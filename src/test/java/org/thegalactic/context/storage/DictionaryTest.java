@@ -0,0 +1,77 @@
+package org.thegalactic.context.storage;
+
+/*
+ * DictionaryTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.Arrays;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Dictionary test.
+ */
+public class DictionaryTest {
+
+    /**
+     * Test of create method, of class Dictionary.
+     */
+    @Test
+    public void testCreate() {
+        Dictionary dictionary = Dictionary.create(Arrays.asList("a", "b", "c"));
+        assertEquals(3, dictionary.size());
+        assertEquals("b", dictionary.get(1));
+        assertEquals(2, dictionary.indexOf("c"));
+        assertEquals(-1, dictionary.indexOf("d"));
+    }
+
+    /**
+     * Test of add method, of class Dictionary.
+     */
+    @Test
+    public void testAdd() {
+        Dictionary dictionary = Dictionary.create();
+        assertEquals(0, dictionary.add("a"));
+        assertEquals(1, dictionary.add("b"));
+        assertEquals(0, dictionary.add("a"));
+        assertTrue(dictionary.contains("b"));
+    }
+
+    /**
+     * Test of remove method, of class Dictionary.
+     */
+    @Test
+    public void testRemove() {
+        Dictionary dictionary = Dictionary.create(Arrays.asList("a", "b", "c"));
+        assertEquals(0, dictionary.remove("a"));
+        assertEquals(-1, dictionary.remove("a"));
+        assertEquals(0, dictionary.indexOf("c"));
+        assertEquals(1, dictionary.remove("b"));
+        assertEquals(Arrays.asList("c"), dictionary.getElements());
+    }
+
+    /**
+     * Test of encode and decode methods, of class Dictionary.
+     */
+    @Test
+    public void testEncodeDecode() {
+        Dictionary dictionary = Dictionary.create(Arrays.asList("c", "b", "a"));
+        TreeSet<Comparable> set = new TreeSet<Comparable>(Arrays.asList("a", "c"));
+        assertArrayEquals(new int[]{2, 0}, dictionary.encode(set));
+        assertEquals(set, dictionary.decode(new long[]{5L}));
+        set.add("d");
+        assertNull(dictionary.encode(set));
+    }
+}
@@ -0,0 +1,132 @@
+package org.thegalactic.context.storage;
+
+/*
+ * TidSetTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.BitSet;
+import java.util.Random;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * TidSet test.
+ */
+public class TidSetTest {
+
+    /**
+     * Get the integers of a bit set.
+     *
+     * @param set a bit set
+     *
+     * @return the integers in increasing order
+     */
+    private int[] toArray(BitSet set) {
+        int[] result = new int[set.cardinality()];
+        int index = 0;
+        for (int i = set.nextSetBit(0); i >= 0; i = set.nextSetBit(i + 1)) {
+            result[index] = i;
+            index++;
+        }
+        return result;
+    }
+
+    /**
+     * Test of create methods, of class TidSet.
+     */
+    @Test
+    public void testCreate() {
+        TidSet tids = TidSet.create(new long[]{5L, 1L << 63});
+        assertEquals(3, tids.support());
+        assertFalse(tids.isDiffset());
+        assertArrayEquals(new int[]{0, 2, 127}, tids.toArray());
+        assertEquals("[1, 4]", TidSet.create(new int[]{1, 4}).toString());
+    }
+
+    /**
+     * Test of create method with unsorted indices, of class TidSet.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateUnsorted() {
+        TidSet.create(new int[]{4, 1});
+    }
+
+    /**
+     * Test of extend method, of class TidSet.
+     */
+    @Test
+    public void testExtend() {
+        TidSet a = TidSet.create(new int[]{0, 1, 2, 3, 4, 5});
+        TidSet b = TidSet.create(new int[]{0, 1, 2, 3, 5});
+        TidSet c = TidSet.create(new int[]{1, 3});
+        TidSet ab = a.extend(b);
+        assertTrue(ab.isDiffset());
+        assertEquals(1, ab.size());
+        assertEquals(5, ab.support());
+        TidSet ac = a.extend(c);
+        assertFalse(ac.isDiffset());
+        assertArrayEquals(new int[]{1, 3}, ac.toArray());
+        TidSet abc = ab.extend(ac);
+        assertFalse(abc.isDiffset());
+        assertArrayEquals(new int[]{1, 3}, abc.toArray());
+        assertArrayEquals(new int[]{1, 3}, ac.extend(ab).toArray());
+    }
+
+    /**
+     * Test of extend method with a diffset of another parent, of class TidSet.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testExtendOther() {
+        TidSet a = TidSet.create(new int[]{0, 1, 2});
+        TidSet b = TidSet.create(new int[]{0, 1});
+        a.extend(b).extend(b);
+    }
+
+    /**
+     * Test of extend method down a search tree, of class TidSet.
+     */
+    @Test
+    public void testSearchTree() {
+        Random random = new Random(3);
+        int rows = 500;
+        BitSet[] columns = new BitSet[6];
+        TidSet[] level = new TidSet[columns.length];
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = new BitSet(rows);
+            for (int row = 0; row < rows; row++) {
+                if (random.nextInt(10) < 9) {
+                    columns[i].set(row);
+                }
+            }
+            level[i] = TidSet.create(this.toArray(columns[i]));
+        }
+        BitSet prefix = (BitSet) columns[0].clone();
+        TidSet current = level[0];
+        for (int depth = 1; depth < columns.length; depth++) {
+            TidSet[] next = new TidSet[columns.length];
+            for (int i = depth; i < columns.length; i++) {
+                next[i] = level[depth - 1].extend(level[i]);
+                BitSet expected = (BitSet) prefix.clone();
+                expected.and(columns[i]);
+                assertEquals(expected.cardinality(), next[i].support());
+                assertArrayEquals(this.toArray(expected), next[i].toArray());
+            }
+            prefix.and(columns[depth]);
+            current = next[depth];
+            level = next;
+        }
+        assertTrue(current.isDiffset());
+        assertEquals(prefix.cardinality(), current.support());
+    }
+}
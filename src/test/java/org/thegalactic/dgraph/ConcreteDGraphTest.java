@@ -368,6 +368,30 @@ public class ConcreteDGraphTest {
         assertTrue(graph.getPredecessorEdges(target).isEmpty());
     }
 
+    /**
+     * Test the removeNode method on a node with several edges.
+     */
+    @Test
+    public void testRemoveNodeEdges() {
+        Node source = new Node();
+        Node middle = new Node();
+        Node target = new Node();
+        ConcreteDGraph graph = new ConcreteDGraph();
+        graph.addNode(source);
+        graph.addNode(middle);
+        graph.addNode(target);
+        graph.addEdge(source, middle);
+        graph.addEdge(source, target);
+        graph.addEdge(middle, target);
+        graph.addEdge(target, middle);
+        assertTrue(graph.removeNode(middle));
+        assertEquals(1, graph.getEdges().size());
+        assertTrue(graph.containsEdge(source, target));
+        assertEquals(1, graph.getSuccessorEdges(source).size());
+        assertEquals(1, graph.getPredecessorEdges(target).size());
+        assertTrue(graph.getSuccessorEdges(target).isEmpty());
+    }
+
     /**
      * Test the removeNodes method.
      */
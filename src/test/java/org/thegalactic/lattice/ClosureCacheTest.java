@@ -0,0 +1,87 @@
+package org.thegalactic.lattice;
+
+/*
+ * ClosureCacheTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.thegalactic.util.ComparableSet;
+
+/**
+ * Test the org.thegalactic.lattice.ClosureCache class.
+ */
+public class ClosureCacheTest {
+
+    /**
+     * Build a set.
+     *
+     * @param elements elements of the set
+     *
+     * @return the set
+     */
+    private TreeSet<Comparable> set(Comparable... elements) {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        for (Comparable element : elements) {
+            set.add(element);
+        }
+        return set;
+    }
+
+    /**
+     * Test of create method with a wrong capacity, of class ClosureCache.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateWrongCapacity() {
+        ClosureCache.create(0);
+    }
+
+    /**
+     * Test of get and put methods, of class ClosureCache.
+     */
+    @Test
+    public void testGetPut() {
+        ClosureCache cache = ClosureCache.create(2);
+        assertEquals(2, cache.getCapacity());
+        assertNull(cache.get(this.set("a")));
+        TreeSet<Comparable> closure = this.set("a", "b");
+        assertEquals(cache, cache.put(this.set("a"), closure));
+        closure.add("c");
+        TreeSet<Comparable> cached = cache.get(new ComparableSet(this.set("a")));
+        assertEquals(this.set("a", "b"), cached);
+        cached.add("d");
+        assertEquals(this.set("a", "b"), cache.get(this.set("a")));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    /**
+     * Test of the eviction of the least recently used entry, of class ClosureCache.
+     */
+    @Test
+    public void testEviction() {
+        ClosureCache cache = ClosureCache.create(2);
+        cache.put(this.set("a"), this.set("a"));
+        cache.put(this.set("b"), this.set("b"));
+        cache.get(this.set("a"));
+        cache.put(this.set("c"), this.set("c"));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(this.set("b")));
+        assertEquals(this.set("a"), cache.get(this.set("a")));
+        assertEquals(this.set("c"), cache.get(this.set("c")));
+        assertEquals(cache, cache.clear());
+        assertEquals(0, cache.size());
+        assertEquals(3, cache.getHits());
+    }
+}
@@ -17,8 +17,12 @@ import org.junit.Test;
 
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 
+import java.util.Iterator;
 import java.util.TreeSet;
+import java.util.Vector;
 
 import org.thegalactic.util.ComparableSet;
 import org.thegalactic.context.Context;
@@ -82,6 +86,49 @@ public class ClosureSystemTest {
         assertEquals(context.closedSetLattice(false).getEdges().size(), ConceptLattice.completeLattice(context).getEdges().size());
     }
 
+    /**
+     * Test for the closuresIterator method for an implicational system.
+     */
+    @Test
+    public void testClosuresIteratorIS() {
+        ImplicationalSystem is = ImplicationalSystem.random(7, 4);
+        Vector<Concept> closures = is.allClosures();
+        Iterator<Concept> iterator = is.closuresIterator();
+        for (Concept closure : closures) {
+            assertTrue(iterator.hasNext());
+            assertEquals(closure.getSetA(), iterator.next().getSetA());
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    /**
+     * Test for the allClosures method when the empty set is not closed.
+     *
+     * Next Closure wraps around after the whole set to a set that is not
+     * closed, which is not returned.
+     */
+    @Test
+    public void testallClosuresNotClosedEmptySet() {
+        Context context = new Context();
+        context.addToAttributes("a");
+        context.addToAttributes("b");
+        context.addToAttributes("c");
+        context.addToObservations("1");
+        context.addToObservations("2");
+        context.addExtentIntent("1", "a");
+        context.addExtentIntent("1", "b");
+        context.addExtentIntent("2", "a");
+        context.addExtentIntent("2", "c");
+        Vector<Concept> closures = context.allClosures();
+        assertEquals(4, closures.size());
+        assertEquals("[a]", closures.firstElement().getSetA().toString());
+        assertEquals(context.getSet(), closures.lastElement().getSetA());
+        for (Concept closure : closures) {
+            assertEquals(context.closure(closure.getSetA()), closure.getSetA());
+        }
+        assertTrue(context.nextClosure(closures.lastElement()).getSetA().isEmpty());
+    }
+
     /**
      * Test for the closedSetLattice method from an implication system.
      *
@@ -210,4 +257,79 @@ public class ClosureSystemTest {
         assertEquals(context.precedenceGraph().getNodes().size(), 3);
         assertEquals(context.precedenceGraph().getEdges().size(), 1);
     }
+
+    /**
+     * Test of the cache of closures for Context.
+     */
+    @Test
+    public void testClosureCacheCTX() {
+        Context context = Context.random(20, 4, 3);
+        assertNull(context.getClosureCache());
+        ConceptLattice reference = context.closedSetLattice(true);
+        assertEquals(context, context.setClosureCache(100));
+        ClosureCache cache = context.getClosureCache();
+        ConceptLattice lattice = context.closedSetLattice(true);
+        assertEquals(reference.getNodes().size(), lattice.getNodes().size());
+        assertEquals(reference.getEdges().size(), lattice.getEdges().size());
+        assertTrue(cache.getHits() > 0);
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        set.add(context.getAttributes().first());
+        assertEquals(context.closure(set), context.cachedClosure(set));
+        assertEquals(context.closure(set), context.cachedClosure(set));
+        context.addToObservations("new");
+        context.addExtentIntent("new", context.getAttributes().first());
+        assertEquals(0, cache.size());
+        assertEquals(set, context.cachedClosure(set));
+        context.setClosureCache(0);
+        assertNull(context.getClosureCache());
+    }
+
+    /**
+     * Test of the cache of closures for ImplicationalSystem.
+     */
+    @Test
+    public void testClosureCacheIS() {
+        ImplicationalSystem is = new ImplicationalSystem();
+        is.addElement('a');
+        is.addElement('b');
+        is.setClosureCache(10);
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        set.add('a');
+        assertEquals(set, is.cachedClosure(set));
+        assertEquals(set, is.cachedClosure(set));
+        assertEquals(1, is.getClosureCache().getHits());
+        Rule r = new Rule();
+        r.addToPremise('a');
+        r.addToConclusion('b');
+        is.addRule(r);
+        assertEquals(is.getSet(), is.cachedClosure(set));
+        is.removeRule(r);
+        assertEquals(set, is.cachedClosure(set));
+    }
+
+    /**
+     * Test of canonicalBasis method, of class ClosureSystem.
+     */
+    @Test
+    public void testCanonicalBasis() {
+        for (int i = 0; i < 3; i++) {
+            ImplicationalSystem is = ImplicationalSystem.random(8, 15);
+            ImplicationalSystem basis = is.canonicalBasis();
+            is.makeCanonicalBasis();
+            assertEquals(is.getRules(), basis.getRules());
+        }
+        for (int i = 0; i < 3; i++) {
+            Context context = Context.random(20, 8, 3);
+            ImplicationalSystem basis = context.canonicalBasis();
+            assertTrue(basis.isCanonicalBasis());
+            Vector<Concept> closures = context.allClosures();
+            assertEquals(closures.size(), basis.allClosures().size());
+            for (Concept concept : closures) {
+                assertEquals(concept.getSetA(), basis.closure(concept.getSetA()));
+            }
+            for (Rule rule : basis.getRules()) {
+                assertEquals(context.closure(rule.getPremise()), basis.closure(rule.getPremise()));
+            }
+        }
+    }
 }
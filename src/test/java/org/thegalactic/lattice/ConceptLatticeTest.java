@@ -16,16 +16,28 @@ import org.junit.Test;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
+import java.util.ArrayList;
 import java.util.TreeSet;
 import java.util.Vector;
 import java.util.Scanner;
+import java.util.TreeMap;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.io.File;
 
 import org.thegalactic.util.ComparableSet;
 import org.thegalactic.dgraph.DAGraph;
+import org.thegalactic.dgraph.Edge;
 import org.thegalactic.dgraph.Node;
 import org.thegalactic.context.Context;
+import org.thegalactic.context.storage.DenseBitMatrix;
 
 /**
  * Test of class ConceptLattice.
@@ -179,6 +191,27 @@ public class ConceptLatticeTest {
         assertFalse(cl.getConcept(new ComparableSet(), new ComparableSet()) == null);
     }
 
+    /**
+     * Test of getConcept method by set A, of class ConceptLattice.
+     */
+    @Test
+    public void testGetConceptSetA() {
+        ConceptLattice cl = new ConceptLattice();
+        TreeSet<Comparable> setA = new TreeSet<Comparable>();
+        setA.add("a");
+        Concept a = new Concept(setA, false);
+        Concept b = new Concept(new TreeSet<Comparable>(), false);
+        cl.addNode(b);
+        assertEquals(null, cl.getConcept(setA));
+        cl.addNode(a);
+        assertEquals(a, cl.getConcept(setA));
+        assertEquals(b, cl.getConcept(new TreeSet<Comparable>()));
+        cl.removeNode(a);
+        assertEquals(null, cl.getConcept(setA));
+        cl.removeAllSetA();
+        assertEquals(null, cl.getConcept(new TreeSet<Comparable>()));
+    }
+
     /**
      * Test of removeAllSetA method, of class ConceptLattice.
      */
@@ -337,7 +370,11 @@ public class ConceptLatticeTest {
         dag.addEdge(node1, node2);
         ConceptLattice result = ConceptLattice.idealLattice(dag);
         assertEquals(3, result.getNodes().size());
-        assertTrue(result.getEdges().isEmpty());
+        assertEquals(2, result.getEdges().size());
+        for (Object e : result.getEdges()) {
+            Edge edge = (Edge) e;
+            assertEquals(((Concept) edge.getSource()).getSetA().size() + 1, ((Concept) edge.getTarget()).getSetA().size());
+        }
     }
 
     /**
@@ -363,6 +400,232 @@ public class ConceptLatticeTest {
         assertEquals(9, result.getEdges().size());
     }
 
+    /**
+     * Test of completeLattice method with the fast enumeration, of class ConceptLattice.
+     */
+    @Test
+    public void testCompleteLatticeFast() {
+        Context context = Context.random(20, 7, 3);
+        ConceptLattice reference = ConceptLattice.completeLattice(context);
+        ConceptLattice result = ConceptLattice.completeLattice(context, true);
+        assertEquals(reference.getNodes().size(), result.getNodes().size());
+        assertEquals(reference.getEdges().size(), result.getEdges().size());
+    }
+
+    /**
+     * Test of completeLattice method with the parallel enumeration, of class ConceptLattice.
+     */
+    @Test
+    public void testCompleteLatticeParallel() {
+        Context context = Context.random(20, 7, 3);
+        ForkJoinPool pool = new ForkJoinPool(2);
+        ConceptLattice reference = ConceptLattice.completeLattice(context);
+        ConceptLattice result = ConceptLattice.completeLattice(context, pool, 2);
+        pool.shutdown();
+        assertEquals(reference.getNodes().size(), result.getNodes().size());
+        assertEquals(reference.getEdges().size(), result.getEdges().size());
+    }
+
+    /**
+     * Test of coverLattice method, of class ConceptLattice.
+     */
+    @Test
+    public void testCoverLattice() {
+        for (int i = 0; i < 3; i++) {
+            Context context = Context.random(25, 6, 3);
+            ConceptLattice result = ConceptLattice.coverLattice(context, i > 0);
+            TreeSet<String> covers = new TreeSet<String>();
+            for (Object e : result.getEdges()) {
+                Edge edge = (Edge) e;
+                covers.add(((Concept) edge.getSource()).getSetA() + "->" + ((Concept) edge.getTarget()).getSetA());
+            }
+            TreeSet<String> expected = new TreeSet<String>();
+            for (Object e : ConceptLattice.diagramLattice(context).getEdges()) {
+                Edge edge = (Edge) e;
+                expected.add(((Concept) edge.getSource()).getSetA() + "->" + ((Concept) edge.getTarget()).getSetA());
+            }
+            assertEquals(expected, covers);
+            result.transitiveClosure();
+            result.reflexiveClosure();
+            int pairs = 0;
+            for (Object source : result.getNodes()) {
+                for (Object target : result.getNodes()) {
+                    if (((Concept) target).containsAllInA(((Concept) source).getSetA())) {
+                        pairs++;
+                    }
+                }
+            }
+            assertEquals(pairs, result.getEdges().size());
+        }
+    }
+
+    /**
+     * Get the sets A and B of the concepts of a lattice, and its edges.
+     *
+     * @param lattice a lattice of concepts
+     *
+     * @return the description of the concepts and of the edges
+     */
+    private TreeSet<String> description(ConceptLattice lattice) {
+        TreeSet<String> result = new TreeSet<String>();
+        for (Object node : lattice.getNodes()) {
+            Concept concept = (Concept) node;
+            result.add(concept.getSetA() + " " + concept.getSetB());
+        }
+        for (Object e : lattice.getEdges()) {
+            Edge edge = (Edge) e;
+            result.add(((Concept) edge.getSource()).getSetA() + "->" + ((Concept) edge.getTarget()).getSetA());
+        }
+        return result;
+    }
+
+    /**
+     * Test of addObservation method, of class ConceptLattice.
+     */
+    @Test
+    public void testAddObservation() {
+        Context context = Context.random(10, 4, 3);
+        ConceptLattice result = context.conceptLattice(true);
+        Random random = new Random(1);
+        for (int i = 0; i < 15; i++) {
+            TreeSet<Comparable> intent = new TreeSet<Comparable>();
+            for (Comparable att : context.getAttributes()) {
+                if (random.nextInt(3) > 0) {
+                    intent.add(att);
+                }
+            }
+            if (i % 5 == 4) {
+                intent.add("new" + i);
+            }
+            assertTrue(result.addObservation(context, "obs" + i, intent));
+            assertTrue(result.hasDependencyGraph());
+            assertEquals(this.description(context.conceptLattice(true)), this.description(result));
+            if (i % 3 == 2) {
+                assertEquals(this.valuations(ConceptLattice.diagramLattice(context)), this.valuations(result));
+            }
+        }
+        assertFalse(result.addObservation(context, "obs0", new TreeSet<Comparable>()));
+        assertEquals(result.getNodes().size(), ConceptLattice.completeLattice(context).getNodes().size());
+    }
+
+    /**
+     * Test of removeObservation method, of class ConceptLattice.
+     */
+    @Test
+    public void testRemoveObservation() {
+        Context context = Context.random(15, 4, 3);
+        ConceptLattice result = context.conceptLattice(true);
+        for (int i = 1; i <= 15; i += 2) {
+            assertTrue(result.removeObservation(context, Integer.toString(i)));
+            assertTrue(result.hasDependencyGraph());
+            assertEquals(this.description(context.conceptLattice(true)), this.description(result));
+            assertEquals(this.valuations(ConceptLattice.diagramLattice(context)), this.valuations(result));
+        }
+        assertFalse(result.removeObservation(context, "1"));
+    }
+
+    /**
+     * Test of removeObservation and removeAttribute methods without dependency graph, of class ConceptLattice.
+     */
+    @Test
+    public void testRemoveWithoutDependencyGraph() {
+        Context context = Context.random(15, 4, 3);
+        ConceptLattice result = context.conceptLattice(true);
+        result.setDependencyGraph(null);
+        assertTrue(result.removeObservation(context, "1"));
+        assertTrue(result.removeAttribute(context, context.getAttributes().first()));
+        assertFalse(result.hasDependencyGraph());
+        assertEquals(this.description(context.conceptLattice(true)), this.description(result));
+    }
+
+    /**
+     * Test of removeAttribute method, of class ConceptLattice.
+     */
+    @Test
+    public void testRemoveAttribute() {
+        Context context = Context.random(15, 4, 3);
+        ConceptLattice result = context.conceptLattice(true);
+        for (Comparable attribute : new TreeSet<Comparable>(context.getAttributes())) {
+            assertTrue(result.removeAttribute(context, attribute));
+            assertTrue(result.hasDependencyGraph());
+            assertEquals(this.description(context.conceptLattice(true)), this.description(result));
+            assertEquals(this.valuations(ConceptLattice.diagramLattice(context)), this.valuations(result));
+        }
+        assertEquals(1, result.getNodes().size());
+        assertFalse(result.removeAttribute(context, "A1"));
+    }
+
+    /**
+     * Get the valuations of the edges of a dependency graph.
+     *
+     * @param lattice a lattice with a dependency graph
+     *
+     * @return the valuation of each edge indexed by its ends
+     */
+    private TreeMap<String, String> valuations(ConceptLattice lattice) {
+        TreeMap<String, String> result = new TreeMap<String, String>();
+        for (Object e : lattice.getDependencyGraph().getEdges()) {
+            Edge edge = (Edge) e;
+            result.put(edge.getSource().getContent() + "->" + edge.getTarget().getContent(), edge.getContent().toString());
+        }
+        return result;
+    }
+
+    /**
+     * Test of diagramLattice method with an executor, of class ConceptLattice.
+     */
+    @Test
+    public void testDiagramLatticeExecutor() {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        for (int i = 0; i < 3; i++) {
+            Context context = Context.random(25, 5, 3);
+            ConceptLattice reference = ConceptLattice.diagramLattice(context);
+            ConceptLattice result = ConceptLattice.diagramLattice(context, executor);
+            assertEquals(reference.getNodes().size(), result.getNodes().size());
+            assertEquals(reference.getEdges().size(), result.getEdges().size());
+            assertEquals(this.valuations(reference), this.valuations(result));
+            assertEquals(ConceptLattice.completeLattice(context).getNodes().size(), result.getNodes().size());
+            assertEquals(this.description(reference), this.description(result));
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Test of indexIfAbsent method from several threads, of class ConceptLattice.
+     *
+     * @throws Exception When a task fails
+     */
+    @Test
+    public void testIndexIfAbsent() throws Exception {
+        final ConceptLattice lattice = new ConceptLattice();
+        final TreeSet<Comparable> setA = new TreeSet<Comparable>();
+        setA.add("a");
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        ArrayList<Future<Concept>> results = new ArrayList<Future<Concept>>();
+        for (int i = 0; i < 16; i++) {
+            results.add(executor.submit(new Callable<Concept>() {
+                public Concept call() {
+                    Concept concept = new Concept(new TreeSet<Comparable>(setA), false);
+                    Concept indexed = lattice.indexIfAbsent(concept);
+                    if (indexed == null) {
+                        return concept;
+                    }
+                    return null;
+                }
+            }));
+        }
+        Concept winner = null;
+        for (Future<Concept> result : results) {
+            Concept concept = result.get();
+            if (concept != null) {
+                assertNull(winner);
+                winner = concept;
+            }
+        }
+        executor.shutdown();
+        assertSame(winner, lattice.indexIfAbsent(new Concept(setA, false)));
+    }
+
     /**
      * Test of diagramLattice method, of class ConceptLattice.
      */
@@ -493,4 +756,35 @@ public class ConceptLatticeTest {
         ConceptLattice l = cs.conceptLattice(true);
         assertEquals(l.getNodes().size(), l.iceberg((float) 0.0).getNodes().size());
     }
+
+    /**
+     * Test diagramIceberg method.
+     */
+    @Test
+    public void testDiagramIceberg() {
+        Context context = Context.random(40, 5, 4);
+        ConceptLattice full = ConceptLattice.diagramLattice(context);
+        ConceptLattice iceberg = ConceptLattice.diagramIceberg(context, 0.2);
+        ConceptLattice dense = ConceptLattice.diagramIceberg(new Context(context).setBitMatrix(DenseBitMatrix.create()), 0.2);
+        assertEquals(iceberg.getNodes().size(), dense.getNodes().size());
+        assertEquals(iceberg.getEdges().size(), dense.getEdges().size());
+        int threshold = (int) (0.2 * context.getObservations().size());
+        int nodes = 0;
+        for (Object node : full.getNodes()) {
+            if (context.getExtentNb(((Concept) node).getSetA()) >= threshold) {
+                nodes++;
+                assertTrue(iceberg.getNode((Concept) node) != null);
+            }
+        }
+        assertEquals(nodes, iceberg.getNodes().size());
+        int edges = 0;
+        for (Object node : full.getNodes()) {
+            for (Object successor : full.getSuccessorNodes((Node) node)) {
+                if (context.getExtentNb(((Concept) successor).getSetA()) >= threshold) {
+                    edges++;
+                }
+            }
+        }
+        assertEquals(edges, iceberg.getEdges().size());
+    }
 }
@@ -554,6 +554,19 @@ public class ConceptTest {
         assertTrue(succ.get(0).contains(c));
     }
 
+    /**
+     * Test the immediateSuccessors method with a precedence relation computed once.
+     */
+    @Test
+    public void testimmediateSucessorsPrecedence() {
+        Context context = Context.random(12, 6, 4);
+        Precedence precedence = new Precedence(context);
+        for (Object node : ConceptLattice.diagramLattice(context).getNodes()) {
+            Concept concept = (Concept) node;
+            assertEquals(concept.immediateSuccessors(context), concept.immediateSuccessors(context, precedence));
+        }
+    }
+
     /**
      * Test the toString method.
      */
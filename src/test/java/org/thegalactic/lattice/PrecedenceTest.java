@@ -0,0 +1,67 @@
+package org.thegalactic.lattice;
+
+/*
+ * PrecedenceTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import org.junit.Test;
+import org.thegalactic.context.Context;
+import org.thegalactic.dgraph.DAGraph;
+import org.thegalactic.dgraph.Node;
+import org.thegalactic.util.ComparableSet;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Precedence test.
+ */
+public class PrecedenceTest {
+
+    /**
+     * Test of component and valuation methods, of class Precedence.
+     */
+    @Test
+    public void testValuation() {
+        for (int k = 0; k < 3; k++) {
+            Context context = Context.random(15, 8, 2);
+            Precedence precedence = new Precedence(context);
+            DAGraph acyclPrec = context.precedenceGraph().getStronglyConnectedComponent();
+            for (Object cc : acyclPrec.getNodes()) {
+                TreeSet<Comparable> component = new TreeSet<Comparable>();
+                for (Object y : (SortedSet) ((Node) cc).getContent()) {
+                    component.add((Comparable) ((Node) y).getContent());
+                }
+                for (Comparable x : component) {
+                    assertEquals(component, precedence.component(x));
+                }
+            }
+            for (Object node : ConceptLattice.completeLattice(context).getNodes()) {
+                ComparableSet setF = new ComparableSet(((Concept) node).getSetA());
+                ComparableSet expected = new ComparableSet(setF);
+                for (Object cc : acyclPrec.getNodes()) {
+                    Node first = (Node) ((SortedSet) ((Node) cc).getContent()).first();
+                    TreeSet<Comparable> component = precedence.component((Comparable) first.getContent());
+                    component.retainAll(setF);
+                    if (!component.isEmpty()) {
+                        for (Object minorant : acyclPrec.minorants((Node) cc)) {
+                            for (Object y : (SortedSet) ((Node) minorant).getContent()) {
+                                expected.remove(((Node) y).getContent());
+                            }
+                        }
+                    }
+                }
+                assertEquals(expected, precedence.valuation(setF));
+            }
+        }
+        assertEquals(new TreeSet<Comparable>(), new Precedence(new Context()).component("a"));
+    }
+}
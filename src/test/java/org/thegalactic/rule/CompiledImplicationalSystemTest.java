@@ -0,0 +1,146 @@
+package org.thegalactic.rule;
+
+/*
+ * CompiledImplicationalSystemTest.java
+ *
+ * Copyright: 2016 The Galactic Organization, France
+ *
+ * License: http://www.cecill.info/licences/Licence_CeCILL-B_V1-en.html CeCILL-B license
+ *
+ * This file is part of java-lattices.
+ * You can redistribute it and/or modify it under the terms of the CeCILL-B license.
+ */
+import java.util.ArrayList;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * CompiledImplicationalSystem test.
+ */
+public class CompiledImplicationalSystemTest {
+
+    /**
+     * Test of create and toImplicationalSystem methods, of class CompiledImplicationalSystem.
+     */
+    @Test
+    public void testToImplicationalSystem() {
+        ImplicationalSystem is = ImplicationalSystem.random(70, 20);
+        CompiledImplicationalSystem compiled = is.compile();
+        assertEquals(is.sizeElements(), compiled.sizeElements());
+        assertEquals(is.sizeRules(), compiled.sizeRules());
+        assertEquals(is.getSet(), compiled.getSet());
+        assertEquals(is.getRules(), compiled.toImplicationalSystem().getRules());
+        assertEquals(is.getRules().first(), compiled.getRule(0));
+        assertSame(compiled, is.compile());
+        is.removeRule(is.getRules().first());
+        assertNotSame(compiled, is.compile());
+        assertEquals(is.sizeRules(), is.compile().sizeRules());
+    }
+
+    /**
+     * Test of create method with a rule on other elements, of class CompiledImplicationalSystem.
+     */
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateException() {
+        TreeSet<Comparable> set = new TreeSet<Comparable>();
+        set.add("a");
+        Rule rule = new Rule();
+        rule.addToPremise("a");
+        rule.addToConclusion("b");
+        ArrayList<Rule> rules = new ArrayList<Rule>();
+        rules.add(rule);
+        CompiledImplicationalSystem.create(set, rules);
+    }
+
+    /**
+     * Test of closure and implies methods, of class CompiledImplicationalSystem.
+     */
+    @Test
+    public void testClosure() {
+        ImplicationalSystem is = ImplicationalSystem.random(12, 40);
+        CompiledImplicationalSystem compiled = is.compile();
+        for (int i = 0; i < 20; i++) {
+            TreeSet<Comparable> x = new TreeSet<Comparable>();
+            for (Comparable e : is.getSet()) {
+                if (Math.random() < 0.2) {
+                    x.add(e);
+                }
+            }
+            TreeSet<Comparable> closure = is.closure(x);
+            assertEquals(closure, compiled.closure(x));
+            TreeSet<Comparable> conclusion = new TreeSet<Comparable>(is.getSet());
+            conclusion.removeAll(closure);
+            assertTrue(compiled.implies(new Rule(x, closure)));
+            assertEquals(conclusion.isEmpty(), compiled.implies(new Rule(x, conclusion)));
+        }
+        TreeSet<Comparable> x = new TreeSet<Comparable>();
+        x.add(-1);
+        assertTrue(compiled.closure(x).contains(-1));
+        assertTrue(compiled.implies(compiled));
+    }
+
+    /**
+     * Test of proper and rightMaximal methods, of class CompiledImplicationalSystem.
+     */
+    @Test
+    public void testRightMaximal() {
+        ImplicationalSystem is = ImplicationalSystem.random(10, 30);
+        CompiledImplicationalSystem compiled = is.compile();
+        CompiledImplicationalSystem proper = compiled.proper();
+        assertTrue(proper.isEquivalent(compiled));
+        for (int r = 0; r < proper.sizeRules(); r++) {
+            Rule rule = proper.getRule(r);
+            assertFalse(rule.getConclusion().isEmpty());
+            for (Object e : rule.getConclusion()) {
+                assertFalse(rule.getPremise().contains(e));
+            }
+        }
+        CompiledImplicationalSystem maximal = compiled.rightMaximal();
+        assertTrue(maximal.isEquivalent(compiled));
+        TreeSet<Comparable> premises = new TreeSet<Comparable>();
+        for (int r = 0; r < maximal.sizeRules(); r++) {
+            Rule rule = maximal.getRule(r);
+            assertTrue(premises.add(rule.getPremise().toString()));
+            TreeSet<Comparable> closure = new TreeSet<Comparable>(rule.getPremise());
+            closure.addAll(rule.getConclusion());
+            assertEquals(is.closure(rule.getPremise()), closure);
+        }
+    }
+
+    /**
+     * Test of minimum and canonicalBasis methods, of class CompiledImplicationalSystem.
+     */
+    @Test
+    public void testCanonicalBasis() {
+        for (int i = 0; i < 3; i++) {
+            ImplicationalSystem is = ImplicationalSystem.random(8, 15);
+            CompiledImplicationalSystem compiled = is.compile();
+            CompiledImplicationalSystem minimum = compiled.minimum();
+            CompiledImplicationalSystem basis = compiled.canonicalBasis();
+            assertTrue(minimum.isEquivalent(compiled));
+            assertTrue(basis.isEquivalent(compiled));
+            assertEquals(basis.sizeRules(), minimum.sizeRules());
+            is.makeCanonicalBasis();
+            assertEquals(is.getRules(), basis.toImplicationalSystem().getRules());
+        }
+    }
+
+    /**
+     * Test of canonicalBasis method on a large system, of class CompiledImplicationalSystem.
+     */
+    @Test
+    public void testCanonicalBasisLarge() {
+        ImplicationalSystem is = ImplicationalSystem.random(30, 200);
+        CompiledImplicationalSystem basis = is.compile().canonicalBasis();
+        is.makeCanonicalBasis();
+        assertTrue(is.sizeRules() > 1);
+        assertEquals(is.getRules(), basis.toImplicationalSystem().getRules());
+    }
+}
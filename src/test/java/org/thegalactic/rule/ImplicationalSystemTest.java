@@ -537,4 +537,68 @@ public class ImplicationalSystemTest {
         is.reduction();
         assertTrue(is.isReduced());
     }
+
+    /**
+     * Test of closure method above the LinClosure threshold, of class ImplicationalSystem.
+     */
+    @Test
+    public void testClosureLinClosure() {
+        ImplicationalSystem is = ImplicationalSystem.random(12, 80);
+        is.addRule(new Rule(new TreeSet<Comparable>(), new TreeSet<Comparable>(is.getSet().headSet(2))));
+        for (int k = 0; k < 2; k++) {
+            for (int i = 0; i < 20; i++) {
+                TreeSet<Comparable> x = new TreeSet<Comparable>();
+                for (Comparable e : is.getSet()) {
+                    if (Math.random() < 0.2) {
+                        x.add(e);
+                    }
+                }
+                TreeSet<Comparable> expected = new TreeSet<Comparable>(x);
+                boolean changed = true;
+                while (changed) {
+                    changed = false;
+                    for (Rule rule : is.getRules()) {
+                        if (expected.containsAll(rule.getPremise()) && !expected.containsAll(rule.getConclusion())) {
+                            expected.addAll(rule.getConclusion());
+                            changed = true;
+                        }
+                    }
+                }
+                assertEquals(expected, is.closure(x));
+            }
+            is.removeRule(is.getRules().first());
+            is.removeRule(is.getRules().last());
+        }
+    }
+
+    /**
+     * Test of closure method without a rule, of class ImplicationalSystem.
+     */
+    @Test
+    public void testClosureWithoutRule() {
+        for (int nbR : new int[] {10, 60}) {
+            ImplicationalSystem is = ImplicationalSystem.random(10, nbR);
+            for (Rule rule : is.getRules()) {
+                ImplicationalSystem epsilon = new ImplicationalSystem(is);
+                epsilon.removeRule(rule);
+                assertEquals(epsilon.closure(rule.getPremise()), is.closure(rule.getPremise(), rule));
+            }
+            assertEquals(is.closure(new TreeSet<Comparable>()), is.closure(new TreeSet<Comparable>(), new Rule()));
+        }
+    }
+
+    /**
+     * Test of makeMinimum and makeCanonicalBasis methods above the LinClosure threshold, of class ImplicationalSystem.
+     */
+    @Test
+    public void testmakeCanonicalBasisLarge() {
+        ImplicationalSystem is = ImplicationalSystem.random(12, 60);
+        ImplicationalSystem basis = is.canonicalBasis();
+        ImplicationalSystem minimum = new ImplicationalSystem(is);
+        minimum.makeMinimum();
+        assertTrue(minimum.isMinimum());
+        assertEquals(basis.sizeRules(), minimum.sizeRules());
+        is.makeCanonicalBasis();
+        assertEquals(basis.getRules(), is.getRules());
+    }
 }